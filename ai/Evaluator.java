@@ -0,0 +1,22 @@
+package connect4.ai;
+
+import connect4.enums.*;
+import connect4.game.*;
+
+/**
+ * This static class scores positions for the SearchEngine when it can't look any deeper
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class Evaluator {
+
+	/**
+	 * Scores the position for the given player. Every Position keeps a running score of every line that only one player has tokens in,
+	 * weighted by how many tokens that player has there, so this is just a lookup and never has to rescan the board.
+	 * @param position The position to score
+	 * @param playerID The PlayerID of the player to score the position for
+	 * @return Returns the player's score minus the opposing player's score
+	 */
+	public static int evaluate(Position position, PlayerID playerID) {
+		return position.getLineScore(playerID);
+	}
+}
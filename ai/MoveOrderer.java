@@ -0,0 +1,187 @@
+package connect4.ai;
+
+import connect4.enums.*;
+import connect4.game.*;
+import java.util.*;
+
+/**
+ * This class decides which order the SearchEngine tries columns in. Alpha-beta pruning cuts off the most when the best column is tried first, so this is one of the cheapest ways to make the search faster.
+ * Columns are tried in this order: the best column the TranspositionTable remembers, the killer columns that caused cutoffs at the same ply elsewhere in the search,
+ * then the rest by how often they have caused cutoffs (the history table), with columns closer to the center first when nothing else tells them apart.
+ * Nothing in here is kept for every column, so a search on a sparse board thousands of columns wide doesn't need thousands of ints per thread:
+ * the history table tops out at MAXIMUM_HISTORY_COLUMNS and columns further apart than that share a history score, and the center order is worked out as it's needed.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class MoveOrderer {
+
+	//The most columns the history table keeps apart. Every dense board is narrower than this, so only wide sparse boards ever share history scores.
+	public static final int MAXIMUM_HISTORY_COLUMNS = 4096;
+
+	//How the different kinds of columns are ranked. Each kind always outranks the ones below it.
+	private static final int _TRANSPOSITION_SCORE = 1 << 30;
+	private static final int _FIRST_KILLER_SCORE = 1 << 29;
+	private static final int _SECOND_KILLER_SCORE = 1 << 28;
+	private static final int _MAXIMUM_HISTORY_SCORE = 1 << 24;
+
+	//The number of columns on the board, and the one in the center
+	private int _columns;
+	private int _centerColumn;
+
+	//Two killer columns for every ply, and a history score for every player and column (modulo MAXIMUM_HISTORY_COLUMNS)
+	private int[][] _killers;
+	private int[][] _history;
+
+	//Scratch space for sorting, which only grows to the most candidates ordered at once, so ordering stops allocating once it has
+	private int[] _scores;
+
+	//When false, columns are simply tried from left to right. Only useful for measuring how much ordering helps.
+	private boolean _isEnabled;
+
+	/**
+	 * Creates a new MoveOrderer for the given number of columns and plies
+	 * @param columns The number of columns on the board
+	 * @param maximumPly The deepest ply the search can reach
+	 */
+	public MoveOrderer(int columns, int maximumPly) {
+		_columns = columns;
+		_centerColumn = columns / 2;
+		_killers = new int[maximumPly + 1][2];
+		_history = new int[PlayerID.values().length][Math.min(columns, MAXIMUM_HISTORY_COLUMNS)];
+		_scores = new int[Math.min(columns, MAXIMUM_HISTORY_COLUMNS)];
+		_isEnabled = true;
+		clear();
+	}
+
+	/**
+	 * Gets a column's place in the order out from the center, which alternates left and right: 3, 2, 4, 1, 5, 0, 6 on seven columns
+	 * @param column The column
+	 * @return Returns 0 for the center column, 1 for the one left of it, 2 for the one right of it, and so on
+	 */
+	public int getCenterRank(int column) {
+		int distance = column - _centerColumn;
+		return (distance < 0) ? -2 * distance - 1 : 2 * distance;
+	}
+
+	/**
+	 * Determines whether moves are being ordered at all
+	 * @return Returns true if moves are being ordered, false if columns are tried from left to right
+	 */
+	public boolean isEnabled() {
+		return _isEnabled;
+	}
+
+	/**
+	 * Turns move ordering on or off. With it off, columns are tried from left to right, which is only useful for measuring how much ordering helps.
+	 * @param isEnabled True to order moves, false to try columns from left to right
+	 */
+	public void setEnabled(boolean isEnabled) {
+		_isEnabled = isEnabled;
+	}
+
+	/**
+	 * Forgets every killer and history score
+	 */
+	public void clear() {
+		for (int[] killers : _killers) {
+			killers[0] = -1;
+			killers[1] = -1;
+		}
+		for (int[] history : _history) {
+			Arrays.fill(history, 0);
+		}
+	}
+
+	/**
+	 * Gets ready for a new search. Killers only make sense within one search, but history is worth keeping, so it is only halved.
+	 */
+	public void newSearch() {
+		for (int[] killers : _killers) {
+			killers[0] = -1;
+			killers[1] = -1;
+		}
+		for (int[] history : _history) {
+			for (int column = 0; column < history.length; column++) {
+				history[column] /= 2;
+			}
+		}
+	}
+
+	/**
+	 * Fills the given array with the position's candidate columns (see Position.getCandidateColumns) in the order they should be searched.
+	 * Only the candidates are looked at, so on a sparse board this never touches the rest of the columns.
+	 * @param ply The number of moves made since the root of the search
+	 * @param transpositionMove The best column the TranspositionTable remembers for this position, or -1 if there isn't one
+	 * @param playerID The PlayerID of the player whose turn it is
+	 * @param candidates The playable columns to order, from Position.getCandidateColumns
+	 * @param candidateCount The number of candidate columns
+	 * @param moves The array to fill, which has to have room for every candidate
+	 * @return Returns the number of columns put in the array, which is always candidateCount
+	 */
+	public int orderMoves(int ply, int transpositionMove, PlayerID playerID, int[] candidates, int candidateCount, int[] moves) {
+		if (!_isEnabled) {
+			System.arraycopy(candidates, 0, moves, 0, candidateCount);
+			return candidateCount;
+		}
+
+		if (_scores.length < candidateCount) {
+			_scores = new int[Math.min(Math.max(candidateCount, _scores.length * 2), _columns)];
+		}
+
+		int[] killers = _killers[ply];
+		int[] history = _history[playerID.ordinal()];
+
+		int count = 0;
+		for (int i = 0; i < candidateCount; i++) {
+			int column = candidates[i];
+			int centerRank = getCenterRank(column);
+
+			int score = history[column % history.length] - centerRank; //Earlier in the center order wins ties
+			if (column == transpositionMove) {
+				score = _TRANSPOSITION_SCORE;
+			}
+			else if (column == killers[0]) {
+				score = _FIRST_KILLER_SCORE;
+			}
+			else if (column == killers[1]) {
+				score = _SECOND_KILLER_SCORE;
+			}
+
+			//Insertion sort, since there are never more than a handful of columns. Equal scores go by the center order, whatever order the candidates came in.
+			int j = count;
+			while (j > 0 && (_scores[j - 1] < score || (_scores[j - 1] == score && getCenterRank(moves[j - 1]) > centerRank))) {
+				_scores[j] = _scores[j - 1];
+				moves[j] = moves[j - 1];
+				j--;
+			}
+			_scores[j] = score;
+			moves[j] = column;
+			count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Remembers that a column caused a beta cutoff, so it gets tried earlier next time
+	 * @param ply The number of moves made since the root of the search
+	 * @param column The column that caused the cutoff
+	 * @param playerID The PlayerID of the player who played the column
+	 * @param depth The number of moves that were left to search, since cutoffs higher up the tree save more work
+	 */
+	public void recordCutoff(int ply, int column, PlayerID playerID, int depth) {
+		int[] killers = _killers[ply];
+		if (killers[0] != column) {
+			killers[1] = killers[0];
+			killers[0] = column;
+		}
+
+		int[] history = _history[playerID.ordinal()];
+		int index = column % history.length;
+		history[index] += depth * depth;
+		if (history[index] > _MAXIMUM_HISTORY_SCORE) { //Keep history from ever outranking the killers
+			for (int i = 0; i < history.length; i++) {
+				history[i] /= 2;
+			}
+		}
+	}
+}
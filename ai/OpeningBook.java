@@ -0,0 +1,332 @@
+package connect4.ai;
+
+import connect4.enums.*;
+import connect4.game.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * This class looks up precomputed best moves for the start of the game, so the AI doesn't have to search the most expensive and most repetitive positions over and over.
+ * The book is a binary file made ahead of time by the OpeningBookGenerator tool. It is memory-mapped rather than read, so opening it costs next to nothing and the operating system only pages in the parts that get looked up.
+ * The file starts with a header, then an index of where each hash bucket starts, then the entries sorted by their mixed hash. Finding a position means reading its bucket's two index slots and checking the one or two entries between them.
+ * Positions are stored from the point of view of the player to move, and a position and its mirror image share one entry.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class OpeningBook {
+
+	//The file the ComputerPlayer looks for in the working directory when it starts
+	public static final String DEFAULT_FILE_NAME = "connect4.book";
+
+	//Returned by probe when the position isn't in the book
+	public static final int MISS = 0;
+
+	//The layout of the file
+	private static final int _MAGIC = 0x43344F42; //"C4OB"
+	private static final int _VERSION = 1;
+	private static final int _HEADER_BYTES = 32;
+	private static final int _ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+
+	//How each entry's data is packed: the best move plus one in the top byte (so 0 means none), and the score in the low 24 bits
+	private static final int _MOVE_SHIFT = 24;
+	private static final int _SCORE_MASK = 0xFFFFFF;
+
+	//The default book, mapped once and shared by every ComputerPlayer
+	private static OpeningBook _defaultBook;
+	private static boolean _isDefaultBookLoaded;
+
+	//The mapped file and what its header says
+	private MappedByteBuffer _buffer;
+	private int _columns;
+	private int _rows;
+	private int _maximumPly;
+	private int _entryCount;
+	private int _indexBits;
+	private int _entriesOffset;
+
+	/**
+	 * Creates a new OpeningBook from an already mapped file, checking its header
+	 * @param buffer The mapped file
+	 * @throws IOException Thrown if the file isn't an opening book this version understands
+	 */
+	private OpeningBook(MappedByteBuffer buffer) throws IOException {
+		_buffer = buffer;
+		if (_buffer.capacity() < _HEADER_BYTES || _buffer.getInt(0) != _MAGIC || _buffer.getInt(4) != _VERSION) {
+			throw new IOException("Not an opening book");
+		}
+
+		_columns = _buffer.getInt(8);
+		_rows = _buffer.getInt(12);
+		_maximumPly = _buffer.getInt(16);
+		_entryCount = _buffer.getInt(20);
+		_indexBits = _buffer.getInt(24);
+		_entriesOffset = _HEADER_BYTES + ((1 << _indexBits) + 1) * Integer.BYTES;
+
+		if ((long) _entriesOffset + (long) _entryCount * _ENTRY_BYTES > _buffer.capacity()) {
+			throw new IOException("The opening book is cut off");
+		}
+	}
+
+	/**
+	 * Maps an opening book file into memory
+	 * @param path The path of the file
+	 * @return Returns the OpeningBook
+	 * @throws IOException Thrown if the file can't be read or isn't an opening book
+	 */
+	public static OpeningBook open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())); //The mapping stays valid after the channel is closed
+		}
+	}
+
+	/**
+	 * Gets the book in DEFAULT_FILE_NAME, mapping it the first time it's asked for
+	 * @return Returns the default OpeningBook, or null if there isn't one or it can't be read
+	 */
+	public static synchronized OpeningBook getDefault() {
+		if (!_isDefaultBookLoaded) {
+			_isDefaultBookLoaded = true;
+			Path path = Paths.get(DEFAULT_FILE_NAME);
+			if (Files.isReadable(path)) {
+				try {
+					_defaultBook = open(path);
+				}
+				catch (IOException e) {
+					System.err.println("Couldn't read the opening book: " + e.getMessage()); //Playing without a book is fine, just slower
+				}
+			}
+		}
+		return _defaultBook;
+	}
+
+	/**
+	 * Gets the number of moves into the game the book covers
+	 * @return Returns the largest number of tokens a position in the book can have
+	 */
+	public int getMaximumPly() {
+		return _maximumPly;
+	}
+
+	/**
+	 * Gets the number of positions in the book
+	 * @return Returns the number of positions in the book
+	 */
+	public int getEntryCount() {
+		return _entryCount;
+	}
+
+	/**
+	 * Looks up a position
+	 * @param bitBoard The position
+	 * @param playerID The PlayerID of the player whose turn it is
+	 * @return Returns the packed data for the position, or MISS if it isn't in the book
+	 */
+	public int probe(BitBoard bitBoard, PlayerID playerID) {
+		if (bitBoard.getNumberOfColumns() != _columns || bitBoard.getNumberOfRows() != _rows || bitBoard.getConnectLength() != WinningLines.CONNECT_LENGTH || bitBoard.getMoveCount() > _maximumPly) {
+			return MISS;
+		}
+
+		long key = _getKey(bitBoard.getPlayerMask(playerID), bitBoard.getOccupiedMask());
+		long mirroredKey = _getKey(_mirror(bitBoard.getPlayerMask(playerID), _columns, _rows), _mirror(bitBoard.getOccupiedMask(), _columns, _rows));
+		boolean isMirrored = mirroredKey < key;
+
+		int data = _find(isMirrored ? mirroredKey : key);
+		if (data == MISS || !isMirrored) {
+			return data;
+		}
+		int mirroredMove = _columns - 1 - getBestMove(data); //Flip the move back to match the real board
+		return ((mirroredMove + 1) << _MOVE_SHIFT) | (data & _SCORE_MASK);
+	}
+
+	/**
+	 * Unpacks the best move from an entry
+	 * @param data The packed data returned by probe
+	 * @return Returns the best column for the player to move, or -1 if there isn't one
+	 */
+	public static int getBestMove(int data) {
+		return (data >>> _MOVE_SHIFT) - 1;
+	}
+
+	/**
+	 * Unpacks the score from an entry
+	 * @param data The packed data returned by probe
+	 * @return Returns the score for the player to move, on the same scale as the SearchEngine's scores
+	 */
+	public static int getScore(int data) {
+		return (data << (Integer.SIZE - _MOVE_SHIFT)) >> (Integer.SIZE - _MOVE_SHIFT); //Sign extend the low 24 bits
+	}
+
+	/**
+	 * Finds a key in the mapped file
+	 * @param key The key of the position, already made canonical
+	 * @return Returns the packed data for the position, or MISS if it isn't in the book
+	 */
+	private int _find(long key) {
+		int bucket = _getBucket(key, _indexBits);
+		int start = _buffer.getInt(_HEADER_BYTES + bucket * Integer.BYTES);
+		int end = _buffer.getInt(_HEADER_BYTES + (bucket + 1) * Integer.BYTES);
+
+		for (int entry = start; entry < end; entry++) {
+			int offset = _entriesOffset + entry * _ENTRY_BYTES;
+			if (_buffer.getLong(offset) == key) {
+				return _buffer.getInt(offset + Long.BYTES);
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Makes the key for a position from the point of view of the player to move
+	 * @param current The tokens of the player to move
+	 * @param occupied Every occupied space
+	 * @return Returns the key
+	 */
+	private static long _getKey(long current, long occupied) {
+		return current + occupied;
+	}
+
+	/**
+	 * Flips a mask from left to right
+	 * @param mask The mask to flip
+	 * @param columns The number of columns on the board
+	 * @param rows The number of rows on the board
+	 * @return Returns the mirrored mask
+	 */
+	private static long _mirror(long mask, int columns, int rows) {
+		int height = rows + 1;
+		long columnMask = (1L << height) - 1;
+		long mirrored = 0L;
+		for (int column = 0; column < columns; column++) {
+			mirrored |= ((mask >>> (column * height)) & columnMask) << ((columns - 1 - column) * height);
+		}
+		return mirrored;
+	}
+
+	/**
+	 * Mixes a key so that its top bits are spread out evenly
+	 * @param key The key of the position
+	 * @return Returns the mixed hash
+	 */
+	private static long _mix(long key) {
+		return key * 0x9E3779B97F4A7C15L;
+	}
+
+	/**
+	 * Finds the bucket a key belongs in
+	 * @param key The key of the position
+	 * @param indexBits The number of bits in a bucket number
+	 * @return Returns the bucket
+	 */
+	private static int _getBucket(long key, int indexBits) {
+		return (int) (_mix(key) >>> (Long.SIZE - indexBits));
+	}
+
+	/**
+	 * This class collects positions and writes them out as an opening book file
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	public static class Builder {
+		private int _columns;
+		private int _rows;
+		private int _maximumPly;
+		private Map<Long, Integer> _entries;
+
+		/**
+		 * Creates a new Builder for a board of the given size
+		 * @param columns The number of columns on the board
+		 * @param rows The number of rows on the board
+		 * @param maximumPly The largest number of tokens a position in the book will have
+		 */
+		public Builder(int columns, int rows, int maximumPly) {
+			_columns = columns;
+			_rows = rows;
+			_maximumPly = maximumPly;
+			_entries = new HashMap<Long, Integer>();
+		}
+
+		/**
+		 * Determines whether a position, or its mirror image, has already been added
+		 * @param bitBoard The position
+		 * @param playerID The PlayerID of the player whose turn it is
+		 * @return Returns true if the position is already in the book
+		 */
+		public boolean contains(BitBoard bitBoard, PlayerID playerID) {
+			return _entries.containsKey(_getCanonicalKey(bitBoard, playerID));
+		}
+
+		/**
+		 * Gets the number of positions added so far
+		 * @return Returns the number of positions added so far
+		 */
+		public int getEntryCount() {
+			return _entries.size();
+		}
+
+		/**
+		 * Adds a position to the book
+		 * @param bitBoard The position
+		 * @param playerID The PlayerID of the player whose turn it is
+		 * @param bestMove The best column for the player to move
+		 * @param score The score for the player to move, which must fit in 24 bits
+		 */
+		public void add(BitBoard bitBoard, PlayerID playerID, int bestMove, int score) {
+			long current = bitBoard.getPlayerMask(playerID);
+			long occupied = bitBoard.getOccupiedMask();
+			long key = _getKey(current, occupied);
+			long mirroredKey = _getKey(_mirror(current, _columns, _rows), _mirror(occupied, _columns, _rows));
+
+			if (mirroredKey < key) { //Store it the way probe will look for it
+				key = mirroredKey;
+				bestMove = _columns - 1 - bestMove;
+			}
+			_entries.put(key, ((bestMove + 1) << _MOVE_SHIFT) | (score & _SCORE_MASK));
+		}
+
+		/**
+		 * Writes the book to a file
+		 * @param path The path of the file to write
+		 * @throws IOException Thrown if the file can't be written
+		 */
+		public void write(Path path) throws IOException {
+			int entryCount = _entries.size();
+			int indexBits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(entryCount)); //About one entry per bucket
+			int buckets = 1 << indexBits;
+
+			//Sort the keys by their mixed hash so each bucket is one run of entries
+			Long[] order = _entries.keySet().toArray(new Long[entryCount]);
+			Arrays.sort(order, (a, b) -> Long.compareUnsigned(_mix(a), _mix(b)));
+
+			ByteBuffer buffer = ByteBuffer.allocate(_HEADER_BYTES + (buckets + 1) * Integer.BYTES + entryCount * _ENTRY_BYTES);
+			buffer.putInt(_MAGIC).putInt(_VERSION).putInt(_columns).putInt(_rows).putInt(_maximumPly).putInt(entryCount).putInt(indexBits).putInt(0);
+
+			//The index: where each bucket starts, plus one more slot for where the last one ends
+			int entry = 0;
+			for (int bucket = 0; bucket <= buckets; bucket++) {
+				while (entry < entryCount && _getBucket(order[entry], indexBits) < bucket) {
+					entry++;
+				}
+				buffer.putInt(entry);
+			}
+
+			for (Long key : order) {
+				buffer.putLong(key).putInt(_entries.get(key));
+			}
+
+			Files.write(path, buffer.array());
+		}
+
+		/**
+		 * Makes the key a position is stored under, which is the smaller of its key and its mirror image's key
+		 * @param bitBoard The position
+		 * @param playerID The PlayerID of the player whose turn it is
+		 * @return Returns the canonical key
+		 */
+		private long _getCanonicalKey(BitBoard bitBoard, PlayerID playerID) {
+			long current = bitBoard.getPlayerMask(playerID);
+			long occupied = bitBoard.getOccupiedMask();
+			return Math.min(_getKey(current, occupied), _getKey(_mirror(current, _columns, _rows), _mirror(occupied, _columns, _rows)));
+		}
+	}
+}
@@ -0,0 +1,637 @@
+package connect4.ai;
+
+import connect4.enums.*;
+import connect4.game.*;
+import connect4.telemetry.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This class searches ahead from a position using negamax with alpha-beta pruning to decide which column to play.
+ * It uses iterative deepening, searching 1 move ahead, then 2, then 3 and so on, so that it always has the answer of the last finished depth to fall back on when it runs out of time or nodes.
+ * With more than one thread it runs a Lazy SMP search: every thread searches the same root at slightly different depths, and they help each other through the shared TranspositionTable.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class SearchEngine {
+
+	//Any score at least this big means somebody has four in a row somewhere in the search. Wins found sooner score higher.
+	public static final int WIN_SCORE = 1000000;
+
+	//The default number of moves to look ahead
+	public static final int DEFAULT_DEPTH = 10;
+
+	//Deep enough to reach the end of a game on any board with up to this many spaces (the most a TranspositionTable entry can store), for when only the clock should stop the search
+	public static final int MAXIMUM_DEPTH = 255;
+
+	//The default number of threads to search with
+	public static final int DEFAULT_THREAD_COUNT = 1;
+
+	//The default amount of memory for the TranspositionTable, in megabytes
+	public static final int DEFAULT_TRANSPOSITION_TABLE_MEGABYTES = 16;
+
+	//Scores past this are wins or losses, which are stored in the TranspositionTable relative to the position rather than the root
+	private static final int _WIN_THRESHOLD = WIN_SCORE - 1000;
+
+	//Mixed into the key when it is player 2's turn, since a Position's key doesn't say whose turn it is
+	private static final long _PLAYER2_KEY = 0x9E3779B97F4A7C15L;
+
+	//How many nodes to visit between looks at the clock, minus one. Has to be one less than a power of two.
+	private static final long _CLOCK_CHECK_INTERVAL_MASK = 1023;
+
+	//A new depth usually takes several times longer than the last one, so don't start one once this much of the time budget is gone
+	private static final double _NEXT_DEPTH_TIME_FRACTION = 0.5;
+
+	//Shared by every thread
+	private TranspositionTable _transpositionTable;
+	private boolean _isMoveOrderingEnabled;
+	private int _depth;
+
+	//The main worker searches on the calling thread, and the rest search on the helper threads
+	private SearchWorker[] _workers;
+	private ExecutorService _helperExecutor;
+	private int _threadCount;
+
+	//The results of the most recent search
+	private long _nodeCount;
+	private int _bestColumn;
+	private int _bestScore;
+	private int _depthReached;
+	private SearchStatistics _statistics;
+
+	//Everything needed to know when to give up on a search
+	private long _deadlineNanos;
+	private long _nodeBudget;
+	private volatile boolean _isStopRequested;
+	private volatile boolean _areHelpersStopped;
+
+	/**
+	 * Creates a new SearchEngine that looks the default number of moves ahead with the default TranspositionTable size
+	 */
+	public SearchEngine() {
+		this(DEFAULT_DEPTH);
+	}
+
+	/**
+	 * Creates a new SearchEngine that looks the given number of moves ahead with the default TranspositionTable size
+	 * @param depth The number of moves to look ahead
+	 */
+	public SearchEngine(int depth) {
+		this(depth, DEFAULT_TRANSPOSITION_TABLE_MEGABYTES);
+	}
+
+	/**
+	 * Creates a new SearchEngine that looks the given number of moves ahead
+	 * @param depth The number of moves to look ahead
+	 * @param transpositionTableMegabytes The amount of memory to give the TranspositionTable, in megabytes
+	 */
+	public SearchEngine(int depth, int transpositionTableMegabytes) {
+		setDepth(depth);
+		_transpositionTable = new TranspositionTable(transpositionTableMegabytes);
+		_isMoveOrderingEnabled = true;
+		_threadCount = DEFAULT_THREAD_COUNT;
+		_workers = new SearchWorker[0];
+	}
+
+	/**
+	 * Determines whether moves are ordered before they are searched
+	 * @return Returns true if moves are ordered, false if columns are tried from left to right
+	 */
+	public boolean isMoveOrderingEnabled() {
+		return _isMoveOrderingEnabled;
+	}
+
+	/**
+	 * Turns move ordering on or off. Turning it off makes the search much slower, so this is only meant for measuring how much ordering helps.
+	 * @param isMoveOrderingEnabled True to order moves, false to try columns from left to right
+	 */
+	public void setMoveOrderingEnabled(boolean isMoveOrderingEnabled) {
+		_isMoveOrderingEnabled = isMoveOrderingEnabled;
+	}
+
+	/**
+	 * Gets the TranspositionTable this SearchEngine remembers positions in
+	 * @return Returns the TranspositionTable this SearchEngine remembers positions in
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return _transpositionTable;
+	}
+
+	/**
+	 * Gets the number of moves this SearchEngine looks ahead
+	 * @return Returns the number of moves this SearchEngine looks ahead
+	 */
+	public int getDepth() {
+		return _depth;
+	}
+
+	/**
+	 * Sets the number of moves this SearchEngine looks ahead
+	 * @param depth The number of moves to look ahead, at least 1
+	 */
+	public void setDepth(int depth) {
+		if (depth < 1) {
+			throw new IllegalArgumentException("The search depth must be at least 1");
+		}
+		_depth = depth;
+	}
+
+	/**
+	 * Gets the number of threads this SearchEngine searches with
+	 * @return Returns the number of threads this SearchEngine searches with
+	 */
+	public int getThreadCount() {
+		return _threadCount;
+	}
+
+	/**
+	 * Sets the number of threads this SearchEngine searches with. The calling thread is always one of them, so a count of 1 never starts any extra threads.
+	 * @param threadCount The number of threads to search with, at least 1
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("A search needs at least 1 thread");
+		}
+		if (threadCount == _threadCount) {
+			return;
+		}
+
+		shutdown();
+		_threadCount = threadCount;
+		_workers = new SearchWorker[0]; //Rebuilt for the new count on the next search
+	}
+
+	/**
+	 * Stops the helper threads. The SearchEngine can still be used afterwards, it will just start new ones the next time it needs them.
+	 */
+	public void shutdown() {
+		if (_helperExecutor != null) {
+			_helperExecutor.shutdownNow();
+			_helperExecutor = null;
+		}
+	}
+
+	/**
+	 * Gets the number of positions visited during the most recent search, by every thread
+	 * @return Returns the number of positions visited during the most recent search
+	 */
+	public long getNodeCount() {
+		return _nodeCount;
+	}
+
+	/**
+	 * Gets the score of the column chosen by the most recent search, from the point of view of the player who searched
+	 * @return Returns the score of the column chosen by the most recent search
+	 */
+	public int getBestScore() {
+		return _bestScore;
+	}
+
+	/**
+	 * Gets the deepest depth the most recent search finished
+	 * @return Returns the deepest depth the most recent search finished
+	 */
+	public int getDepthReached() {
+		return _depthReached;
+	}
+
+	/**
+	 * Gets everything measured during the most recent search, from its timing to its principal variation
+	 * @return Returns the SearchStatistics of the most recent search, or null if nothing has been searched yet
+	 */
+	public SearchStatistics getStatistics() {
+		return _statistics;
+	}
+
+	/**
+	 * Asks a search that is running on another thread to give up as soon as possible. It will still return the best column of the last depth it finished.
+	 * The request sticks until clearStop is called, so a search that was just about to start gives up right away too.
+	 */
+	public void stop() {
+		_isStopRequested = true;
+	}
+
+	/**
+	 * Takes back a stop request so that searches run normally again
+	 */
+	public void clearStop() {
+		_isStopRequested = false;
+	}
+
+	/**
+	 * Searches the given position and chooses a column for the given player to play, looking as many moves ahead as this SearchEngine's depth
+	 * @param position The position to search from, which is copied and left untouched
+	 * @param playerID The PlayerID of the player whose turn it is
+	 * @return Returns the chosen column, or -1 if every column is full
+	 */
+	public int chooseColumn(Position position, PlayerID playerID) {
+		return chooseColumn(position, playerID, new SearchLimits(_depth));
+	}
+
+	/**
+	 * Searches the given position and chooses a column for the given player to play, deepening one move at a time until it reaches the maximum depth or runs out of its time or node budget
+	 * @param position The position to search from, which is copied and left untouched
+	 * @param playerID The PlayerID of the player whose turn it is
+	 * @param limits The limits the search has to stay within. The node budget only counts the calling thread's nodes.
+	 * @return Returns the chosen column, or -1 if every column is full
+	 */
+	public int chooseColumn(Position position, PlayerID playerID, SearchLimits limits) {
+		long startTime = System.nanoTime();
+		long startBytes = AllocationMeter.getAllocatedBytes();
+
+		_prepareWorkers(position);
+
+		long timeBudgetNanos = limits.getTimeBudgetMillis() * 1000000L;
+		_deadlineNanos = (timeBudgetNanos > 0) ? startTime + timeBudgetNanos : Long.MAX_VALUE;
+		_nodeBudget = (limits.getNodeBudget() > 0) ? limits.getNodeBudget() : Long.MAX_VALUE;
+		_areHelpersStopped = false;
+		_transpositionTable.newSearch();
+
+		long spacesLeft = position.getNumberOfSpaces() - position.getMoveCount();
+		int maximumDepth = (int) Math.min(Math.min(limits.getMaximumDepth(), MAXIMUM_DEPTH), Math.max(spacesLeft, 1)); //No point in looking past the end of the game
+
+		for (SearchWorker worker : _workers) {
+			worker.reset(position);
+		}
+
+		Future<?>[] helperFutures = new Future<?>[_workers.length - 1];
+		for (int i = 1; i < _workers.length; i++) {
+			SearchWorker helper = _workers[i];
+			helperFutures[i - 1] = _helperExecutor.submit(() -> helper.search(playerID, maximumDepth, startTime, timeBudgetNanos));
+		}
+
+		_workers[0].search(playerID, maximumDepth, startTime, timeBudgetNanos);
+
+		//The main worker decides when the search is over, so the helpers can stop now
+		_areHelpersStopped = true;
+		for (Future<?> helperFuture : helperFutures) {
+			try {
+				helperFuture.get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException e) {
+				throw new IllegalStateException("A search helper thread failed", e.getCause());
+			}
+		}
+
+		//Go with whichever worker finished the deepest depth, preferring the main worker on a tie
+		SearchWorker bestWorker = _workers[0];
+		_nodeCount = 0;
+		long interiorNodeCount = 0, cutoffCount = 0, transpositionProbeCount = 0, transpositionHitCount = 0;
+		for (SearchWorker worker : _workers) {
+			_nodeCount += worker._nodeCount;
+			interiorNodeCount += worker._interiorNodeCount;
+			cutoffCount += worker._cutoffCount;
+			transpositionProbeCount += worker._transpositionProbeCount;
+			transpositionHitCount += worker._transpositionHitCount;
+			if (worker._depthReached > bestWorker._depthReached && worker._bestColumn != -1) {
+				bestWorker = worker;
+			}
+		}
+		_bestColumn = bestWorker._bestColumn;
+		_bestScore = bestWorker._bestScore;
+		_depthReached = bestWorker._depthReached;
+
+		int[] principalVariation = _findPrincipalVariation(playerID);
+		_statistics = new SearchStatistics(System.nanoTime() - startTime, _nodeCount, _depthReached, interiorNodeCount, cutoffCount,
+			transpositionProbeCount, transpositionHitCount, _bestScore, principalVariation, AllocationMeter.getAllocatedBytes() - startBytes);
+
+		return _bestColumn;
+	}
+
+	/**
+	 * Follows the best moves in the TranspositionTable from the chosen column to find the line of play the search expects.
+	 * The line stops at the depth reached, at the end of the game, or where the table doesn't know the position anymore.
+	 * @param playerID The PlayerID of the player whose turn it is at the root
+	 * @return Returns the columns of the principal variation, starting with the chosen column
+	 */
+	private int[] _findPrincipalVariation(PlayerID playerID) {
+		Position position = _workers[0]._position; //Back at the root now that the search is over
+		int[] line = new int[_depthReached];
+		int length = 0;
+		int column = _bestColumn;
+		while (column >= 0 && length < line.length && position.canPlay(column)) {
+			boolean isWin = position.isWinningMove(column, playerID);
+			position.play(column, playerID);
+			line[length++] = column;
+			playerID = playerID.getOppositePlayerID();
+			if (isWin || position.getMoveCount() == position.getNumberOfSpaces()) {
+				break;
+			}
+
+			long entry = _transpositionTable.probe(_getKey(position, playerID));
+			column = (entry != TranspositionTable.MISS) ? TranspositionTable.getBestMove(entry) : -1;
+		}
+
+		for (int i = length - 1; i >= 0; i--) {
+			position.undo(line[i]);
+		}
+		return Arrays.copyOf(line, length);
+	}
+
+	/**
+	 * Makes sure there is one SearchWorker per thread, each ready for a position of the same kind, dimensions and connect length, and that the helper threads are running
+	 * @param position The position about to be searched
+	 */
+	private void _prepareWorkers(Position position) {
+		Position workerPosition = (_workers.length > 0) ? _workers[0]._position : null;
+		boolean isSameSize = _workers.length == _threadCount && workerPosition != null &&
+			workerPosition.getClass() == position.getClass() &&
+			workerPosition.getNumberOfColumns() == position.getNumberOfColumns() &&
+			workerPosition.getNumberOfRows() == position.getNumberOfRows() &&
+			workerPosition.getConnectLength() == position.getConnectLength();
+
+		if (!isSameSize) {
+			_workers = new SearchWorker[_threadCount];
+			for (int i = 0; i < _threadCount; i++) {
+				_workers[i] = new SearchWorker(i, position);
+			}
+		}
+
+		if (_threadCount > 1 && _helperExecutor == null) {
+			_helperExecutor = Executors.newFixedThreadPool(_threadCount - 1, runnable -> {
+				Thread thread = new Thread(runnable, "connect4-search-helper");
+				thread.setDaemon(true); //Helper threads should never keep the program running
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Gets the TranspositionTable key of the given position with the given player to move
+	 * @param position The position
+	 * @param playerID The PlayerID of the player whose turn it is
+	 * @return Returns the key of the position
+	 */
+	private static long _getKey(Position position, PlayerID playerID) {
+		long key = position.getKey();
+		return (playerID == PlayerID.PLAYER2) ? key ^ _PLAYER2_KEY : key;
+	}
+
+	/**
+	 * Converts a score so that wins and losses count their distance from this position instead of from the root, so they mean the same thing wherever the position is reached
+	 * @param score The score relative to the root
+	 * @param ply The number of moves made since the root
+	 * @return Returns the score to store in the TranspositionTable
+	 */
+	private static int _scoreToTable(int score, int ply) {
+		if (score > _WIN_THRESHOLD) {
+			return score + ply;
+		}
+		if (score < -_WIN_THRESHOLD) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	/**
+	 * Converts a score from the TranspositionTable back to being relative to the root
+	 * @param score The score from the TranspositionTable
+	 * @param ply The number of moves made since the root
+	 * @return Returns the score relative to the root
+	 */
+	private static int _scoreFromTable(int score, int ply) {
+		if (score > _WIN_THRESHOLD) {
+			return score - ply;
+		}
+		if (score < -_WIN_THRESHOLD) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	/**
+	 * This class holds everything one thread needs to search on its own: a copy of the position, its own move ordering and its own results.
+	 * Only the TranspositionTable is shared between threads.
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private class SearchWorker {
+		//Worker 0 is the main worker, which is the only one that watches the clock and the node budget
+		private int _index;
+		private Position _position;
+		private MoveOrderer _moveOrderer;
+		private int[][] _moveBuffers; //One array of ordered columns per ply, only as big as the most candidates seen at that ply, so searching stops allocating once they've grown
+		private int[] _candidateBuffer; //The candidate columns of the position being searched, which are ordered into _moveBuffers before going any deeper
+
+		//The results of this worker's search
+		private long _nodeCount;
+		private int _bestColumn;
+		private int _bestScore;
+		private int _depthReached;
+
+		//How well the pruning and the TranspositionTable are working for this worker
+		private long _interiorNodeCount;
+		private long _cutoffCount;
+		private long _transpositionProbeCount;
+		private long _transpositionHitCount;
+
+		//Whether this worker may give up yet, whether it has, and the best column of the depth it is working on
+		private boolean _canAbort;
+		private boolean _isAborted;
+		private int _rootBestColumn;
+
+		private SearchWorker(int index, Position position) {
+			int maximumPly = (int) Math.min(position.getNumberOfSpaces(), MAXIMUM_DEPTH); //The search never goes past the end of the game, or MAXIMUM_DEPTH on really big boards
+			int bufferLength = position.getCandidateCapacity(); //Every column on a dense board, so those buffers never have to grow
+			_index = index;
+			_position = position.copy();
+			_moveOrderer = new MoveOrderer(position.getNumberOfColumns(), maximumPly);
+			_moveBuffers = new int[maximumPly + 1][bufferLength];
+			_candidateBuffer = new int[bufferLength];
+		}
+
+		/**
+		 * Makes a buffer long enough to hold the given number of columns, at least doubling it so that it only has to grow a handful of times in a game
+		 * @param buffer The buffer that's too short
+		 * @param length The number of columns it has to hold
+		 * @return Returns a new, empty buffer
+		 */
+		private int[] _growBuffer(int[] buffer, int length) {
+			return new int[Math.min(Math.max(length, buffer.length * 2), _position.getNumberOfColumns())];
+		}
+
+		/**
+		 * Gets this worker ready to search the given position
+		 * @param position The position about to be searched
+		 */
+		private void reset(Position position) {
+			_position.copyFrom(position);
+			_moveOrderer.newSearch();
+			_moveOrderer.setEnabled(_isMoveOrderingEnabled);
+			_nodeCount = 0;
+			_bestColumn = -1;
+			_bestScore = -WIN_SCORE;
+			_depthReached = 0;
+			_interiorNodeCount = 0;
+			_cutoffCount = 0;
+			_transpositionProbeCount = 0;
+			_transpositionHitCount = 0;
+			_isAborted = false;
+		}
+
+		/**
+		 * Runs iterative deepening until the maximum depth, or until the search is stopped.
+		 * Odd-numbered helpers start one depth deeper than everyone else, so the threads spread out over different depths instead of all searching the same tree in lockstep.
+		 * @param playerID The PlayerID of the player whose turn it is
+		 * @param maximumDepth The deepest depth to search
+		 * @param startTime When the search started, from System.nanoTime
+		 * @param timeBudgetNanos The time budget in nanoseconds, or 0 for no limit
+		 */
+		private void search(PlayerID playerID, int maximumDepth, long startTime, long timeBudgetNanos) {
+			int startDepth = (_index % 2 == 1) ? Math.min(2, maximumDepth) : 1;
+
+			for (int depth = startDepth; depth <= maximumDepth; depth++) {
+				_canAbort = (_index > 0 || depth > 1); //The main worker always finishes depth 1 so there is always a column to give back
+				_rootBestColumn = -1;
+
+				int score = _negamax(depth, 0, -WIN_SCORE - 1, WIN_SCORE + 1, playerID);
+				if (_isAborted) {
+					break;
+				}
+
+				_bestColumn = _rootBestColumn;
+				_bestScore = score;
+				_depthReached = depth;
+
+				if (score > _WIN_THRESHOLD || score < -_WIN_THRESHOLD) { //The result of the game is already known, deeper won't change it
+					break;
+				}
+				if (_index == 0 && timeBudgetNanos > 0 && System.nanoTime() - startTime > timeBudgetNanos * _NEXT_DEPTH_TIME_FRACTION) { //The next depth almost certainly wouldn't finish in time
+					break;
+				}
+			}
+		}
+
+		/**
+		 * The actual search. Scores are always from the point of view of the player whose turn it is, so a good score for one player is the negative of the score for the other.
+		 * @param depth The number of moves left to look ahead
+		 * @param ply The number of moves made since the root of the search
+		 * @param alpha The score the player to move is already guaranteed
+		 * @param beta The score the opposing player is already guaranteed, so anything at least this good for the player to move will never be allowed
+		 * @param playerID The PlayerID of the player whose turn it is
+		 * @return Returns the score of the position for the player whose turn it is
+		 */
+		private int _negamax(int depth, int ply, int alpha, int beta, PlayerID playerID) {
+			_nodeCount++;
+
+			if (_canAbort && (_isAborted || ((_nodeCount & _CLOCK_CHECK_INTERVAL_MASK) == 0 && _isOutOfBudget()))) { //Once aborted, every score is meaningless, so just unwind
+				_isAborted = true;
+				return 0;
+			}
+
+			//Only the candidate columns can win, and on a sparse board they are the only ones worth searching, so the rest of the board is never looked at
+			if (_candidateBuffer.length < _position.getCandidateCapacity()) {
+				_candidateBuffer = _growBuffer(_candidateBuffer, _position.getCandidateCapacity());
+			}
+			int[] candidates = _candidateBuffer;
+			int candidateCount = _position.getCandidateColumns(candidates);
+
+			for (int i = 0; i < candidateCount; i++) { //If there is a win right here, nothing else matters
+				int column = candidates[i];
+				if (_position.isWinningMove(column, playerID)) {
+					if (ply == 0) {
+						_rootBestColumn = column;
+					}
+					return WIN_SCORE - ply - 1;
+				}
+			}
+
+			if (_position.getMoveCount() == _position.getNumberOfSpaces()) { //The board is full, so it's a draw
+				return 0;
+			}
+
+			if (depth == 0) {
+				return Evaluator.evaluate(_position, playerID);
+			}
+
+			long key = _getKey(_position, playerID);
+			long entry = _transpositionTable.probe(key);
+			_transpositionProbeCount++;
+			if (entry != TranspositionTable.MISS) {
+				_transpositionHitCount++;
+			}
+			int transpositionMove = (entry != TranspositionTable.MISS) ? TranspositionTable.getBestMove(entry) : -1;
+			if (entry != TranspositionTable.MISS && ply > 0 && TranspositionTable.getDepth(entry) >= depth) { //The root always searches so that it has a column to give back
+				int score = _scoreFromTable(TranspositionTable.getScore(entry), ply);
+				int bound = TranspositionTable.getBound(entry);
+
+				if (bound == TranspositionTable.BOUND_EXACT) {
+					return score;
+				}
+				if (bound == TranspositionTable.BOUND_LOWER && score > alpha) {
+					alpha = score;
+				}
+				else if (bound == TranspositionTable.BOUND_UPPER && score < beta) {
+					beta = score;
+				}
+				if (alpha >= beta) {
+					return score;
+				}
+			}
+
+			PlayerID opposingPlayerID = (playerID == PlayerID.PLAYER1) ? PlayerID.PLAYER2 : PlayerID.PLAYER1;
+			int originalAlpha = alpha;
+			int bestScore = -WIN_SCORE - 1;
+			int bestMove = -1;
+
+			_interiorNodeCount++;
+			int[] moves = _moveBuffers[ply];
+			if (moves.length < candidateCount) {
+				moves = _growBuffer(moves, candidateCount);
+				_moveBuffers[ply] = moves;
+			}
+			int moveCount = _moveOrderer.orderMoves(ply, transpositionMove, playerID, candidates, candidateCount, moves);
+
+			for (int i = 0; i < moveCount; i++) {
+				int column = moves[i];
+
+				_position.play(column, playerID);
+				int score = -_negamax(depth - 1, ply + 1, -beta, -alpha, opposingPlayerID);
+				_position.undo(column);
+
+				if (_isAborted) {
+					return 0;
+				}
+
+				if (score > bestScore) {
+					bestScore = score;
+					bestMove = column;
+					if (ply == 0) {
+						_rootBestColumn = column;
+					}
+				}
+				if (bestScore > alpha) {
+					alpha = bestScore;
+				}
+				if (alpha >= beta) { //The opposing player would never let it get this far, so there's no point in looking at the rest
+					_cutoffCount++;
+					_moveOrderer.recordCutoff(ply, column, playerID, depth);
+					break;
+				}
+			}
+
+			int bound = TranspositionTable.BOUND_EXACT;
+			if (bestScore <= originalAlpha) { //Nothing beat alpha, so all we know is the real score is no better than this
+				bound = TranspositionTable.BOUND_UPPER;
+			}
+			else if (bestScore >= beta) { //We stopped early, so the real score could be even better
+				bound = TranspositionTable.BOUND_LOWER;
+			}
+			_transpositionTable.store(key, _scoreToTable(bestScore, ply), bound, depth, bestMove);
+
+			return bestScore;
+		}
+
+		/**
+		 * Determines whether this worker should give up. The main worker watches the stop request, the node budget and the clock, while the helpers just wait for the main worker to finish.
+		 * @return Returns true if the search should give up
+		 */
+		private boolean _isOutOfBudget() {
+			if (_index > 0) {
+				return _areHelpersStopped || _isStopRequested;
+			}
+			return _isStopRequested || _nodeCount >= _nodeBudget || System.nanoTime() >= _deadlineNanos;
+		}
+	}
+}
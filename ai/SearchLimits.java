@@ -0,0 +1,78 @@
+package connect4.ai;
+
+/**
+ * This class holds the limits a single search has to stay within. A limit of 0 means there is no limit of that kind.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class SearchLimits {
+
+	//The limits themselves. These never change once created.
+	private final int _maximumDepth;
+	private final long _timeBudgetMillis;
+	private final long _nodeBudget;
+
+	/**
+	 * Creates a new set of SearchLimits
+	 * @param maximumDepth The deepest the search may go, at least 1
+	 * @param timeBudgetMillis The number of milliseconds the search may take, or 0 for no time limit
+	 * @param nodeBudget The number of positions the search may visit, or 0 for no limit
+	 */
+	public SearchLimits(int maximumDepth, long timeBudgetMillis, long nodeBudget) {
+		if (maximumDepth < 1) {
+			throw new IllegalArgumentException("The search depth must be at least 1");
+		}
+		if (timeBudgetMillis < 0 || nodeBudget < 0) {
+			throw new IllegalArgumentException("Search budgets can't be negative");
+		}
+		_maximumDepth = maximumDepth;
+		_timeBudgetMillis = timeBudgetMillis;
+		_nodeBudget = nodeBudget;
+	}
+
+	/**
+	 * Creates a new set of SearchLimits that only limits the depth
+	 * @param maximumDepth The deepest the search may go, at least 1
+	 */
+	public SearchLimits(int maximumDepth) {
+		this(maximumDepth, 0, 0);
+	}
+
+	/**
+	 * Gets the deepest the search may go
+	 * @return Returns the deepest the search may go
+	 */
+	public int getMaximumDepth() {
+		return _maximumDepth;
+	}
+
+	/**
+	 * Gets the number of milliseconds the search may take
+	 * @return Returns the number of milliseconds the search may take, 0 if there is no time limit
+	 */
+	public long getTimeBudgetMillis() {
+		return _timeBudgetMillis;
+	}
+
+	/**
+	 * Gets the number of positions the search may visit
+	 * @return Returns the number of positions the search may visit, 0 if there is no limit
+	 */
+	public long getNodeBudget() {
+		return _nodeBudget;
+	}
+
+	@Override
+	/**
+	 * Returns a String of the format "depth D, T ms, N nodes", leaving out the limits that aren't set
+	 */
+	public String toString() {
+		String string = "depth " + _maximumDepth;
+		if (_timeBudgetMillis > 0) {
+			string += ", " + _timeBudgetMillis + " ms";
+		}
+		if (_nodeBudget > 0) {
+			string += ", " + _nodeBudget + " nodes";
+		}
+		return string;
+	}
+}
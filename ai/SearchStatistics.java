@@ -0,0 +1,168 @@
+package connect4.ai;
+
+/**
+ * This class holds what happened during one search: how long it took, how many positions it visited and how deep it got,
+ * how well alpha-beta pruning and the TranspositionTable worked, how many bytes it allocated, and the line of play the search expects
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class SearchStatistics {
+
+	//The statistics themselves. These never change once created.
+	private final long _nanos;
+	private final long _nodeCount;
+	private final int _depthReached;
+	private final long _interiorNodeCount;
+	private final long _cutoffCount;
+	private final long _transpositionProbeCount;
+	private final long _transpositionHitCount;
+	private final int _score;
+	private final int[] _principalVariation;
+	private final long _allocatedBytes;
+
+	/**
+	 * Creates a new SearchStatistics
+	 * @param nanos How long the search took, in nanoseconds
+	 * @param nodeCount The number of positions visited
+	 * @param depthReached The deepest depth finished, or 0 if the move didn't come from a search
+	 * @param interiorNodeCount The number of positions whose moves were searched, which is where a cutoff can happen
+	 * @param cutoffCount The number of positions where the search stopped early because a move was too good for the opponent to allow
+	 * @param transpositionProbeCount The number of times the TranspositionTable was looked in
+	 * @param transpositionHitCount The number of times the position was in the TranspositionTable
+	 * @param score The score of the chosen column, from the point of view of the player who searched
+	 * @param principalVariation The columns the search expects to be played, starting with the chosen column
+	 * @param allocatedBytes The number of bytes allocated on the thread that searched, or 0 if the JVM can't count them
+	 */
+	public SearchStatistics(long nanos, long nodeCount, int depthReached, long interiorNodeCount, long cutoffCount,
+			long transpositionProbeCount, long transpositionHitCount, int score, int[] principalVariation, long allocatedBytes) {
+		_nanos = nanos;
+		_nodeCount = nodeCount;
+		_depthReached = depthReached;
+		_interiorNodeCount = interiorNodeCount;
+		_cutoffCount = cutoffCount;
+		_transpositionProbeCount = transpositionProbeCount;
+		_transpositionHitCount = transpositionHitCount;
+		_score = score;
+		_principalVariation = principalVariation.clone();
+		_allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Gets how long the search took
+	 * @return Returns how long the search took, in nanoseconds
+	 */
+	public long getNanos() {
+		return _nanos;
+	}
+
+	/**
+	 * Gets the number of positions visited
+	 * @return Returns the number of positions visited
+	 */
+	public long getNodeCount() {
+		return _nodeCount;
+	}
+
+	/**
+	 * Gets the number of positions visited per second
+	 * @return Returns the number of positions visited per second, or 0 if the search took no time at all
+	 */
+	public double getNodesPerSecond() {
+		return (_nanos > 0) ? _nodeCount * 1e9 / _nanos : 0;
+	}
+
+	/**
+	 * Gets the deepest depth finished
+	 * @return Returns the deepest depth finished, or 0 if the move didn't come from a search
+	 */
+	public int getDepthReached() {
+		return _depthReached;
+	}
+
+	/**
+	 * Gets the number of positions whose moves were searched
+	 * @return Returns the number of positions whose moves were searched
+	 */
+	public long getInteriorNodeCount() {
+		return _interiorNodeCount;
+	}
+
+	/**
+	 * Gets the number of positions where the search stopped early
+	 * @return Returns the number of beta cutoffs
+	 */
+	public long getCutoffCount() {
+		return _cutoffCount;
+	}
+
+	/**
+	 * Gets the share of searched positions where the search stopped early. The higher this is, the more alpha-beta pruning is saving.
+	 * @return Returns the beta cutoff rate, from 0 to 1
+	 */
+	public double getCutoffRate() {
+		return (_interiorNodeCount > 0) ? (double) _cutoffCount / _interiorNodeCount : 0;
+	}
+
+	/**
+	 * Gets the number of times the TranspositionTable was looked in
+	 * @return Returns the number of TranspositionTable probes
+	 */
+	public long getTranspositionProbeCount() {
+		return _transpositionProbeCount;
+	}
+
+	/**
+	 * Gets the number of times the position was in the TranspositionTable
+	 * @return Returns the number of TranspositionTable hits
+	 */
+	public long getTranspositionHitCount() {
+		return _transpositionHitCount;
+	}
+
+	/**
+	 * Gets the share of TranspositionTable probes that found the position
+	 * @return Returns the TranspositionTable hit rate, from 0 to 1
+	 */
+	public double getTranspositionHitRate() {
+		return (_transpositionProbeCount > 0) ? (double) _transpositionHitCount / _transpositionProbeCount : 0;
+	}
+
+	/**
+	 * Gets the score of the chosen column
+	 * @return Returns the score of the chosen column, from the point of view of the player who searched
+	 */
+	public int getScore() {
+		return _score;
+	}
+
+	/**
+	 * Gets the line of play the search expects, starting with the chosen column
+	 * @return Returns the columns of the principal variation
+	 */
+	public int[] getPrincipalVariation() {
+		return _principalVariation.clone();
+	}
+
+	/**
+	 * Gets the number of bytes allocated on the thread that searched. Helper threads of a multithreaded search aren't counted.
+	 * @return Returns the number of bytes allocated, or 0 if the JVM can't count them
+	 */
+	public long getAllocatedBytes() {
+		return _allocatedBytes;
+	}
+
+	@Override
+	/**
+	 * Returns all of the statistics on one line, for logs
+	 */
+	public String toString() {
+		StringBuilder principalVariation = new StringBuilder();
+		for (int column : _principalVariation) {
+			if (principalVariation.length() > 0) {
+				principalVariation.append(' ');
+			}
+			principalVariation.append(column);
+		}
+		return String.format("time=%.3fms nodes=%d nps=%.0f depth=%d cutoffRate=%.3f ttHitRate=%.3f score=%d pv=%s allocated=%dB",
+			_nanos / 1e6, _nodeCount, getNodesPerSecond(), _depthReached, getCutoffRate(), getTranspositionHitRate(), _score, principalVariation, _allocatedBytes);
+	}
+}
@@ -0,0 +1,514 @@
+package connect4.ai;
+
+import connect4.enums.*;
+import connect4.game.*;
+import java.util.*;
+
+/**
+ * This class proves the result of a position with perfect play from both players, and how many moves it takes to get there.
+ * It is a null-window negamax: rather than asking for a score directly, it keeps asking "is the score better than X?" and narrows X down like a binary search,
+ * because searches with a window of one point prune far more than full-window searches.
+ * The position is kept as two longs passed down the recursion (the tokens of the player to move and the occupied mask, the same layout as a BitBoard), so solving never allocates.
+ * Scores work like this: a player who wins with their k-th token of the game scores (columns * rows / 2 + 1 - k), so faster wins score higher. Losses are the negative of the opponent's win, and a draw is 0.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class Solver {
+
+	//The default amount of memory for the Solver's table, in megabytes
+	public static final int DEFAULT_TRANSPOSITION_TABLE_MEGABYTES = 32;
+
+	//Each table entry is a long key and a byte value
+	private static final int _BYTES_PER_ENTRY = Long.BYTES + 1;
+
+	//The dimensions the Solver is set up for, and the masks that go with them
+	private int _columns, _rows, _spaces;
+	private long _bottomMask, _boardMask;
+	private int[] _columnOrder;
+
+	//Remembers bounds on the scores of positions already solved. A value of 0 means empty.
+	private long[] _keys;
+	private byte[] _values;
+	private int _tableMask;
+
+	//Scratch space for sorting moves at every depth, so solving never allocates
+	private long[][] _moveBuffers;
+	private int[][] _scoreBuffers;
+
+	//Counting nodes and giving up when there are too many
+	private long _nodeCount;
+	private long _nodeLimit;
+	private boolean _isAborted;
+	private volatile boolean _isStopRequested;
+
+	/**
+	 * Creates a new Solver with the default table size
+	 */
+	public Solver() {
+		this(DEFAULT_TRANSPOSITION_TABLE_MEGABYTES);
+	}
+
+	/**
+	 * Creates a new Solver with a table of the given size
+	 * @param transpositionTableMegabytes The amount of memory to give the table, in megabytes
+	 */
+	public Solver(int transpositionTableMegabytes) {
+		if (transpositionTableMegabytes < 1) {
+			throw new IllegalArgumentException("The Solver needs at least 1 megabyte");
+		}
+		long maximumEntries = (long) transpositionTableMegabytes * 1024 * 1024 / _BYTES_PER_ENTRY;
+		int entries = Integer.highestOneBit((int) Math.min(maximumEntries, 1 << 30));
+		_keys = new long[entries];
+		_values = new byte[entries];
+		_tableMask = entries - 1;
+		_nodeLimit = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Gets the most positions a single call may visit before the Solver gives up
+	 * @return Returns the node limit, or Long.MAX_VALUE if there is none
+	 */
+	public long getNodeLimit() {
+		return _nodeLimit;
+	}
+
+	/**
+	 * Sets the most positions a single call may visit before the Solver gives up and answers GameOutcome.UNKNOWN
+	 * @param nodeLimit The node limit, or 0 for no limit
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		_nodeLimit = (nodeLimit > 0) ? nodeLimit : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Forgets everything the Solver has remembered about previous positions
+	 */
+	public void clear() {
+		Arrays.fill(_keys, 0L);
+		Arrays.fill(_values, (byte) 0);
+	}
+
+	/**
+	 * Proves the result of the position for the player whose turn it is, without working out the best column
+	 * @param bitBoard The position, which must not already be won
+	 * @param playerID The PlayerID of the player whose turn it is
+	 * @return Returns the SolverResult, with an outcome of GameOutcome.UNKNOWN if the node limit ran out
+	 */
+	public SolverResult solve(BitBoard bitBoard, PlayerID playerID) {
+		_prepare(bitBoard);
+
+		long current = bitBoard.getPlayerMask(playerID);
+		long mask = bitBoard.getOccupiedMask();
+		int moves = bitBoard.getMoveCount();
+
+		int score = _solve(current, mask, moves);
+		return _createResult(score, moves, -1);
+	}
+
+	/**
+	 * Proves the result of every column for the player whose turn it is and picks the best one. Among equally good columns the one closest to the center wins.
+	 * @param bitBoard The position, which must not already be won
+	 * @param playerID The PlayerID of the player whose turn it is
+	 * @return Returns the SolverResult for the best column, with an outcome of GameOutcome.UNKNOWN if the node limit ran out
+	 */
+	public SolverResult analyze(BitBoard bitBoard, PlayerID playerID) {
+		_prepare(bitBoard);
+
+		long current = bitBoard.getPlayerMask(playerID);
+		long mask = bitBoard.getOccupiedMask();
+		int moves = bitBoard.getMoveCount();
+
+		int bestColumn = -1;
+		int bestScore = Integer.MIN_VALUE;
+
+		for (int column : _columnOrder) {
+			long move = (mask + _getBottomMaskColumn(column)) & _getColumnMask(column);
+			if (move == 0) { //Full column
+				continue;
+			}
+
+			int score;
+			if (_isWinningMove(current, mask, move)) {
+				score = (_spaces + 1 - moves) / 2;
+			}
+			else {
+				score = -_solve(current ^ mask, mask | move, moves + 1);
+			}
+
+			if (_isAborted) {
+				return _createResult(0, moves, -1);
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				bestColumn = column;
+			}
+		}
+
+		if (bestColumn == -1) { //The board is full
+			return _createResult(0, moves, -1);
+		}
+		return _createResult(bestScore, moves, bestColumn);
+	}
+
+	/**
+	 * Determines whether the Solver can handle the given position: it has to fit in a BitBoard and be played with four in a row
+	 * @param position The position
+	 * @return Returns true if the position can be solved
+	 */
+	public static boolean canSolve(Position position) {
+		return position instanceof BitBoard && position.getConnectLength() == WinningLines.CONNECT_LENGTH;
+	}
+
+	/**
+	 * Asks a call that is running on another thread to give up as soon as possible, just like running out of nodes. The request sticks until clearStop is called.
+	 */
+	public void stop() {
+		_isStopRequested = true;
+	}
+
+	/**
+	 * Takes back a stop request so that calls run normally again
+	 */
+	public void clearStop() {
+		_isStopRequested = false;
+	}
+
+	/**
+	 * Gets the number of positions visited by the most recent call
+	 * @return Returns the number of positions visited by the most recent call
+	 */
+	public long getNodeCount() {
+		return _nodeCount;
+	}
+
+	/**
+	 * Sets the Solver up for the dimensions of the given position, if it isn't already, and resets the node count
+	 * @param bitBoard The position about to be solved
+	 */
+	private void _prepare(BitBoard bitBoard) {
+		if (!canSolve(bitBoard)) {
+			throw new IllegalArgumentException("The Solver only plays four in a row");
+		}
+		_nodeCount = 0;
+		_isAborted = false;
+
+		if (bitBoard.getNumberOfColumns() == _columns && bitBoard.getNumberOfRows() == _rows) {
+			return;
+		}
+
+		_columns = bitBoard.getNumberOfColumns();
+		_rows = bitBoard.getNumberOfRows();
+		_spaces = _columns * _rows;
+
+		_bottomMask = 0L;
+		for (int column = 0; column < _columns; column++) {
+			_bottomMask |= 1L << (column * (_rows + 1));
+		}
+		_boardMask = _bottomMask * ((1L << _rows) - 1);
+
+		_columnOrder = new int[_columns];
+		for (int i = 0; i < _columns; i++) {
+			_columnOrder[i] = _columns / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2; //Center columns first, they win far more often
+		}
+
+		_moveBuffers = new long[_spaces + 1][_columns];
+		_scoreBuffers = new int[_spaces + 1][_columns];
+		clear(); //Keys from other dimensions would mean something else entirely
+	}
+
+	/**
+	 * Narrows down the exact score of a position with null-window searches
+	 * @param current The tokens of the player to move
+	 * @param mask Every occupied space
+	 * @param moves The number of tokens on the board
+	 * @return Returns the exact score of the position
+	 */
+	private int _solve(long current, long mask, int moves) {
+		if (_canWinNext(current, mask)) {
+			return (_spaces + 1 - moves) / 2;
+		}
+
+		int minimum = -(_spaces - moves) / 2;
+		int maximum = (_spaces + 1 - moves) / 2;
+
+		while (minimum < maximum && !_isAborted) {
+			int median = minimum + (maximum - minimum) / 2;
+			//Lean the guess toward 0, since most positions are closer to a draw than to either extreme
+			if (median <= 0 && minimum / 2 < median) {
+				median = minimum / 2;
+			}
+			else if (median >= 0 && maximum / 2 > median) {
+				median = maximum / 2;
+			}
+
+			int result = _negamax(current, mask, moves, median, median + 1);
+			if (result <= median) {
+				maximum = result;
+			}
+			else {
+				minimum = result;
+			}
+		}
+
+		return minimum;
+	}
+
+	/**
+	 * The null-window search itself. The player to move is assumed not to have a winning move, since every caller has already checked for one.
+	 * @param current The tokens of the player to move
+	 * @param mask Every occupied space
+	 * @param moves The number of tokens on the board
+	 * @param alpha The score the player to move is already guaranteed
+	 * @param beta The score the opposing player is already guaranteed
+	 * @return Returns the score of the position if it is between alpha and beta, otherwise a bound on the side it fell
+	 */
+	private int _negamax(long current, long mask, int moves, int alpha, int beta) {
+		_nodeCount++;
+		if (_nodeCount >= _nodeLimit || ((_nodeCount & 0xFFF) == 0 && _isStopRequested)) { //The stop request is only read every 4096 nodes, it's a volatile read
+			_isAborted = true;
+		}
+		if (_isAborted) {
+			return alpha;
+		}
+
+		long nonLosingMoves = _getNonLosingMoves(current, mask);
+		if (nonLosingMoves == 0) { //Every move lets the opponent win right after
+			return -(_spaces - moves) / 2;
+		}
+		if (moves >= _spaces - 2) { //Neither player can win with the last two tokens, so it's a draw
+			return 0;
+		}
+
+		int minimum = -(_spaces - 2 - moves) / 2; //The opponent can't win on their next move, so this is the worst possible score
+		if (alpha < minimum) {
+			alpha = minimum;
+			if (alpha >= beta) {
+				return alpha;
+			}
+		}
+
+		int maximum = (_spaces - 1 - moves) / 2; //We can't win on this move, so this is the best possible score
+		long key = current + mask;
+		int value = _getValue(key);
+		if (value != 0) {
+			int minimumScore = -(_spaces / 2) + 3;
+			int maximumScore = (_spaces + 1) / 2 - 3;
+			if (value > maximumScore - minimumScore + 1) { //A lower bound
+				minimum = value + 2 * minimumScore - maximumScore - 2;
+				if (alpha < minimum) {
+					alpha = minimum;
+					if (alpha >= beta) {
+						return alpha;
+					}
+				}
+			}
+			else { //An upper bound
+				maximum = value + minimumScore - 1;
+			}
+		}
+		if (beta > maximum) {
+			beta = maximum;
+			if (alpha >= beta) {
+				return beta;
+			}
+		}
+
+		//Try the moves that leave the most threats first
+		long[] moveBuffer = _moveBuffers[moves];
+		int[] scoreBuffer = _scoreBuffers[moves];
+		int moveCount = 0;
+		for (int i = _columns - 1; i >= 0; i--) { //Backwards through the center order, so the insertion sort keeps center columns first on ties
+			int column = _columnOrder[i];
+			long move = nonLosingMoves & _getColumnMask(column);
+			if (move == 0) {
+				continue;
+			}
+			int moveScore = Long.bitCount(_getWinningPositions(current | move, mask));
+			int j = moveCount;
+			while (j > 0 && scoreBuffer[j - 1] > moveScore) {
+				moveBuffer[j] = moveBuffer[j - 1];
+				scoreBuffer[j] = scoreBuffer[j - 1];
+				j--;
+			}
+			moveBuffer[j] = move;
+			scoreBuffer[j] = moveScore;
+			moveCount++;
+		}
+
+		int minimumScore = -(_spaces / 2) + 3;
+		int maximumScore = (_spaces + 1) / 2 - 3;
+		for (int i = moveCount - 1; i >= 0; i--) { //Highest move score is at the end
+			long move = moveBuffer[i];
+			int score = -_negamax(current ^ mask, mask | move, moves + 1, -beta, -alpha);
+			if (_isAborted) {
+				return alpha;
+			}
+			if (score >= beta) {
+				_putValue(key, score + maximumScore - 2 * minimumScore + 2);
+				return score;
+			}
+			if (score > alpha) {
+				alpha = score;
+			}
+		}
+
+		_putValue(key, alpha - minimumScore + 1);
+		return alpha;
+	}
+
+	/**
+	 * Turns a score into a SolverResult, working out the outcome and the number of moves to the end of the game
+	 * @param score The score for the player to move
+	 * @param moves The number of tokens on the board
+	 * @param bestColumn The best column, or -1 if it wasn't worked out
+	 * @return Returns the SolverResult
+	 */
+	private SolverResult _createResult(int score, int moves, int bestColumn) {
+		if (_isAborted) {
+			return new SolverResult(GameOutcome.UNKNOWN, 0, -1, -1, _nodeCount);
+		}
+		if (score == 0) {
+			return new SolverResult(GameOutcome.DRAW, 0, _spaces - moves, bestColumn, _nodeCount);
+		}
+
+		//The winner makes four in a row with the token numbered (spaces + 2 - 2 * |score|) or one more, whichever one the winner is the one to place
+		int winningToken = _spaces + 1 - 2 * Math.abs(score);
+		int winnerParity = (score > 0) ? (moves + 1) % 2 : moves % 2;
+		if (winningToken % 2 != winnerParity) {
+			winningToken++;
+		}
+
+		GameOutcome outcome = (score > 0) ? GameOutcome.WIN : GameOutcome.LOSS;
+		return new SolverResult(outcome, score, winningToken - moves, bestColumn, _nodeCount);
+	}
+
+	/**
+	 * Determines whether the player to move can win right away
+	 * @param current The tokens of the player to move
+	 * @param mask Every occupied space
+	 * @return Returns true if some open column wins right away
+	 */
+	private boolean _canWinNext(long current, long mask) {
+		return (_getWinningPositions(current, mask) & _getPlayableMask(mask)) != 0;
+	}
+
+	/**
+	 * Determines whether playing the given move makes four in a row
+	 * @param current The tokens of the player to move
+	 * @param mask Every occupied space
+	 * @param move The mask of the space being played
+	 * @return Returns true if the move wins
+	 */
+	private boolean _isWinningMove(long current, long mask, long move) {
+		return (_getWinningPositions(current, mask) & move) != 0;
+	}
+
+	/**
+	 * Finds every move that doesn't let the opponent win on their next turn, whether by leaving one of their threats open or by playing right under one
+	 * @param current The tokens of the player to move
+	 * @param mask Every occupied space
+	 * @return Returns the mask of the moves that don't lose right away, 0 if there aren't any
+	 */
+	private long _getNonLosingMoves(long current, long mask) {
+		long possibleMask = _getPlayableMask(mask);
+		long opponentWins = _getWinningPositions(current ^ mask, mask);
+		long forcedMoves = possibleMask & opponentWins;
+		if (forcedMoves != 0) {
+			if ((forcedMoves & (forcedMoves - 1)) != 0) { //Two threats at once can't both be blocked
+				return 0;
+			}
+			possibleMask = forcedMoves;
+		}
+		return possibleMask & ~(opponentWins >>> 1);
+	}
+
+	/**
+	 * Gets the mask of the spaces a token can be dropped onto right now
+	 * @param mask Every occupied space
+	 * @return Returns the mask of the next open space of every column that isn't full
+	 */
+	private long _getPlayableMask(long mask) {
+		return (mask + _bottomMask) & _boardMask;
+	}
+
+	/**
+	 * Finds every empty space that would make four in a row for the given tokens
+	 * @param position The tokens of one player
+	 * @param mask Every occupied space
+	 * @return Returns the mask of the empty spaces that would win
+	 */
+	private long _getWinningPositions(long position, long mask) {
+		int height = _rows + 1;
+
+		//Vertical
+		long result = (position << 1) & (position << 2) & (position << 3);
+
+		//Horizontal and the two diagonals
+		result |= _getLineWins(position, height) | _getLineWins(position, height - 1) | _getLineWins(position, height + 1);
+
+		return result & (_boardMask ^ mask);
+	}
+
+	/**
+	 * Finds the gap in each of _XXX, X_XX, XX_X and XXX_ in one direction
+	 * @param position The tokens of one player
+	 * @param shift The distance in bits between two neighboring spaces in the direction to check
+	 * @return Returns the mask of the gaps, which may include occupied spaces and buffer bits
+	 */
+	private long _getLineWins(long position, int shift) {
+		long pairs = (position << shift) & (position << (2 * shift));
+		long result = pairs & (position << (3 * shift));
+		result |= pairs & (position >>> shift);
+		pairs = (position >>> shift) & (position >>> (2 * shift));
+		result |= pairs & (position << shift);
+		result |= pairs & (position >>> (3 * shift));
+		return result;
+	}
+
+	/**
+	 * Gets the mask of every space in a column
+	 * @param column The column
+	 * @return Returns the mask of every space in the column
+	 */
+	private long _getColumnMask(int column) {
+		return ((1L << _rows) - 1) << (column * (_rows + 1));
+	}
+
+	/**
+	 * Gets the mask of the bottom space of a column
+	 * @param column The column
+	 * @return Returns the mask of the bottom space of the column
+	 */
+	private long _getBottomMaskColumn(int column) {
+		return 1L << (column * (_rows + 1));
+	}
+
+	/**
+	 * Looks up the stored value of a position
+	 * @param key The key of the position
+	 * @return Returns the stored value, or 0 if there isn't one
+	 */
+	private int _getValue(long key) {
+		int index = _getIndex(key);
+		return (_keys[index] == key) ? (_values[index] & 0xFF) : 0;
+	}
+
+	/**
+	 * Stores the value of a position, replacing whatever was in its slot
+	 * @param key The key of the position
+	 * @param value The value to store, between 1 and 255
+	 */
+	private void _putValue(long key, int value) {
+		int index = _getIndex(key);
+		_keys[index] = key;
+		_values[index] = (byte) value;
+	}
+
+	/**
+	 * Finds the slot of a key in the table
+	 * @param key The key of the position
+	 * @return Returns the index of the slot
+	 */
+	private int _getIndex(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & _tableMask;
+	}
+}
@@ -0,0 +1,88 @@
+package connect4.ai;
+
+import connect4.enums.*;
+
+/**
+ * This class holds what the Solver proved about a position: who wins with perfect play, how many moves it takes, and the best column to get there
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class SolverResult {
+
+	//The result itself. These never change once created.
+	private final GameOutcome _outcome;
+	private final int _score;
+	private final int _movesToEnd;
+	private final int _bestColumn;
+	private final long _nodeCount;
+
+	/**
+	 * Creates a new SolverResult
+	 * @param outcome The GameOutcome for the player whose turn it is
+	 * @param score The Solver's score, positive for a win and bigger for a faster win, negative for a loss and 0 for a draw
+	 * @param movesToEnd The number of moves, counting both players, until the game ends with perfect play
+	 * @param bestColumn The best column for the player whose turn it is, or -1 if it wasn't worked out
+	 * @param nodeCount The number of positions the Solver visited
+	 */
+	public SolverResult(GameOutcome outcome, int score, int movesToEnd, int bestColumn, long nodeCount) {
+		_outcome = outcome;
+		_score = score;
+		_movesToEnd = movesToEnd;
+		_bestColumn = bestColumn;
+		_nodeCount = nodeCount;
+	}
+
+	/**
+	 * Gets the GameOutcome for the player whose turn it is
+	 * @return Returns the GameOutcome, GameOutcome.UNKNOWN if the Solver gave up
+	 */
+	public GameOutcome getOutcome() {
+		return _outcome;
+	}
+
+	/**
+	 * Gets the Solver's score: positive for a win and bigger for a faster win, negative for a loss and more negative for a faster loss, 0 for a draw
+	 * @return Returns the Solver's score
+	 */
+	public int getScore() {
+		return _score;
+	}
+
+	/**
+	 * Gets the number of moves, counting both players, until the game ends with perfect play. For a win or loss this is the move that makes four in a row.
+	 * @return Returns the number of moves until the game ends, or -1 if the Solver gave up
+	 */
+	public int getMovesToEnd() {
+		return _movesToEnd;
+	}
+
+	/**
+	 * Gets the best column for the player whose turn it is
+	 * @return Returns the best column, or -1 if it wasn't worked out
+	 */
+	public int getBestColumn() {
+		return _bestColumn;
+	}
+
+	/**
+	 * Gets the number of positions the Solver visited
+	 * @return Returns the number of positions the Solver visited
+	 */
+	public long getNodeCount() {
+		return _nodeCount;
+	}
+
+	@Override
+	/**
+	 * Returns a String like "Win in 7 moves (column 3)"
+	 */
+	public String toString() {
+		String string = _outcome.toString();
+		if (_outcome == GameOutcome.WIN || _outcome == GameOutcome.LOSS) {
+			string += " in " + _movesToEnd + " moves";
+		}
+		if (_bestColumn != -1) {
+			string += " (column " + _bestColumn + ")";
+		}
+		return string;
+	}
+}
@@ -0,0 +1,115 @@
+package connect4.ai;
+
+import connect4.enums.*;
+import connect4.game.*;
+
+/**
+ * This class spreads a game clock out over the moves a player still has to make.
+ * The middlegame gets more time than the opening and the endgame, and forced moves get almost none.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class TimeManager {
+
+	//A forced move only needs enough time to be sure it's forced
+	public static final long FORCED_MOVE_MILLIS = 1;
+
+	//Never plan for fewer moves than this, so that one move can't eat the whole clock
+	private static final int _MINIMUM_MOVES_TO_GO = 4;
+
+	//Never spend more than this fraction of what's left on the clock on a single move
+	private static final double _MAXIMUM_CLOCK_FRACTION = 0.25;
+
+	//How the clock is weighted over the game. The middlegame is where deeper searches actually change the result.
+	private static final double _OPENING_WEIGHT = 0.6;
+	private static final double _MIDDLEGAME_WEIGHT = 1.5;
+	private static final double _ENDGAME_WEIGHT = 0.8;
+
+	//What's left on the clock and what's added after every move
+	private long _remainingMillis;
+	private long _incrementMillis;
+
+	/**
+	 * Creates a new TimeManager for a clock with the given time and increment
+	 * @param totalMillis The number of milliseconds on the clock at the start of the game
+	 * @param incrementMillis The number of milliseconds added to the clock after every move
+	 */
+	public TimeManager(long totalMillis, long incrementMillis) {
+		if (totalMillis <= 0 || incrementMillis < 0) {
+			throw new IllegalArgumentException("A clock needs a positive amount of time and a non-negative increment");
+		}
+		_remainingMillis = totalMillis;
+		_incrementMillis = incrementMillis;
+	}
+
+	/**
+	 * Gets the number of milliseconds left on the clock
+	 * @return Returns the number of milliseconds left on the clock
+	 */
+	public long getRemainingMillis() {
+		return _remainingMillis;
+	}
+
+	/**
+	 * Decides how many milliseconds the given player should spend on their move in the given position
+	 * @param position The position the player is about to move in
+	 * @param playerID The PlayerID of the player about to move
+	 * @return Returns the number of milliseconds to spend on the move, always at least 1
+	 */
+	public long allocate(Position position, PlayerID playerID) {
+		if (isForcedMove(position, playerID)) {
+			return FORCED_MOVE_MILLIS;
+		}
+
+		long spaces = position.getNumberOfSpaces();
+		int moveCount = position.getMoveCount();
+		long movesToGo = Math.max((spaces - moveCount + 1) / 2, _MINIMUM_MOVES_TO_GO); //This player only makes every other move
+
+		double phaseWeight = _ENDGAME_WEIGHT;
+		if (moveCount < spaces / 5) {
+			phaseWeight = _OPENING_WEIGHT;
+		}
+		else if (moveCount < spaces * 2 / 3) {
+			phaseWeight = _MIDDLEGAME_WEIGHT;
+		}
+
+		long budget = (long) (_remainingMillis / movesToGo * phaseWeight) + _incrementMillis;
+		long maximum = (long) (_remainingMillis * _MAXIMUM_CLOCK_FRACTION) + _incrementMillis;
+
+		return Math.max(1, Math.min(budget, maximum));
+	}
+
+	/**
+	 * Takes the time a move actually took off the clock and adds the increment
+	 * @param usedMillis The number of milliseconds the move took
+	 */
+	public void consume(long usedMillis) {
+		_remainingMillis = Math.max(0, _remainingMillis - usedMillis) + _incrementMillis;
+	}
+
+	/**
+	 * Determines whether there is really only one sensible move: there is only one open column, the player can win right away, or the opposing player is about to win and has to be blocked
+	 * @param position The position the player is about to move in
+	 * @param playerID The PlayerID of the player about to move
+	 * @return Returns true if the move is forced
+	 */
+	public static boolean isForcedMove(Position position, PlayerID playerID) {
+		PlayerID opposingPlayerID = (playerID == PlayerID.PLAYER1) ? PlayerID.PLAYER2 : PlayerID.PLAYER1;
+		int openColumns = 0;
+		int opposingWins = 0;
+
+		for (int column = 0; column < position.getNumberOfColumns(); column++) {
+			if (!position.canPlay(column)) {
+				continue;
+			}
+			if (position.isWinningMove(column, playerID)) {
+				return true;
+			}
+			if (position.isWinningMove(column, opposingPlayerID)) {
+				opposingWins++;
+			}
+			openColumns++;
+		}
+
+		return openColumns <= 1 || opposingWins > 0;
+	}
+}
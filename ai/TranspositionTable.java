@@ -0,0 +1,202 @@
+package connect4.ai;
+
+import java.util.*;
+
+/**
+ * This class remembers the results of positions that have already been searched so the SearchEngine doesn't search them again when it reaches them through a different order of moves.
+ * The table has a fixed size decided when it is created, and every entry is packed into primitive arrays so that it never allocates anything while searching.
+ * Entries are stored in buckets of two: the first slot keeps whichever entry was searched deepest (unless it is left over from an older search), and the second slot always takes the newest entry.
+ * The table is shared by every search thread without any locks. Each slot stores the key XORed with the data next to the data itself,
+ * so if two threads write the same slot at once and the halves get mixed up, the key simply won't check out and the slot reads as a miss.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class TranspositionTable {
+
+	//The kinds of bounds a stored score can be
+	public static final int BOUND_NONE = 0;
+	public static final int BOUND_EXACT = 1;
+	public static final int BOUND_LOWER = 2; //The real score is at least the stored score
+	public static final int BOUND_UPPER = 3; //The real score is at most the stored score
+
+	//Returned by probe when the position isn't in the table
+	public static final long MISS = 0L;
+
+	//The most entries a table can hold. Two longs each is 2^30 longs, about as long as a Java array can get, so anything over MAXIMUM_MEGABYTES gets this many.
+	public static final int MAXIMUM_ENTRIES = 1 << 29;
+	public static final int MAXIMUM_MEGABYTES = 8192;
+
+	//Each entry takes one long for the checked key and one long for the packed data
+	private static final int _BYTES_PER_ENTRY = 2 * Long.BYTES;
+
+	//The biggest column a stored best move can be. Best moves in columns past this aren't kept, so on boards that wide the table only helps with scores.
+	public static final int MAXIMUM_MOVE = 0xFFFF - 1;
+
+	//How the data long is packed: the score in the low 32 bits, then 2 bits of bound, 8 of depth, 16 of best move (plus one, so 0 means none) and 6 of age
+	private static final int _BOUND_SHIFT = 32;
+	private static final int _DEPTH_SHIFT = 34;
+	private static final int _MOVE_SHIFT = 42;
+	private static final int _AGE_SHIFT = 58;
+	private static final long _BOUND_MASK = 0x3L;
+	private static final long _BYTE_MASK = 0xFFL;
+	private static final long _MOVE_MASK = 0xFFFFL;
+	private static final long _AGE_MASK = 0x3FL;
+
+	//The entries themselves, two slots per bucket and two longs per slot: the key XORed with the data, then the data
+	private long[] _entries;
+	private int _bucketMask;
+	private volatile int _age;
+
+	/**
+	 * Creates a new TranspositionTable that uses at most the given amount of memory
+	 * @param megabytes The most memory the table may use, in megabytes. Anything over MAXIMUM_MEGABYTES gets a table of MAXIMUM_MEGABYTES.
+	 */
+	public TranspositionTable(int megabytes) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException("A TranspositionTable needs at least 1 megabyte");
+		}
+
+		long maximumEntries = (long) megabytes * 1024 * 1024 / _BYTES_PER_ENTRY;
+		int entries = Integer.highestOneBit((int) Math.min(maximumEntries, MAXIMUM_ENTRIES)); //Powers of two make finding a bucket a single mask
+
+		_entries = new long[entries * 2];
+		_bucketMask = entries / 2 - 1;
+		_age = 0;
+	}
+
+	/**
+	 * Gets the number of entries this table can hold
+	 * @return Returns the number of entries this table can hold
+	 */
+	public int getCapacity() {
+		return _entries.length / 2;
+	}
+
+	/**
+	 * Gets the number of bytes this table uses for its entries
+	 * @return Returns the number of bytes this table uses for its entries
+	 */
+	public long getSizeInBytes() {
+		return (long) _entries.length * Long.BYTES;
+	}
+
+	/**
+	 * Lets the table know a new search is starting, so that entries from older searches are the first to be replaced
+	 */
+	public void newSearch() {
+		_age = (_age + 1) & (int) _AGE_MASK;
+	}
+
+	/**
+	 * Forgets every entry in the table
+	 */
+	public void clear() {
+		Arrays.fill(_entries, 0L);
+		_age = 0;
+	}
+
+	/**
+	 * Looks up the entry for a position
+	 * @param key The key of the position
+	 * @return Returns the packed data for the position, or MISS if it isn't in the table
+	 */
+	public long probe(long key) {
+		int index = _getBucket(key) * 4;
+		for (int slot = 0; slot < 2; slot++, index += 2) {
+			long data = _entries[index + 1];
+			if (data != MISS && (_entries[index] ^ data) == key) { //A torn write from another thread fails this check
+				return data;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores the result of searching a position
+	 * @param key The key of the position
+	 * @param score The score of the position
+	 * @param bound Whether the score is exact or only a lower or upper bound, one of the BOUND_ constants
+	 * @param depth The number of moves that were searched past this position
+	 * @param bestMove The best column found for this position, or -1 if there wasn't one. Columns past MAXIMUM_MOVE are stored as -1.
+	 */
+	public void store(long key, int score, int bound, int depth, int bestMove) {
+		if (bestMove > MAXIMUM_MOVE) {
+			bestMove = -1; //It won't fit, and a truncated move would point the search at the wrong column
+		}
+
+		long data = (score & 0xFFFFFFFFL) |
+			((long) bound << _BOUND_SHIFT) |
+			((long) Math.min(depth, (int) _BYTE_MASK) << _DEPTH_SHIFT) |
+			((long) (bestMove + 1) << _MOVE_SHIFT) |
+			((long) _age << _AGE_SHIFT);
+
+		int index = _getBucket(key) * 4;
+		long deepData = _entries[index + 1];
+		boolean isSameKey = (_entries[index] ^ deepData) == key;
+
+		//The depth-preferred slot takes the new entry if it's the same position, it's empty, it's from an older search, or it wasn't searched any deeper
+		if (deepData == MISS || isSameKey || _getAge(deepData) != _age || getDepth(deepData) <= depth) {
+			_entries[index] = key ^ data;
+			_entries[index + 1] = data;
+			return;
+		}
+
+		//Otherwise the newest entry always goes in the second slot
+		_entries[index + 2] = key ^ data;
+		_entries[index + 3] = data;
+	}
+
+	/**
+	 * Unpacks the score from an entry
+	 * @param data The packed data returned by probe
+	 * @return Returns the stored score
+	 */
+	public static int getScore(long data) {
+		return (int) data;
+	}
+
+	/**
+	 * Unpacks the bound from an entry
+	 * @param data The packed data returned by probe
+	 * @return Returns one of the BOUND_ constants
+	 */
+	public static int getBound(long data) {
+		return (int) ((data >>> _BOUND_SHIFT) & _BOUND_MASK);
+	}
+
+	/**
+	 * Unpacks the depth from an entry
+	 * @param data The packed data returned by probe
+	 * @return Returns the number of moves that were searched past the position
+	 */
+	public static int getDepth(long data) {
+		return (int) ((data >>> _DEPTH_SHIFT) & _BYTE_MASK);
+	}
+
+	/**
+	 * Unpacks the best move from an entry
+	 * @param data The packed data returned by probe
+	 * @return Returns the best column found for the position, or -1 if there wasn't one
+	 */
+	public static int getBestMove(long data) {
+		return (int) ((data >>> _MOVE_SHIFT) & _MOVE_MASK) - 1;
+	}
+
+	/**
+	 * Unpacks the age from an entry
+	 * @param data The packed data returned by probe
+	 * @return Returns the age of the search that stored the entry
+	 */
+	private static int _getAge(long data) {
+		return (int) ((data >>> _AGE_SHIFT) & _AGE_MASK);
+	}
+
+	/**
+	 * Finds the bucket a key belongs in. The key is mixed first since BitBoard keys are far from random in their low bits.
+	 * @param key The key of the position
+	 * @return Returns the index of the bucket
+	 */
+	private int _getBucket(long key) {
+		long mixed = key * 0x9E3779B97F4A7C15L;
+		return (int) (mixed >>> 32) & _bucketMask;
+	}
+}
@@ -0,0 +1,63 @@
+package connect4.benchmarks;
+
+import connect4.enums.*;
+import connect4.game.*;
+
+/**
+ * This class holds the fixed 7x6 positions every benchmark is run from, so results can be compared from one change to the next.
+ * They come from one game between two depth 6 searches after the opening 3, 2, 3, 4, cut off at 4, 16 and 30 moves. Nobody has won in any of them.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class BenchmarkPositions {
+
+	//The names of the positions, in the same order as their moves
+	public static final String[] NAMES = { "opening", "middlegame", "endgame" };
+
+	//The columns played to reach each position, player 1 first
+	private static final String[] _MOVES = {
+		"3234",
+		"3234234343344400",
+		"323423434334440011111166555555"
+	};
+
+	/**
+	 * Gets the moves of one of the positions
+	 * @param index The index of the position in NAMES
+	 * @return Returns the columns played to reach the position, player 1 first
+	 */
+	public static int[] getMoves(int index) {
+		String moves = _MOVES[index];
+		int[] columns = new int[moves.length()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = moves.charAt(i) - '0';
+		}
+		return columns;
+	}
+
+	/**
+	 * Empties a Board and plays the given moves on it
+	 * @param board The Board to set up
+	 * @param moves The columns to play, player 1 first
+	 */
+	public static void setUp(Board board, int[] moves) {
+		while (board.undoMove() != -1) {
+		}
+
+		PlayerID playerID = PlayerID.PLAYER1;
+		for (int column : moves) {
+			if (!board.makeMove(column, playerID)) {
+				throw new IllegalArgumentException("Column " + column + " is already full");
+			}
+			playerID = playerID.getOppositePlayerID();
+		}
+	}
+
+	/**
+	 * Works out whose turn it is after the given moves
+	 * @param moves The columns played, player 1 first
+	 * @return Returns the PlayerID of the player to move
+	 */
+	public static PlayerID getPlayerToMove(int[] moves) {
+		return (moves.length % 2 == 0) ? PlayerID.PLAYER1 : PlayerID.PLAYER2;
+	}
+}
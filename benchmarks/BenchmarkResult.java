@@ -0,0 +1,80 @@
+package connect4.benchmarks;
+
+/**
+ * This class holds what the BenchmarkRunner measured for one benchmark from one position
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class BenchmarkResult {
+
+	//The throughput of every timed iteration, and what was allocated and collected across all of them
+	private double[] _opsPerSecond;
+	private double _bytesPerOp;
+	private long _gcCount;
+	private long _gcMillis;
+
+	/**
+	 * Creates a new BenchmarkResult
+	 * @param opsPerSecond The operations per second of every timed iteration
+	 * @param bytesPerOp The bytes allocated per operation
+	 * @param gcCount The number of garbage collections during the timed iterations
+	 * @param gcMillis The time spent collecting garbage during the timed iterations, in milliseconds
+	 */
+	public BenchmarkResult(double[] opsPerSecond, double bytesPerOp, long gcCount, long gcMillis) {
+		_opsPerSecond = opsPerSecond;
+		_bytesPerOp = bytesPerOp;
+		_gcCount = gcCount;
+		_gcMillis = gcMillis;
+	}
+
+	/**
+	 * Gets the mean throughput over the timed iterations
+	 * @return Returns the mean number of operations per second
+	 */
+	public double getOpsPerSecond() {
+		double total = 0;
+		for (double opsPerSecond : _opsPerSecond) {
+			total += opsPerSecond;
+		}
+		return total / _opsPerSecond.length;
+	}
+
+	/**
+	 * Gets the standard deviation of the throughput over the timed iterations
+	 * @return Returns the standard deviation in operations per second, 0 with only one iteration
+	 */
+	public double getError() {
+		if (_opsPerSecond.length < 2) {
+			return 0;
+		}
+		double mean = getOpsPerSecond();
+		double squares = 0;
+		for (double opsPerSecond : _opsPerSecond) {
+			squares += (opsPerSecond - mean) * (opsPerSecond - mean);
+		}
+		return Math.sqrt(squares / (_opsPerSecond.length - 1));
+	}
+
+	/**
+	 * Gets the bytes allocated per operation
+	 * @return Returns the bytes allocated per operation
+	 */
+	public double getBytesPerOp() {
+		return _bytesPerOp;
+	}
+
+	/**
+	 * Gets the number of garbage collections during the timed iterations
+	 * @return Returns the number of garbage collections
+	 */
+	public long getGcCount() {
+		return _gcCount;
+	}
+
+	/**
+	 * Gets the time spent collecting garbage during the timed iterations
+	 * @return Returns the time spent collecting garbage in milliseconds
+	 */
+	public long getGcMillis() {
+		return _gcMillis;
+	}
+}
@@ -0,0 +1,130 @@
+package connect4.benchmarks;
+
+import connect4.telemetry.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * This class runs the benchmarks in Benchmarks from every position in BenchmarkPositions and prints a line of CSV for each, so a run before a change can be diffed against a run after it.
+ * Each benchmark is warmed up first so the JIT has compiled it, then timed over several fixed-length iterations. Throughput is the mean over the iterations, and the error is their standard deviation.
+ * The bytes allocated per operation come from the thread's allocation counter and the garbage collections are counted across the timed iterations, which is about what a gc profiler would say.
+ * Usage: BenchmarkRunner [filter] [iterations] [iterationMillis] [warmupIterations]
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class BenchmarkRunner {
+
+	//Defaults for when no arguments are given
+	private static final int _DEFAULT_ITERATIONS = 5;
+	private static final long _DEFAULT_ITERATION_MILLIS = 1000;
+	private static final int _DEFAULT_WARMUP_ITERATIONS = 3;
+
+	//Where every result ends up, so none of the work can be thrown away
+	private static volatile long _sink;
+
+	/**
+	 * Runs the benchmarks
+	 * @param args A regular expression the benchmark names have to contain, the number of timed iterations, how long each iteration is in milliseconds and the number of warmup iterations, all optional
+	 */
+	public static void main(String[] args) {
+		Pattern filter = Pattern.compile((args.length > 0) ? args[0] : "");
+		int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : _DEFAULT_ITERATIONS;
+		long iterationMillis = (args.length > 2) ? Long.parseLong(args[2]) : _DEFAULT_ITERATION_MILLIS;
+		int warmupIterations = (args.length > 3) ? Integer.parseInt(args[3]) : _DEFAULT_WARMUP_ITERATIONS;
+
+		System.out.println("benchmark,position,opsPerSecond,error,nanosPerOp,bytesPerOp,gcCount,gcMillis");
+		for (IBenchmark benchmark : Benchmarks.createAll()) {
+			if (!filter.matcher(benchmark.getName()).find()) {
+				continue;
+			}
+			for (int position = 0; position < BenchmarkPositions.NAMES.length; position++) {
+				benchmark.setUp(BenchmarkPositions.getMoves(position));
+				BenchmarkResult result = run(benchmark, iterations, iterationMillis, warmupIterations);
+				System.out.printf("%s,%s,%.1f,%.1f,%.1f,%.1f,%d,%d%n", benchmark.getName(), BenchmarkPositions.NAMES[position],
+					result.getOpsPerSecond(), result.getError(), 1e9 / result.getOpsPerSecond(), result.getBytesPerOp(), result.getGcCount(), result.getGcMillis());
+			}
+		}
+	}
+
+	/**
+	 * Warms up and times one benchmark that has already been set up
+	 * @param benchmark The benchmark to time
+	 * @param iterations The number of timed iterations
+	 * @param iterationMillis How long each iteration lasts, in milliseconds
+	 * @param warmupIterations The number of untimed iterations to run first
+	 * @return Returns the results of the timed iterations
+	 */
+	public static BenchmarkResult run(IBenchmark benchmark, int iterations, long iterationMillis, int warmupIterations) {
+		for (int i = 0; i < warmupIterations; i++) {
+			_runIteration(benchmark, iterationMillis);
+		}
+
+		long startGcCount = _getGcCount();
+		long startGcMillis = _getGcMillis();
+		long startBytes = AllocationMeter.getAllocatedBytes();
+
+		double[] opsPerSecond = new double[iterations];
+		long operations = 0;
+		for (int i = 0; i < iterations; i++) {
+			long startTime = System.nanoTime();
+			long iterationOperations = _runIteration(benchmark, iterationMillis);
+			opsPerSecond[i] = iterationOperations / ((System.nanoTime() - startTime) / 1e9);
+			operations += iterationOperations;
+		}
+
+		long bytes = AllocationMeter.getAllocatedBytes() - startBytes;
+		return new BenchmarkResult(opsPerSecond, (double) bytes / operations, _getGcCount() - startGcCount, _getGcMillis() - startGcMillis);
+	}
+
+	/**
+	 * Runs a benchmark over and over for a length of time. The clock is only read every so often, and less often the faster the benchmark is.
+	 * @param benchmark The benchmark to run
+	 * @param iterationMillis How long to keep running, in milliseconds
+	 * @return Returns the number of times the benchmark ran
+	 */
+	private static long _runIteration(IBenchmark benchmark, long iterationMillis) {
+		long endTime = System.nanoTime() + iterationMillis * 1000000L;
+		long operations = 0;
+		long sink = 0;
+		int batch = 1;
+		while (true) {
+			long batchStart = System.nanoTime();
+			if (batchStart >= endTime) {
+				break;
+			}
+			for (int i = 0; i < batch; i++) {
+				sink += benchmark.run();
+			}
+			operations += batch;
+			if (System.nanoTime() - batchStart < 1000000L && batch < (1 << 20)) { //Keep batches around a millisecond
+				batch *= 2;
+			}
+		}
+		_sink += sink;
+		return operations;
+	}
+
+	/**
+	 * Gets the number of garbage collections since the program started, by every collector
+	 * @return Returns the number of garbage collections
+	 */
+	private static long _getGcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(gcBean.getCollectionCount(), 0);
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the time spent collecting garbage since the program started, by every collector
+	 * @return Returns the time spent collecting garbage in milliseconds
+	 */
+	private static long _getGcMillis() {
+		long millis = 0;
+		for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(gcBean.getCollectionTime(), 0);
+		}
+		return millis;
+	}
+}
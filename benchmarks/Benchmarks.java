@@ -0,0 +1,204 @@
+package connect4.benchmarks;
+
+import connect4.ai.*;
+import connect4.enums.*;
+import connect4.game.*;
+import connect4.players.*;
+
+/**
+ * This class holds every benchmark the BenchmarkRunner knows about: the Board's hot paths, BoardAnalyzer and SpaceGroup, and the AI's scoring and a full move decision.
+ * Each one works on a real GameState, so events and the ghost Board cost what they do in a game.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class Benchmarks {
+
+	/**
+	 * Creates one of every benchmark
+	 * @return Returns all of the benchmarks
+	 */
+	public static IBenchmark[] createAll() {
+		return new IBenchmark[] {
+			new DropTokenBenchmark(),
+			new CheckForWinnerBenchmark(),
+			new GetSpaceGroupsBenchmark(),
+			new SpaceGroupBenchmark(),
+			new EvaluateBenchmark(),
+			new ChooseColumnBenchmark()
+		};
+	}
+
+	/**
+	 * Drops a token into the next open column and takes it back, outside of search mode so the spaceChanged event and the ghost Board are part of the cost
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	public static class DropTokenBenchmark implements IBenchmark {
+		private Board _board;
+		private PlayerID _playerID;
+		private int _column;
+
+		@Override
+		public String getName() {
+			return "Board.dropToken";
+		}
+
+		@Override
+		public void setUp(int[] moves) {
+			_board = new GameState().getBoard();
+			BenchmarkPositions.setUp(_board, moves);
+			_playerID = BenchmarkPositions.getPlayerToMove(moves);
+			_column = 0;
+		}
+
+		@Override
+		public long run() {
+			do {
+				_column = (_column + 1) % _board.getNumberOfColumns();
+			} while (_board.getColumnHeight(_column) >= _board.getNumberOfRows());
+
+			_board.dropToken(_column, _playerID);
+			return _board.undoMove();
+		}
+	}
+
+	/**
+	 * Asks the Board whether anyone has won
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	public static class CheckForWinnerBenchmark implements IBenchmark {
+		private Board _board;
+
+		@Override
+		public String getName() {
+			return "Board.checkForWinner";
+		}
+
+		@Override
+		public void setUp(int[] moves) {
+			_board = new GameState().getBoard();
+			BenchmarkPositions.setUp(_board, moves);
+		}
+
+		@Override
+		public long run() {
+			return _board.checkForWinner().ordinal();
+		}
+	}
+
+	/**
+	 * Finds every SpaceGroup on the Board
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	public static class GetSpaceGroupsBenchmark implements IBenchmark {
+		private Board _board;
+
+		@Override
+		public String getName() {
+			return "BoardAnalyzer.getSpaceGroups";
+		}
+
+		@Override
+		public void setUp(int[] moves) {
+			_board = new GameState().getBoard();
+			BenchmarkPositions.setUp(_board, moves);
+		}
+
+		@Override
+		public long run() {
+			return BoardAnalyzer.getSpaceGroups(_board).length;
+		}
+	}
+
+	/**
+	 * Builds a SpaceGroup from every owned Space in every positive direction and grows it as far as it goes, the way groups used to be found before the SpaceGroupIndex
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	public static class SpaceGroupBenchmark implements IBenchmark {
+		private Board _board;
+
+		@Override
+		public String getName() {
+			return "SpaceGroup.new";
+		}
+
+		@Override
+		public void setUp(int[] moves) {
+			_board = new GameState().getBoard();
+			BenchmarkPositions.setUp(_board, moves);
+		}
+
+		@Override
+		public long run() {
+			long length = 0;
+			for (int column = 0; column < _board.getNumberOfColumns(); column++) {
+				for (int row = 0; row < _board.getNumberOfRows(); row++) {
+					if (_board.getOwnerPlayerID(column, row) == PlayerID.NONE) {
+						continue;
+					}
+					Space space = _board.getSpace(column, row);
+					for (AdjacencyZone adjacencyZone : AdjacencyZone.getPositiveAdjacencyZones()) {
+						SpaceGroup spaceGroup = new SpaceGroup(adjacencyZone, space);
+						while (spaceGroup.addNextPositiveSpace()) {
+						}
+						length += spaceGroup.getLength();
+					}
+				}
+			}
+			return length;
+		}
+	}
+
+	/**
+	 * Scores the position the way the SearchEngine does when it can't look any deeper
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	public static class EvaluateBenchmark implements IBenchmark {
+		private Position _position;
+		private PlayerID _playerID;
+
+		@Override
+		public String getName() {
+			return "Evaluator.evaluate";
+		}
+
+		@Override
+		public void setUp(int[] moves) {
+			Board board = new GameState().getBoard();
+			BenchmarkPositions.setUp(board, moves);
+			_position = board.getPosition();
+			_playerID = BenchmarkPositions.getPlayerToMove(moves);
+		}
+
+		@Override
+		public long run() {
+			return Evaluator.evaluate(_position, _playerID);
+		}
+	}
+
+	/**
+	 * Has a ComputerPlayer decide on a move from scratch at its default depth, with an empty TranspositionTable and no OpeningBook every time
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	public static class ChooseColumnBenchmark implements IBenchmark {
+		private GameState _gameState;
+		private ComputerPlayer _computerPlayer;
+
+		@Override
+		public String getName() {
+			return "ComputerPlayer.chooseColumn";
+		}
+
+		@Override
+		public void setUp(int[] moves) {
+			_gameState = new GameState(GameState.DEFAULT_COLUMNS, GameState.DEFAULT_ROWS, GameState.DEFAULT_CONNECT_LENGTH, PlayerType.HUMAN, PlayerType.HUMAN);
+			BenchmarkPositions.setUp(_gameState.getBoard(), moves);
+			_computerPlayer = new ComputerPlayer(_gameState, BenchmarkPositions.getPlayerToMove(moves));
+			_computerPlayer.setOpeningBook(null);
+		}
+
+		@Override
+		public long run() {
+			_computerPlayer.clearTranspositionTable();
+			return _computerPlayer.requestMove(_gameState);
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package connect4.benchmarks;
+
+/**
+ * An interface for a single piece of code to be timed by the BenchmarkRunner
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public interface IBenchmark {
+
+	/**
+	 * Gets the name the benchmark is reported and filtered by
+	 * @return Returns the name of the benchmark
+	 */
+	public String getName();
+
+	/**
+	 * Gets everything ready to run the benchmark from the given position. Nothing done here is timed.
+	 * @param moves The columns played to reach the position, player 1 first
+	 */
+	public void setUp(int[] moves);
+
+	/**
+	 * Runs the code being timed once
+	 * @return Returns something that depends on the work that was done, so the JIT can't throw the work away
+	 */
+	public long run();
+}
@@ -20,6 +20,34 @@ public enum AdjacencyZone {
 	//Just used to keep track of each Enum Value's BoardCoordinate
 	private BoardCoordinate _offsetBoardCoordinate;
 
+	//Worked out once when the enum is loaded, so none of the getters below ever have to create anything
+	private AdjacencyZone _oppositeAdjacencyZone;
+	private static final AdjacencyZone[] _positiveAdjacencyZones;
+	private static final AdjacencyZone[] _negativeAdjacencyZones;
+
+	static {
+		AdjacencyZone[] allAdjacencyZones = AdjacencyZone.values();
+		for (AdjacencyZone adjacencyZone : allAdjacencyZones) {
+			adjacencyZone._oppositeAdjacencyZone = getAdjacencyZoneFromOffset(adjacencyZone._offsetBoardCoordinate.scalarMultiply(-1));
+		}
+
+		_positiveAdjacencyZones = new AdjacencyZone[allAdjacencyZones.length / 2];
+		_negativeAdjacencyZones = new AdjacencyZone[allAdjacencyZones.length / 2];
+		int positiveIndex = 0;
+		int negativeIndex = 0;
+		for (AdjacencyZone adjacencyZone : allAdjacencyZones) {
+			if (adjacencyZone == NONE) {
+				continue;
+			}
+			if (adjacencyZone._offsetBoardCoordinate.isPositive()) {
+				_positiveAdjacencyZones[positiveIndex++] = adjacencyZone;
+			}
+			else {
+				_negativeAdjacencyZones[negativeIndex++] = adjacencyZone;
+			}
+		}
+	}
+
 	/**
 	 * Creates an AdjacencyZone with the given BoardCoordinate
 	 * @param offsetBoardCoordinate The BoardCoordinate associated with the direction of this AdjacencyZone
@@ -36,14 +64,28 @@ public enum AdjacencyZone {
 		return _offsetBoardCoordinate;
 	}
 
+	/**
+	 * Gets the number of columns this AdjacencyZone moves
+	 * @return Returns the column of this AdjacencyZone's BoardCoordinate
+	 */
+	public int getColumnOffset() {
+		return _offsetBoardCoordinate.getColumn();
+	}
+
+	/**
+	 * Gets the number of rows this AdjacencyZone moves
+	 * @return Returns the row of this AdjacencyZone's BoardCoordinate
+	 */
+	public int getRowOffset() {
+		return _offsetBoardCoordinate.getRow();
+	}
+
 	/**
 	 * Gets the opposite AdjacencyZone based on the direction of this AdjacencyZone's BoardCoordinate
 	 * @return Returns the opposite AdjacencyZone based on the direction of this AdjacencyZone's BoardCoordinate
 	 */
 	public AdjacencyZone getOppositeAdjacencyZone() {
-		BoardCoordinate reverseBoardCoordinate = _offsetBoardCoordinate.scalarMultiply(-1);
-		AdjacencyZone oppositeAdjacencyZone = getAdjacencyZoneFromOffset(reverseBoardCoordinate);
-		return oppositeAdjacencyZone;
+		return _oppositeAdjacencyZone;
 	}
 
 	/**
@@ -61,44 +103,18 @@ public enum AdjacencyZone {
 	}
 
 	/**
-	 * Gets the list of all AdjacencyZones that have positive BoardCoordinate directions, not including AdjacencyZone.NONE
+	 * Gets the list of all AdjacencyZones that have positive BoardCoordinate directions, not including AdjacencyZone.NONE. The array is shared, so don't change it!
 	 * @return Returns the list of all AdjacencyZones that have positive BoardCoordinate directions, not including AdjacencyZone.NONE
 	 */
 	public static AdjacencyZone[] getPositiveAdjacencyZones() {
-		AdjacencyZone[] allAdjacencyZones = AdjacencyZone.values();
-		int arrayLength = allAdjacencyZones.length / 2;
-		AdjacencyZone[] positiveAdjacencyZones = new AdjacencyZone[arrayLength];
-		int currentIndex = 0;
-
-		for (AdjacencyZone adjacencyZone : allAdjacencyZones) {
-			BoardCoordinate offsetBoardCoordinate = adjacencyZone.getOffsetBoardCoordinate();
-			if (offsetBoardCoordinate.isPositive()) {
-				positiveAdjacencyZones[currentIndex] = adjacencyZone;
-				currentIndex++;
-			}
-		}
-
-		return positiveAdjacencyZones;
+		return _positiveAdjacencyZones;
 	}
 
 	/**
-	 * Gets the list of all AdjacencyZones that have negative BoardCoordinate directions, not including AdjacencyZone.NONE
+	 * Gets the list of all AdjacencyZones that have negative BoardCoordinate directions, not including AdjacencyZone.NONE. The array is shared, so don't change it!
 	 * @return Returns the list of all AdjacencyZones that have negative BoardCoordinate directions, not including AdjacencyZone.NONE
 	 */
 	public static AdjacencyZone[] getNegativeAdjacencyZones() {
-		AdjacencyZone[] allAdjacencyZones = AdjacencyZone.values();
-		int arrayLength = allAdjacencyZones.length / 2;
-		AdjacencyZone[] negativeAdjacencyZones = new AdjacencyZone[arrayLength];
-		int currentIndex = 0;
-
-		for (AdjacencyZone adjacencyZone : allAdjacencyZones) {
-			BoardCoordinate offsetBoardCoordinate = adjacencyZone.getOffsetBoardCoordinate();
-			if (!offsetBoardCoordinate.isPositive()) {
-				negativeAdjacencyZones[currentIndex] = adjacencyZone;
-				currentIndex++;
-			}
-		}
-
-		return negativeAdjacencyZones;
+		return _negativeAdjacencyZones;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package connect4.enums;
+
+/**
+ * This enum describes how a game turns out for the player whose turn it is, assuming both players play perfectly from here on
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public enum GameOutcome {
+	WIN("Win"),
+	LOSS("Loss"),
+	DRAW("Draw"),
+	UNKNOWN("Unknown");
+
+	//The String representation of each GameOutcome
+	private String _string;
+
+	/**
+	 * Creates a new GameOutcome with the given String representation
+	 * @param string The String representation of this GameOutcome
+	 */
+	GameOutcome(String string) {
+		_string = string;
+	}
+
+	@Override
+	/**
+	 * Returns the String representation of this GameOutcome
+	 */
+	public String toString() {
+		return _string;
+	}
+}
@@ -0,0 +1,44 @@
+package connect4.enums;
+
+/**
+ * This enum describes the kinds of Player that can sit in either seat of a game
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public enum PlayerType {
+	HUMAN("Human"), //Clicks columns in the GUI
+	COMPUTER("Computer"), //The AI
+	REMOTE("Remote"); //Another program, sending and receiving columns one per line
+
+	//The String representation of each PlayerType
+	private String _string;
+
+	/**
+	 * Creates a new PlayerType with the given String representation
+	 * @param string The String representation of this PlayerType
+	 */
+	PlayerType(String string) {
+		_string = string;
+	}
+
+	@Override
+	/**
+	 * Returns the String representation of this PlayerType
+	 */
+	public String toString() {
+		return _string;
+	}
+
+	/**
+	 * Finds the PlayerType with the given name, ignoring case
+	 * @param name The name of the PlayerType, like "computer"
+	 * @return Returns the matching PlayerType
+	 */
+	public static PlayerType fromString(String name) {
+		for (PlayerType playerType : values()) {
+			if (playerType._string.equalsIgnoreCase(name)) {
+				return playerType;
+			}
+		}
+		throw new IllegalArgumentException("There is no " + name + " player, try human, computer or remote");
+	}
+}
@@ -0,0 +1,29 @@
+package connect4.enums;
+
+/**
+ * This enum describes the ways a ComputerPlayer can decide on its moves
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public enum SearchStrategy {
+	HEURISTIC("Heuristic"), //Searches as deep as its limits allow and scores whatever it can't see past
+	PERFECT("Perfect"); //Proves the result of every move with the Solver, falling back on the heuristic search when that would take too long
+
+	//The String representation of each SearchStrategy
+	private String _string;
+
+	/**
+	 * Creates a new SearchStrategy with the given String representation
+	 * @param string The String representation of this SearchStrategy
+	 */
+	SearchStrategy(String string) {
+		_string = string;
+	}
+
+	@Override
+	/**
+	 * Returns the String representation of this SearchStrategy
+	 */
+	public String toString() {
+		return _string;
+	}
+}
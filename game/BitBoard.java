@@ -0,0 +1,435 @@
+package connect4.game;
+
+import connect4.enums.*;
+
+/**
+ * This class is a compact bitboard representation of the tokens on a Board, for boards small enough that every column plus one more bit fits in a long (7x6 and 8x7 do, 9x7 doesn't).
+ * Each column takes up (rows + 1) bits of a long, starting from the bottom of the column, so that the extra bit on top of every column
+ * acts as a buffer that keeps shifted masks from bleeding from one column into the next.
+ * Each player has one mask, and the heights of the columns are packed into the occupied mask (the two player masks combined),
+ * since a column is always filled from the bottom up.
+ * On top of the masks it keeps a LineCounter of each player's tokens in every line (see WinningLines), updated as tokens come and go,
+ * which gives a running score of the position and spots a win the moment a line is complete.
+ * Note that rows follow the Board convention, so row 0 is the top of the Board.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class BitBoard implements Position {
+
+	//The dimensions of the board, the number of bits used for each column, and how many tokens in a row it takes to win
+	private final int _columns, _rows, _bitsPerColumn, _connectLength;
+
+	//The mask of the bottom space of every column, which never changes once the dimensions are known
+	private final long _bottomMask;
+
+	//One mask per player. A 1 bit means the player owns that space.
+	private long _player1Mask, _player2Mask;
+
+	//Every player's token count in every line
+	private final LineCounter _lineCounter;
+
+	/**
+	 * Creates an empty BitBoard with the given dimensions, where it takes four in a row to win
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 */
+	public BitBoard(int columns, int rows) {
+		this(columns, rows, WinningLines.CONNECT_LENGTH);
+	}
+
+	/**
+	 * Creates an empty BitBoard with the given dimensions and connect length
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @param connectLength The number of tokens in a row it takes to win
+	 */
+	public BitBoard(int columns, int rows, int connectLength) {
+		if (!fits(columns, rows)) {
+			throw new IllegalArgumentException("A " + columns + "x" + rows + " board does not fit in a BitBoard");
+		}
+
+		_columns = columns;
+		_rows = rows;
+		_bitsPerColumn = rows + 1;
+		_connectLength = connectLength;
+
+		long bottomMask = 0L;
+		for (int column = 0; column < columns; column++) {
+			bottomMask |= 1L << (column * _bitsPerColumn);
+		}
+		_bottomMask = bottomMask;
+
+		_lineCounter = new LineCounter(WinningLines.get(columns, rows, connectLength));
+	}
+
+	/**
+	 * Determines whether a board of the given size fits in a BitBoard
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @return Returns true if every column plus a buffer bit fits in a long
+	 */
+	public static boolean fits(int columns, int rows) {
+		return columns > 0 && rows > 0 && columns * (rows + 1) <= Long.SIZE;
+	}
+
+	/**
+	 * Creates a copy of the given BitBoard
+	 * @param bitBoard The BitBoard to copy
+	 */
+	public BitBoard(BitBoard bitBoard) {
+		this(bitBoard._columns, bitBoard._rows, bitBoard._connectLength);
+		copyFrom(bitBoard);
+	}
+
+	@Override
+	public Position copy() {
+		return new BitBoard(this);
+	}
+
+	/**
+	 * Overwrites the position of this BitBoard with the position of another BitBoard of the same dimensions
+	 * @param position The BitBoard to copy the position from
+	 */
+	@Override
+	public void copyFrom(Position position) {
+		if (!(position instanceof BitBoard)) {
+			throw new IllegalArgumentException("A BitBoard can only copy another BitBoard");
+		}
+		BitBoard bitBoard = (BitBoard) position;
+		if (bitBoard._columns != _columns || bitBoard._rows != _rows || bitBoard._connectLength != _connectLength) {
+			throw new IllegalArgumentException("Cannot copy a BitBoard of different dimensions");
+		}
+		_player1Mask = bitBoard._player1Mask;
+		_player2Mask = bitBoard._player2Mask;
+		_lineCounter.copyFrom(bitBoard._lineCounter);
+	}
+
+	/**
+	 * Removes every token from this BitBoard
+	 */
+	public void clear() {
+		_player1Mask = 0L;
+		_player2Mask = 0L;
+		_lineCounter.clear();
+	}
+
+	/**
+	 * Gets the number of columns
+	 * @return Returns the number of columns
+	 */
+	public int getNumberOfColumns() {
+		return _columns;
+	}
+
+	/**
+	 * Gets the number of rows
+	 * @return Returns the number of rows
+	 */
+	public int getNumberOfRows() {
+		return _rows;
+	}
+
+	/**
+	 * Gets the number of spaces on the board
+	 * @return Returns the number of columns times the number of rows
+	 */
+	public long getNumberOfSpaces() {
+		return (long) _columns * _rows;
+	}
+
+	/**
+	 * Gets the number of tokens in a row it takes to win
+	 * @return Returns the connect length
+	 */
+	public int getConnectLength() {
+		return _connectLength;
+	}
+
+	/**
+	 * Gets the mask of every space owned by the given player
+	 * @param playerID The PlayerID of the player
+	 * @return Returns the mask of the player's spaces, 0 for PlayerID.NONE
+	 */
+	public long getPlayerMask(PlayerID playerID) {
+		if (playerID == PlayerID.PLAYER1) {
+			return _player1Mask;
+		}
+		if (playerID == PlayerID.PLAYER2) {
+			return _player2Mask;
+		}
+		return 0L;
+	}
+
+	/**
+	 * Gets the mask of every occupied space
+	 * @return Returns the mask of every occupied space
+	 */
+	public long getOccupiedMask() {
+		return _player1Mask | _player2Mask;
+	}
+
+	/**
+	 * Gets the number of tokens that have been placed on this BitBoard
+	 * @return Returns the number of tokens on this BitBoard
+	 */
+	public int getMoveCount() {
+		return Long.bitCount(_player1Mask | _player2Mask);
+	}
+
+	/**
+	 * Gets a key that uniquely identifies this position among all positions of the same dimensions.
+	 * Each column holds its height as a run of 1 bits plus player 1's tokens, and the buffer bit keeps the sum from carrying into the next column.
+	 * @return Returns the unique key of this position
+	 */
+	public long getKey() {
+		return _player1Mask + (_player1Mask | _player2Mask);
+	}
+
+	/**
+	 * Gets the bit index of the given space
+	 * @param column The column of the space
+	 * @param row The row of the space, where row 0 is the top of the board
+	 * @return Returns the bit index of the space
+	 */
+	public int getBitIndex(int column, int row) {
+		return column * _bitsPerColumn + (_rows - 1 - row);
+	}
+
+	/**
+	 * Gets the PlayerID of the owner of the given space
+	 * @param column The column of the space
+	 * @param row The row of the space, where row 0 is the top of the board
+	 * @return Returns the PlayerID of the owner, PlayerID.NONE if the space is empty
+	 */
+	public PlayerID getOwnerPlayerID(int column, int row) {
+		long bit = 1L << getBitIndex(column, row);
+		if ((_player1Mask & bit) != 0) {
+			return PlayerID.PLAYER1;
+		}
+		if ((_player2Mask & bit) != 0) {
+			return PlayerID.PLAYER2;
+		}
+		return PlayerID.NONE;
+	}
+
+	/**
+	 * Sets the owner of a single space without any regard for gravity. Only meant for keeping views of the board in sync.
+	 * @param column The column of the space
+	 * @param row The row of the space, where row 0 is the top of the board
+	 * @param playerID The PlayerID of the new owner, PlayerID.NONE will empty the space
+	 */
+	public void setOwnerPlayerID(int column, int row, PlayerID playerID) {
+		int bitIndex = getBitIndex(column, row);
+		long bit = 1L << bitIndex;
+
+		if ((_player1Mask & bit) != 0) {
+			_lineCounter.removeToken(bitIndex, true);
+		}
+		else if ((_player2Mask & bit) != 0) {
+			_lineCounter.removeToken(bitIndex, false);
+		}
+		_player1Mask &= ~bit;
+		_player2Mask &= ~bit;
+
+		if (playerID == PlayerID.PLAYER1) {
+			_player1Mask |= bit;
+			_lineCounter.addToken(bitIndex, true);
+		}
+		else if (playerID == PlayerID.PLAYER2) {
+			_player2Mask |= bit;
+			_lineCounter.addToken(bitIndex, false);
+		}
+	}
+
+	/**
+	 * Gets the mask of every space in the given column
+	 * @param column The column
+	 * @return Returns the mask of every space in the column
+	 */
+	public long getColumnMask(int column) {
+		return ((1L << _rows) - 1) << (column * _bitsPerColumn);
+	}
+
+	/**
+	 * Gets the number of tokens in the given column
+	 * @param column The column
+	 * @return Returns the number of tokens in the column
+	 */
+	public int getColumnHeight(int column) {
+		return Long.bitCount((_player1Mask | _player2Mask) & getColumnMask(column));
+	}
+
+	/**
+	 * Determines whether a token can be dropped into the given column
+	 * @param column The column
+	 * @return Returns true if the column is not full
+	 */
+	public boolean canPlay(int column) {
+		long topBit = 1L << (column * _bitsPerColumn + _rows - 1);
+		return ((_player1Mask | _player2Mask) & topBit) == 0;
+	}
+
+	/**
+	 * Fills the given array with every playable column, from left to right
+	 * @param columns The array to fill, which has to have room for every column
+	 * @return Returns the number of columns put in the array
+	 */
+	public int getCandidateColumns(int[] columns) {
+		int count = 0;
+		for (int column = 0; column < _columns; column++) {
+			if (canPlay(column)) {
+				columns[count++] = column;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the most columns getCandidateColumns could put in its array, which is every column
+	 * @return Returns the number of columns
+	 */
+	public int getCandidateCapacity() {
+		return _columns;
+	}
+
+	/**
+	 * Gets the mask of the space a token dropped into the given column would land on
+	 * @param column The column
+	 * @return Returns the mask of the next open space in the column, 0 if the column is full
+	 */
+	public long getNextSpaceMask(int column) {
+		long occupiedMask = _player1Mask | _player2Mask;
+		return (occupiedMask + (_bottomMask & getColumnMask(column))) & getColumnMask(column);
+	}
+
+	/**
+	 * Drops a token for the given player into the given column
+	 * @param column The column to drop the token into
+	 * @param playerID The PlayerID of the player dropping the token
+	 * @return Returns the row the token landed on, or -1 if the column was full
+	 */
+	public int play(int column, PlayerID playerID) {
+		long move = getNextSpaceMask(column);
+		if (move == 0 || playerID == PlayerID.NONE) {
+			return -1;
+		}
+
+		boolean isPlayer1 = (playerID == PlayerID.PLAYER1);
+		if (isPlayer1) {
+			_player1Mask |= move;
+		}
+		else {
+			_player2Mask |= move;
+		}
+		_lineCounter.addToken(Long.numberOfTrailingZeros(move), isPlayer1);
+
+		int height = Long.numberOfTrailingZeros(move) - column * _bitsPerColumn;
+		return _rows - 1 - height;
+	}
+
+	/**
+	 * Removes the top token of the given column
+	 * @param column The column to remove the token from
+	 * @return Returns true if a token was removed, false if the column was empty
+	 */
+	public boolean undo(int column) {
+		long columnMask = getColumnMask(column);
+		long topMask = (((_player1Mask | _player2Mask) + (_bottomMask & columnMask)) >>> 1) & columnMask;
+		if (((_player1Mask | _player2Mask) & topMask) == 0) {
+			return false;
+		}
+
+		_lineCounter.removeToken(Long.numberOfTrailingZeros(topMask), (_player1Mask & topMask) != 0);
+		_player1Mask &= ~topMask;
+		_player2Mask &= ~topMask;
+		return true;
+	}
+
+	/**
+	 * Determines whether dropping a token into the given column would win the game for the given player
+	 * @param column The column
+	 * @param playerID The PlayerID of the player
+	 * @return Returns true if the move would complete a line for the player
+	 */
+	public boolean isWinningMove(int column, PlayerID playerID) {
+		long move = getNextSpaceMask(column);
+		if (move == 0) {
+			return false;
+		}
+		return hasAlignment(getPlayerMask(playerID) | move);
+	}
+
+	/**
+	 * Determines whether the token at the given space is part of a complete line. Only the counts of the lines through that space are looked at.
+	 * @param column The column of the space
+	 * @param row The row of the space, where row 0 is the top of the board
+	 * @return Returns true if the owner of the space has a complete line through it, false if it doesn't or the space is empty
+	 */
+	public boolean isWinningSpace(int column, int row) {
+		int bitIndex = getBitIndex(column, row);
+		long bit = 1L << bitIndex;
+
+		if ((_player1Mask & bit) != 0) {
+			return _lineCounter.isLineCompleteThrough(bitIndex, true);
+		}
+		if ((_player2Mask & bit) != 0) {
+			return _lineCounter.isLineCompleteThrough(bitIndex, false);
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the LineCounter keeping count of every player's tokens in every line
+	 * @return Returns the LineCounter of this BitBoard
+	 */
+	public LineCounter getLineCounter() {
+		return _lineCounter;
+	}
+
+	/**
+	 * Gets the running score of the lines for the given player (see LineCounter). It's kept up to date as tokens are played, so getting it never has to look at the board.
+	 * @param playerID The PlayerID of the player to score the position for
+	 * @return Returns the player's line score minus the opposing player's line score
+	 */
+	public int getLineScore(PlayerID playerID) {
+		return _lineCounter.getLineScore(playerID);
+	}
+
+	/**
+	 * Finds a player that has a complete line anywhere on the board
+	 * @return Returns the PlayerID of a player with a complete line, PlayerID.NONE if there is none
+	 */
+	public PlayerID findWinner() {
+		return _lineCounter.findWinner();
+	}
+
+	/**
+	 * Determines whether the given mask has a full connect length of bits in a line in any direction
+	 * @param mask The mask of a single player's tokens
+	 * @return Returns true if the mask contains a complete line
+	 */
+	public boolean hasAlignment(long mask) {
+		//Vertical, horizontal, and the two diagonals
+		return _hasAlignment(mask, 1) || _hasAlignment(mask, _bitsPerColumn) ||
+			_hasAlignment(mask, _bitsPerColumn - 1) || _hasAlignment(mask, _bitsPerColumn + 1);
+	}
+
+	/**
+	 * Determines whether the mask has a full connect length of bits spaced out by the given shift
+	 * @param mask The mask to check
+	 * @param shift The distance in bits between two neighboring spaces in the direction to check
+	 * @return Returns true if a complete line was found
+	 */
+	private boolean _hasAlignment(long mask, int shift) {
+		if (_connectLength == 4) { //The usual game gets the quick way: pairs of pairs
+			long pairs = mask & (mask >>> shift);
+			return (pairs & (pairs >>> (2 * shift))) != 0;
+		}
+
+		//Each step keeps only the bits that start a run one longer than the step before
+		long runs = mask;
+		for (int i = 1; i < _connectLength && runs != 0; i++) {
+			runs &= mask >>> (i * shift);
+		}
+		return runs != 0;
+	}
+}
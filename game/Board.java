@@ -2,31 +2,65 @@ package connect4.game;
 
 import connect4.enums.*;
 import connect4.events.*;
+import connect4.telemetry.*;
+import java.util.*;
 
 /**
  * This class holds all the Space nodes and manages their relations to one another.
+ * The tokens themselves are stored in a Position (a BitBoard whenever the board is small enough), and each Space is only a view of one spot on it.
+ * Boards with at least SPARSE_MINIMUM_SPACES spaces are sparse: they keep a SparsePosition, only hold on to the Spaces that have been asked for, and don't keep a SpaceGroupIndex,
+ * so their memory grows with the tokens played instead of the size of the board.
  * @author Nate Celeste NTC14, Noah Crowley NWC17
  */
 public class Board {
 
-	//The dimensions of the game
-	private final int _COLUMNS = 7;
-	private final int _ROWS = 6;
+	//Boards with at least this many spaces only store what's on them (a bit over 48x48, so 50x50 and up)
+	public static final int SPARSE_MINIMUM_SPACES = 2500;
+
+	//How many moves there is room for on the move stack to start with, it grows from there
+	private static final int _INITIAL_MOVE_STACK_SIZE = 64;
+
+	//The dimensions of the game, and how many tokens in a row it takes to win
+	private final int _COLUMNS;
+	private final int _ROWS;
+	private final int _CONNECT_LENGTH;
 	
-	//Gotta keep track of these two things.
+	//Gotta keep track of these three things.
 	private GameState _gameState;
-	private Space[][] _spaces; //The basis for our graph
+	private Position _position; //The actual tokens on the board live here
+	private BoardGeometry _geometry; //Neighbors and coordinates of every space, shared with every other Board
+	private SpaceGroupIndex _spaceGroupIndex; //Every SpaceGroup on the board, kept up to date as tokens come and go. Null on sparse boards.
+	private Space[] _spaces; //The basis for our graph, only created as they are asked for, indexed the same way as the BoardGeometry. Null on sparse boards.
+	private Map<Integer, Space> _sparseSpaces; //The same thing for sparse boards, holding only the Spaces that have been asked for
+	
+	//The height of every column and the columns played so far, in order, so moves can be taken back without searching for them
+	private int[] _columnHeights;
+	private int[] _moveStack;
+	private int _moveStackSize;
+
+	//While searching, moves don't fire any events
+	private boolean _isSearchMode;
+	
+	//The winner is worked out as each token is dropped. Stale means a Space was changed in a way that calls for a full rescan.
+	private PlayerID _winnerPlayerID;
+	private boolean _isWinnerStale;
 	
 	//Super useful event for after a space is changed
 	public EventSource<SpaceChangedEventData> spaceChanged;
 	
 	/**
-	 * Creates a new Board associated with the given GameState
+	 * Creates a new Board associated with the given GameState, with the GameState's dimensions and connect length
 	 * @author Nate Celeste NTC14, Noah Crowley NWC17
 	 * @param gameState The GameState that this will belong to
 	 */
 	public Board(GameState gameState) {
 		_gameState = gameState;
+		_COLUMNS = gameState.getNumberOfColumns();
+		_ROWS = gameState.getNumberOfRows();
+		_CONNECT_LENGTH = gameState.getConnectLength();
+		_winnerPlayerID = PlayerID.NONE;
+		_isWinnerStale = false;
+		_isSearchMode = false;
 
 		spaceChanged = new EventSource<SpaceChangedEventData>();
 
@@ -48,6 +82,57 @@ public class Board {
 	public int getNumberOfRows() {
 		return _ROWS;
 	}
+
+	/**
+	 * Gets the number of spaces on the board. It's a long since a sparse Board can have more spaces than an int can count.
+	 * @return Returns the number of columns times the number of rows
+	 */
+	public long getNumberOfSpaces() {
+		return (long) _COLUMNS * _ROWS;
+	}
+
+	/**
+	 * Gets the number of tokens in a row it takes to win
+	 * @return Returns the connect length
+	 */
+	public int getConnectLength() {
+		return _CONNECT_LENGTH;
+	}
+
+	/**
+	 * Determines whether this Board is sparse, i.e. only stores what's on it
+	 * @return Returns true if this Board is sparse
+	 */
+	public boolean isSparse() {
+		return _spaces == null;
+	}
+
+	/**
+	 * Determines whether a board of the given size is sparse, i.e. only stores what's on it
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @return Returns true if the board has at least SPARSE_MINIMUM_SPACES spaces
+	 */
+	public static boolean isSparse(int columns, int rows) {
+		return (long) columns * rows >= SPARSE_MINIMUM_SPACES;
+	}
+
+	/**
+	 * Creates an empty Position for a board of the given size: a BitBoard if it fits in one, a SparsePosition if the board is sparse, otherwise a GridPosition
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @param connectLength The number of tokens in a row it takes to win
+	 * @return Returns the new Position
+	 */
+	public static Position createPosition(int columns, int rows, int connectLength) {
+		if (BitBoard.fits(columns, rows)) {
+			return new BitBoard(columns, rows, connectLength);
+		}
+		if (isSparse(columns, rows)) {
+			return new SparsePosition(columns, rows, connectLength);
+		}
+		return new GridPosition(columns, rows, connectLength);
+	}
 	
 	/**
 	 * Gets the Space at the specified column and row
@@ -56,37 +141,213 @@ public class Board {
 	 * @return The Space at the BoardCoordinate (column, row)
 	 */
 	public Space getSpace(int column, int row) {
-		return _spaces[column][row];
+		return getSpace(_geometry.getSpaceIndex(column, row));
 	}
-	
+
 	/**
-	 * This method handles giving the top available Space of a column to the Player identified by the given PlayerID
+	 * Gets the Space with the given index in the BoardGeometry
+	 * @param spaceIndex The index of the Space desired
+	 * @return Returns the Space with the given index
+	 */
+	public Space getSpace(int spaceIndex) {
+		if (_spaces == null) {
+			Space space = _sparseSpaces.get(spaceIndex);
+			if (space == null) {
+				space = new Space(this, _geometry.getBoardCoordinate(spaceIndex));
+				_sparseSpaces.put(spaceIndex, space);
+			}
+			return space;
+		}
+
+		Space space = _spaces[spaceIndex];
+		if (space == null) { //Spaces are just views of the Position, so there is no point in making them until someone asks
+			space = new Space(this, _geometry.getBoardCoordinate(spaceIndex));
+			_spaces[spaceIndex] = space;
+		}
+		return space;
+	}
+
+	/**
+	 * Gets the BoardGeometry that knows every Space's neighbors
+	 * @return Returns the BoardGeometry of this Board
+	 */
+	public BoardGeometry getGeometry() {
+		return _geometry;
+	}
+
+	/**
+	 * Gets the SpaceGroupIndex that keeps track of every SpaceGroup on this Board
+	 * @return Returns the SpaceGroupIndex of this Board, or null if this Board is sparse
+	 */
+	public SpaceGroupIndex getSpaceGroupIndex() {
+		return _spaceGroupIndex;
+	}
+
+	/**
+	 * Gets the Position that holds the tokens on this Board
+	 * @return Returns the Position that holds the tokens on this Board
+	 */
+	public Position getPosition() {
+		return _position;
+	}
+
+	/**
+	 * Gets the PlayerID of the owner of the Space at the specified column and row
+	 * @param column The column of the Space
+	 * @param row The row of the Space
+	 * @return Returns the PlayerID of the owner, PlayerID.NONE if the Space is empty
+	 */
+	public PlayerID getOwnerPlayerID(int column, int row) {
+		return _position.getOwnerPlayerID(column, row);
+	}
+
+	/**
+	 * Sets the owner of the Space at the specified column and row. This does not fire the spaceChanged event, and it doesn't go on the move stack, so undoMove won't take it back.
+	 * @param column The column of the Space
+	 * @param row The row of the Space
+	 * @param playerID The PlayerID of the new owner, PlayerID.NONE will make the Space empty
+	 */
+	public void setOwnerPlayerID(int column, int row, PlayerID playerID) {
+		PlayerID previousOwnerPlayerID = _position.getOwnerPlayerID(column, row);
+		_position.setOwnerPlayerID(column, row, playerID);
+
+		if (_spaceGroupIndex != null) {
+			int spaceIndex = _geometry.getSpaceIndex(column, row);
+			_spaceGroupIndex.removeToken(spaceIndex);
+			if (playerID != PlayerID.NONE) {
+				_spaceGroupIndex.addToken(spaceIndex, playerID);
+			}
+		}
+
+		if (previousOwnerPlayerID != PlayerID.NONE && _winnerPlayerID != PlayerID.NONE) { //Taking a token away might have broken up the winning line
+			_isWinnerStale = true;
+		}
+		if (playerID != PlayerID.NONE) {
+			_updateWinner(column, row);
+		}
+		_columnHeights[column] = _position.getColumnHeight(column);
+	}
+
+	/**
+	 * Gets the number of tokens in a column
+	 * @param column The column
+	 * @return Returns the number of tokens in the column
+	 */
+	public int getColumnHeight(int column) {
+		return _columnHeights[column];
+	}
+
+	/**
+	 * Determines whether this Board is in search mode, where moves don't fire the spaceChanged event
+	 * @return Returns true if this Board is in search mode
+	 */
+	public boolean isSearchMode() {
+		return _isSearchMode;
+	}
+
+	/**
+	 * Turns search mode on or off. In search mode makeMove and undoMove don't notify anyone, so hypothetical moves are as cheap as possible.
+	 * @param isSearchMode Whether to be in search mode
+	 */
+	public void setSearchMode(boolean isSearchMode) {
+		_isSearchMode = isSearchMode;
+	}
+
+	/**
+	 * Gets the number of moves made with makeMove or dropToken that haven't been undone
+	 * @return Returns the number of moves on the move stack
+	 */
+	public int getMoveCount() {
+		return _moveStackSize;
+	}
+
+	/**
+	 * Gets the column of the most recent move that hasn't been undone
+	 * @return Returns the column of the last move, or -1 if there isn't one
+	 */
+	public int getLastMove() {
+		return (_moveStackSize > 0) ? _moveStack[_moveStackSize - 1] : -1;
+	}
+
+	/**
+	 * Drops a token for the given player into a column and remembers the move so it can be undone.
+	 * This is constant work and never allocates (unless the move stack has to grow), and outside of search mode it fires the spaceChanged event just like dropToken.
 	 * @param column The column to drop a token into
-	 * @param playerID The PlayerID to set the owner of the top Space to
+	 * @param playerID The PlayerID of the player dropping the token
 	 * @return Returns true if the column was open, false if it was already full
 	 */
-	public boolean dropToken(int column, PlayerID playerID) {
-		Space[] spacesColumn = _spaces[column];
-		
-		if (!spacesColumn[0].isEmpty()) {
+	public boolean makeMove(int column, PlayerID playerID) {
+		if (_columnHeights[column] >= _ROWS || playerID == PlayerID.NONE) {
 			return false;
 		}
-		
-		int emptyRow = 0;
 
-		for (int i = 1; i < spacesColumn.length && spacesColumn[i].isEmpty(); i++) {
-			emptyRow++;
+		MoveEvent event = new MoveEvent(); //Free unless Flight Recorder is recording, the JIT doesn't even create it
+		event.begin();
+
+		int row = _position.play(column, playerID);
+		_columnHeights[column]++;
+		if (_moveStackSize == _moveStack.length) {
+			_moveStack = Arrays.copyOf(_moveStack, _moveStack.length * 2);
+		}
+		_moveStack[_moveStackSize++] = column;
+		if (_spaceGroupIndex != null) {
+			_spaceGroupIndex.addToken(_geometry.getSpaceIndex(column, row), playerID);
 		}
 
-		Space space = spacesColumn[emptyRow];
-		space.setOwnerPlayerID(playerID);
+		_updateWinner(column, row);
 
-		SpaceChangedEventData eventData = new SpaceChangedEventData(column, emptyRow, playerID);
-		spaceChanged.notifyListeners(eventData);
+		if (!_isSearchMode) {
+			spaceChanged.notifyListeners(new SpaceChangedEventData(column, row, playerID));
+		}
 
+		if (event.shouldCommit()) {
+			event.player = playerID.toString();
+			event.column = column;
+			event.row = row;
+			event.moveNumber = _moveStackSize;
+			event.isSearchMode = _isSearchMode;
+			event.commit();
+		}
 		return true;
 	}
 
+	/**
+	 * Takes back the most recent move made with makeMove or dropToken. Like makeMove, this is constant work and only fires the spaceChanged event outside of search mode.
+	 * @return Returns the column the move was taken back from, or -1 if there were no moves to take back
+	 */
+	public int undoMove() {
+		if (_moveStackSize == 0) {
+			return -1;
+		}
+
+		int column = _moveStack[--_moveStackSize];
+		int row = _ROWS - _columnHeights[column];
+		_position.undo(column);
+		_columnHeights[column]--;
+		if (_spaceGroupIndex != null) {
+			_spaceGroupIndex.removeToken(_geometry.getSpaceIndex(column, row));
+		}
+
+		if (_winnerPlayerID != PlayerID.NONE) { //The Position counts completed lines, so asking it again is just as cheap
+			_winnerPlayerID = _position.findWinner();
+		}
+
+		if (!_isSearchMode) {
+			spaceChanged.notifyListeners(new SpaceChangedEventData(column, row, PlayerID.NONE));
+		}
+		return column;
+	}
+	
+	/**
+	 * This method handles giving the top available Space of a column to the Player identified by the given PlayerID
+	 * @param column The column to drop a token into
+	 * @param playerID The PlayerID to set the owner of the top Space to
+	 * @return Returns true if the column was open, false if it was already full
+	 */
+	public boolean dropToken(int column, PlayerID playerID) {
+		return makeMove(column, playerID);
+	}
+
 	/**
 	 * Same as dropToken(int, PlayerID), but assumes that it should use the GameState's currentPlayerID
 	 * @param column The column to drop a token into
@@ -97,19 +358,32 @@ public class Board {
 	}
 	
 	/**
-	 * This method uses the BoardAnalyzer to determine if there are any SpaceGroups of size 4
+	 * Determines whether either player has a full connect length in a row. The answer is kept up to date as tokens are dropped, so this is usually constant work.
+	 * The whole board is only rescanned if a Space was changed directly in a way that could have broken up a winning line.
 	 * @return Returns PlayerID.NONE if no player has won, otherwise it returns the PlayerID of the player who won
 	 */
 	public PlayerID checkForWinner() {
-		SpaceGroup[] winningGroups = BoardAnalyzer.getSpaceGroups(this, 4, true);
-		
-		if (winningGroups.length == 0) {
-			return PlayerID.NONE;
+		if (_isWinnerStale) {
+			_winnerPlayerID = _position.findWinner();
+			_isWinnerStale = false;
 		}
 		
-		SpaceGroup winningGroup = winningGroups[0];
-		
-		return winningGroup.getOwnerPlayerID();
+		return _winnerPlayerID;
+	}
+
+	/**
+	 * Checks only the lines through a Space that was just filled to see if it won the game
+	 * @param column The column of the Space that was just filled
+	 * @param row The row of the Space that was just filled
+	 */
+	private void _updateWinner(int column, int row) {
+		if (_isWinnerStale || _winnerPlayerID != PlayerID.NONE) { //Either we already know who won or the next checkForWinner will rescan everything anyway
+			return;
+		}
+
+		if (_position.isWinningSpace(column, row)) {
+			_winnerPlayerID = _position.getOwnerPlayerID(column, row);
+		}
 	}
 
 	/**
@@ -118,29 +392,30 @@ public class Board {
 	 * @return Returns null if the column is completely empty, otherwise returns the top Space with an owner.
 	 */
 	public Space getTopOwnedSpace(int column){
-		Space[] spacesColumn = _spaces[column];
+		int height = _columnHeights[column];
 
-		for(int rowIndex = 0; rowIndex < spacesColumn.length; rowIndex++){
-			Space space = spacesColumn[rowIndex];
-			if(!space.isEmpty())
-				return space;
-		}
+		if (height == 0)
+			return null;
 
-		return null;
+		return getSpace(column, _ROWS - height);
 	}
 
 	/**
-	 * Creates all of the Spaces and stores them in the 2D _spaces array
+	 * Creates the Position and the (still empty) _spaces array, or the map of Spaces on a sparse Board. The Spaces themselves are created by getSpace as they are needed.
 	 */
 	private void _createSpaces() {
-		_spaces = new Space[_COLUMNS][_ROWS];
-		for (int col = 0; col < _COLUMNS; col++) {
-			for (int row = 0; row < _ROWS; row++) {
-				BoardCoordinate boardCoordinate = new BoardCoordinate(col, row);
-				Space space = new Space(this, boardCoordinate);
-				_spaces[col][row] = space;
-			}
+		_position = createPosition(_COLUMNS, _ROWS, _CONNECT_LENGTH);
+		_geometry = BoardGeometry.get(_COLUMNS, _ROWS);
+		if (isSparse(_COLUMNS, _ROWS)) {
+			_sparseSpaces = new HashMap<Integer, Space>();
+		}
+		else {
+			_spaces = new Space[_geometry.getNumberOfSpaces()];
+			_spaceGroupIndex = new SpaceGroupIndex(_geometry);
 		}
+		_columnHeights = new int[_COLUMNS];
+		_moveStack = new int[Math.min(_COLUMNS * _ROWS, _INITIAL_MOVE_STACK_SIZE)];
+		_moveStackSize = 0;
 	}
 
 	/**
@@ -11,46 +11,138 @@ import java.util.*;
 public class BoardAnalyzer {
 
 	/**
-	 * Finds all space groups of size minimumSize and larger within the Board board.
+	 * Walks through all space groups of size minimumSize and larger within the Board board, handing each one to the visitor as it is found.
+	 * Nothing is created along the way, and the visitor can stop the walk at any group, e.g. at the first group of four.
+	 * Groups are visited in the same order getSpaceGroups returns them.
 	 * @param board The Board to analyze
-	 * @param minimumSize The minimumSize of the SpaceGroups to return
-	 * @param includeLockedGroups If true, locked groups will be included.
-	 * @return Returns an array of all the SpaceGroups that were found in the Board and fit the criteria
+	 * @param minimumSize The minimumSize of the groups to visit
+	 * @param includeLockedGroups If true, locked groups will be visited too.
+	 * @param visitor The ISpaceGroupVisitor to hand each group to
+	 * @return Returns true if every group was visited, false if the visitor stopped early
 	 */
-	public static SpaceGroup[] getSpaceGroups(Board board, int minimumSize, boolean includeLockedGroups) {
-		ArrayList<SpaceGroup> spaceGroups = new ArrayList<SpaceGroup>();
+	public static boolean visitSpaceGroups(Board board, int minimumSize, boolean includeLockedGroups, ISpaceGroupVisitor visitor) {
+		BoardGeometry boardGeometry = board.getGeometry();
 
-		SpaceGroup[] spaceGroupsIncludingSpace = new SpaceGroup[5]; //More efficient to just use one array over and over even if we never use all of the spaces.
 		for (int column = 0; column < board.getNumberOfColumns(); column++) {
-			for (int row = 0; row < board.getNumberOfRows(); row++) {
-				Space space = board.getSpace(column, row);
-
-				if (space.isEmpty()) { //If it is empty, this won't belong to a SpaceGroup anyway
-					continue;
-				}
+			//Columns fill from the bottom up, so the column height tells us exactly which rows are worth looking at. Empty Spaces won't belong to a SpaceGroup anyway.
+			int firstOwnedRow = board.getNumberOfRows() - board.getColumnHeight(column);
+			for (int row = firstOwnedRow; row < board.getNumberOfRows(); row++) {
+				PlayerID ownerPlayerID = board.getOwnerPlayerID(column, row);
+				int spaceIndex = boardGeometry.getSpaceIndex(column, row);
 
-				_getSpaceGroupsIncludingSpace(board, space, spaceGroupsIncludingSpace); //This will actually get the space groups
-				for (int i = 0; i < spaceGroupsIncludingSpace.length; i++) {
-					SpaceGroup spaceGroup = spaceGroupsIncludingSpace[i];
+				/*
+				 * The use of only positive AdjacencyZones helps to make this more efficient and less wasteful.
+				 * No point in going in all directions as this would result in duplicate groups.
+				 */
+				for (AdjacencyZone adjacencyZone : AdjacencyZone.getPositiveAdjacencyZones()) {
+					int previousSpace = boardGeometry.getNeighbor(spaceIndex, adjacencyZone.getOppositeAdjacencyZone());
+					if (_getOwnerPlayerID(board, previousSpace) == ownerPlayerID) {
+						/*
+						 * If the space in the negative direction also matches this Space's owner, then this Space is in the middle of
+						 * a group that starts further back and was already visited, and starting here would only give part of it.
+						 */
+						continue;
+					}
 
-					if (spaceGroup == null) { //At this point, we have reached the end of the existing groups
-						break;
+					//Walk to the end of the group
+					int length = 1;
+					int nextSpace = boardGeometry.getNeighbor(spaceIndex, adjacencyZone);
+					while (_getOwnerPlayerID(board, nextSpace) == ownerPlayerID) {
+						length++;
+						nextSpace = boardGeometry.getNeighbor(nextSpace, adjacencyZone);
 					}
 
-					if (spaceGroup.getLength() < minimumSize) { //Too small
+					if (length < minimumSize) { //Too small
 						continue;
 					}
-					
-					if (includeLockedGroups || !spaceGroup.isLocked()) { //Ignores locked groups if includeLockedGroups is false
-						spaceGroups.add(spaceGroup);
+
+					//Locked means both ends are blocked by the other player or the wall
+					boolean isLocked = (previousSpace == BoardGeometry.NO_NEIGHBOR || _getOwnerPlayerID(board, previousSpace) != PlayerID.NONE) &&
+						(nextSpace == BoardGeometry.NO_NEIGHBOR || _getOwnerPlayerID(board, nextSpace) != PlayerID.NONE);
+					if (isLocked && !includeLockedGroups) {
+						continue;
 					}
 
-					spaceGroupsIncludingSpace[i] = null; //Clear the spaceGroupsIncludingSpace array as we go
+					if (!visitor.visitSpaceGroup(column, row, adjacencyZone, length, ownerPlayerID)) {
+						return false;
+					}
 				}
 			}
 		}
 
-		return spaceGroups.toArray(new SpaceGroup[spaceGroups.size()]);
+		return true;
+	}
+
+	/**
+	 * Walks through one player's space groups of size minimumSize and larger using the Board's SpaceGroupIndex, so only that player's groups are ever looked at, not the whole Board.
+	 * Unlike visitSpaceGroups(Board, int, boolean, ISpaceGroupVisitor), the groups come in no particular order.
+	 * Sparse Boards don't have a SpaceGroupIndex, so there it walks every group and skips the other player's. That still only looks at the tokens on the Board.
+	 * @param board The Board to analyze
+	 * @param playerID The PlayerID of the player whose groups to visit
+	 * @param minimumSize The minimumSize of the groups to visit
+	 * @param includeLockedGroups If true, locked groups will be visited too.
+	 * @param visitor The ISpaceGroupVisitor to hand each group to
+	 * @return Returns true if every group was visited, false if the visitor stopped early
+	 */
+	public static boolean visitSpaceGroups(Board board, PlayerID playerID, int minimumSize, boolean includeLockedGroups, ISpaceGroupVisitor visitor) {
+		if (board.getSpaceGroupIndex() == null) {
+			return visitSpaceGroups(board, minimumSize, includeLockedGroups, new PlayerSpaceGroupFilter(playerID, visitor));
+		}
+		return board.getSpaceGroupIndex().visitSpaceGroups(playerID, minimumSize, includeLockedGroups, visitor);
+	}
+
+	/**
+	 * Finds one player's space groups of size minimumSize and larger using the Board's SpaceGroupIndex, e.g. all unlocked groups of size 3 or more for PLAYER2
+	 * @param board The Board to analyze
+	 * @param playerID The PlayerID of the player whose groups to find
+	 * @param minimumSize The minimumSize of the SpaceGroups to return
+	 * @param includeLockedGroups If true, locked groups will be included.
+	 * @return Returns an array of the player's SpaceGroups that fit the criteria, in no particular order
+	 */
+	public static SpaceGroup[] getSpaceGroups(Board board, PlayerID playerID, int minimumSize, boolean includeLockedGroups) {
+		SpaceGroupCollector spaceGroupCollector = new SpaceGroupCollector(board);
+		visitSpaceGroups(board, playerID, minimumSize, includeLockedGroups, spaceGroupCollector);
+		return spaceGroupCollector.spaceGroups.toArray(new SpaceGroup[spaceGroupCollector.spaceGroups.size()]);
+	}
+
+	/**
+	 * Determines whether the given player has an imminent space group, i.e. one move away from the Board's connect length in a row:
+	 * one short of the connect length with an empty space at either end (A A A _ for four in a row), or a line of the player's tokens with a single empty space in it
+	 * that would complete the connect length (A A _ A, or A A _ A A for five in a row).
+	 * Only the player's groups at least half as long as that are looked at, since one side of the gap always is, and it stops at the first imminent one.
+	 * @param board The Board to analyze
+	 * @param playerID The PlayerID of the player
+	 * @return Returns true if the player has at least one imminent space group
+	 */
+	public static boolean hasImminentSpaceGroup(Board board, PlayerID playerID) {
+		ImminentSpaceGroupFinder imminentSpaceGroupFinder = new ImminentSpaceGroupFinder(board);
+		int minimumSize = Math.max(board.getConnectLength() / 2, 1); //Half of the connect length minus one, rounded up
+		return !visitSpaceGroups(board, playerID, minimumSize, false, imminentSpaceGroupFinder); //The finder stops the walk when it finds one
+	}
+
+	/**
+	 * Finds the owner of the first space group of size minimumSize or larger, stopping as soon as one is found. A minimumSize of 4 finds the winner.
+	 * @param board The Board to analyze
+	 * @param minimumSize The minimumSize of the group to look for
+	 * @return Returns the PlayerID of the owner of the first group found, PlayerID.NONE if there isn't one
+	 */
+	public static PlayerID findSpaceGroupOwner(Board board, int minimumSize) {
+		SpaceGroupOwnerFinder spaceGroupOwnerFinder = new SpaceGroupOwnerFinder();
+		visitSpaceGroups(board, minimumSize, true, spaceGroupOwnerFinder);
+		return spaceGroupOwnerFinder.ownerPlayerID;
+	}
+
+	/**
+	 * Finds all space groups of size minimumSize and larger within the Board board.
+	 * @param board The Board to analyze
+	 * @param minimumSize The minimumSize of the SpaceGroups to return
+	 * @param includeLockedGroups If true, locked groups will be included.
+	 * @return Returns an array of all the SpaceGroups that were found in the Board and fit the criteria
+	 */
+	public static SpaceGroup[] getSpaceGroups(Board board, int minimumSize, boolean includeLockedGroups) {
+		SpaceGroupCollector spaceGroupCollector = new SpaceGroupCollector(board);
+		visitSpaceGroups(board, minimumSize, includeLockedGroups, spaceGroupCollector);
+		return spaceGroupCollector.spaceGroups.toArray(new SpaceGroup[spaceGroupCollector.spaceGroups.size()]);
 	}
 
 	/**
@@ -73,37 +165,132 @@ public class BoardAnalyzer {
 	}
 
 	/**
-	 * Finds all SpaceGroups including this space in any positive direction
-	 * @param board The Board to find the SpaceGroups in
-	 * @param space The Space to use to find the SpaceGroups
-	 * @param spaceGroupsIncludingSpace The array to store the SpaceGroups in
+	 * Gets the owner of a space by its index in the BoardGeometry
+	 * @param board The Board the space is on
+	 * @param spaceIndex The index of the space, or BoardGeometry.NO_NEIGHBOR
+	 * @return Returns the PlayerID of the owner, or null for BoardGeometry.NO_NEIGHBOR so that it never matches anyone, not even an empty space
+	 */
+	private static PlayerID _getOwnerPlayerID(Board board, int spaceIndex) {
+		if (spaceIndex == BoardGeometry.NO_NEIGHBOR) {
+			return null;
+		}
+		BoardGeometry boardGeometry = board.getGeometry();
+		return board.getOwnerPlayerID(boardGeometry.getColumn(spaceIndex), boardGeometry.getRow(spaceIndex));
+	}
+
+	/**
+	 * Used by getSpaceGroups to turn every visited group into a SpaceGroup
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private static class SpaceGroupCollector implements ISpaceGroupVisitor {
+		public ArrayList<SpaceGroup> spaceGroups;
+		private Board _board;
+
+		private SpaceGroupCollector(Board board) {
+			spaceGroups = new ArrayList<SpaceGroup>();
+			_board = board;
+		}
+
+		@Override
+		public boolean visitSpaceGroup(int column, int row, AdjacencyZone adjacencyZone, int length, PlayerID ownerPlayerID) {
+			spaceGroups.add(new SpaceGroup(adjacencyZone, _board.getSpace(column, row)));
+			return true;
+		}
+	}
+
+	/**
+	 * Used by hasImminentSpaceGroup to stop at the first imminent group
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
 	 */
-	private static void _getSpaceGroupsIncludingSpace(Board board, Space space, SpaceGroup[] spaceGroupsIncludingSpace) {
-		int currentIndex = 0;
-		
-		/*
-		 * The use of only positive AdjacencyZones helps to make this more efficient and less wasteful.
-		 * No point in going in all directions as this would result in duplicate SpaceGroups.
+	private static class ImminentSpaceGroupFinder implements ISpaceGroupVisitor {
+		private Board _board;
+		private BoardGeometry _geometry;
+		private int _connectLength;
+
+		private ImminentSpaceGroupFinder(Board board) {
+			_board = board;
+			_geometry = board.getGeometry();
+			_connectLength = board.getConnectLength();
+		}
+
+		@Override
+		public boolean visitSpaceGroup(int column, int row, AdjacencyZone adjacencyZone, int length, PlayerID ownerPlayerID) {
+			if (length >= _connectLength) { //Already won, not one move away
+				return true;
+			}
+			if (length == _connectLength - 1) { //Unlocked already means at least one end is empty
+				return false;
+			}
+
+			//A A _ A or A _ A A: an empty space at one end, then enough of the player's tokens past it to fill the rest of the line
+			int start = _geometry.getSpaceIndex(column, row);
+			int end = start;
+			for (int i = 1; i < length; i++) {
+				end = _geometry.getNeighbor(end, adjacencyZone);
+			}
+			return !_isGapFilling(end, adjacencyZone, length, ownerPlayerID) &&
+				!_isGapFilling(start, adjacencyZone.getOppositeAdjacencyZone(), length, ownerPlayerID);
+		}
+
+		/**
+		 * Determines whether the space past one end of a group is empty and followed by enough of the player's tokens that playing there would complete the connect length
+		 * @param end The BoardGeometry index of the Space at that end of the group
+		 * @param adjacencyZone The direction pointing away from the group
+		 * @param length The length of the group
+		 * @param ownerPlayerID The PlayerID of the group's owner
+		 * @return Returns true if playing in the gap would complete the connect length
 		 */
-		for (AdjacencyZone adjacencyZone : AdjacencyZone.getPositiveAdjacencyZones()) {
-			Space previousSpace = space.getAdjacentSpace(adjacencyZone.getOppositeAdjacencyZone());
-			if (previousSpace != null && previousSpace.getOwnerPlayerID().equals(space.getOwnerPlayerID())) {
-				/*
-				 * So this part may be somewhat confusing.
-				 * The general idea is that if a space in a negative direction also matches this Space's owner then
-				 * this Space and this previousSpace already exist in a SpaceGroup with a positive AdjacencyZone direction
-				 * in which the previousSpace comes first.
-				 * So, therefore, it is a waste of time and memory to create another SpaceGroup that essentially already exists.
-				 * Plus, if we create a SpaceGroup in one direction but start somewhere in the middle, this SpaceGroup will only include
-				 * less information than the earlier one.
-				 */
-				continue;
+		private boolean _isGapFilling(int end, AdjacencyZone adjacencyZone, int length, PlayerID ownerPlayerID) {
+			int gapSpace = _geometry.getNeighbor(end, adjacencyZone);
+			if (_getOwnerPlayerID(_board, gapSpace) != PlayerID.NONE) {
+				return false;
+			}
+
+			int tokensNeeded = _connectLength - 1 - length;
+			int space = _geometry.getNeighbor(gapSpace, adjacencyZone);
+			for (int i = 0; i < tokensNeeded; i++) {
+				if (_getOwnerPlayerID(_board, space) != ownerPlayerID) {
+					return false;
+				}
+				space = _geometry.getNeighbor(space, adjacencyZone);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Used by visitSpaceGroups on sparse Boards to only pass one player's groups on to the real visitor
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private static class PlayerSpaceGroupFilter implements ISpaceGroupVisitor {
+		private PlayerID _playerID;
+		private ISpaceGroupVisitor _visitor;
+
+		private PlayerSpaceGroupFilter(PlayerID playerID, ISpaceGroupVisitor visitor) {
+			_playerID = playerID;
+			_visitor = visitor;
+		}
+
+		@Override
+		public boolean visitSpaceGroup(int column, int row, AdjacencyZone adjacencyZone, int length, PlayerID ownerPlayerID) {
+			if (ownerPlayerID != _playerID) {
+				return true;
 			}
-			
-			SpaceGroup spaceGroup = new SpaceGroup(adjacencyZone, space);
-			
-			spaceGroupsIncludingSpace[currentIndex] = spaceGroup;
-			currentIndex++;
+			return _visitor.visitSpaceGroup(column, row, adjacencyZone, length, ownerPlayerID);
+		}
+	}
+
+	/**
+	 * Used by findSpaceGroupOwner to stop at the first group it's shown
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private static class SpaceGroupOwnerFinder implements ISpaceGroupVisitor {
+		public PlayerID ownerPlayerID = PlayerID.NONE;
+
+		@Override
+		public boolean visitSpaceGroup(int column, int row, AdjacencyZone adjacencyZone, int length, PlayerID ownerPlayerID) {
+			this.ownerPlayerID = ownerPlayerID;
+			return false;
 		}
 	}
 }
\ No newline at end of file
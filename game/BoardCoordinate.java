@@ -8,8 +8,8 @@ import java.lang.Comparable;
  */
 public class BoardCoordinate implements Comparable<BoardCoordinate> {
 	
-	//The column and row coordinates of this
-	private int _column, _row;
+	//The column and row coordinates of this. They never change, so BoardCoordinates can be shared freely.
+	private final int _column, _row;
 
 	/**
 	 * Just creates a BoardCoordinate with the given column and row
@@ -135,21 +135,31 @@ public class BoardCoordinate implements Comparable<BoardCoordinate> {
 		return true;
 	}
 
+	@Override
+	/**
+	 * Gets a hash code that matches equals, so BoardCoordinates can be used in HashMaps and HashSets
+	 */
+	public int hashCode() {
+		return 31 * _column + _row;
+	}
+
 	@Override
 	/**
 	 * Compares this BoardCoordinate to another BoardCoordinate. Returns 0 if equal, 1 if this BoardCoordinate is greater than the other, and -1 if otherwise.
+	 * Greater means the difference between the two is "positive" (see isPositive), worked out without creating the difference.
 	 */
 	public int compareTo(BoardCoordinate otherBoardCoordinate) {
-		BoardCoordinate deltaCoordinate = subtract(otherBoardCoordinate);
+		int deltaColumn = _column - otherBoardCoordinate.getColumn();
+		int deltaRow = _row - otherBoardCoordinate.getRow();
 
-		if (deltaCoordinate.equals(this)) {
+		if (deltaColumn == 0 && deltaRow == 0) {
 			return 0;
 		}
-		
-		if (deltaCoordinate.isPositive()) {
+
+		if (deltaColumn > 0 || (deltaColumn == 0 && deltaRow > 0)) {
 			return 1;
 		}
-		
+
 		return -1;
 	}
 
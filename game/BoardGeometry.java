@@ -0,0 +1,189 @@
+package connect4.game;
+
+import connect4.enums.*;
+import java.util.*;
+
+/**
+ * This class holds everything about the shape of a board that never changes once its size is known: one shared BoardCoordinate for every space,
+ * and the neighbor of every space in every AdjacencyZone direction. Walking the board with it never creates any new objects,
+ * which matters since the Space graph gets walked constantly while looking for SpaceGroups.
+ * Spaces are numbered column by column (column * rows + row), and one BoardGeometry is shared by every Board of the same size.
+ * Sparse boards (see Board) are too big to keep a table for, so their neighbors are worked out on the spot and their BoardCoordinates are made as they are asked for.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class BoardGeometry {
+
+	//Returned by getNeighbor when the neighbor would be off the board
+	public static final int NO_NEIGHBOR = -1;
+
+	//The number of AdjacencyZones, NONE included
+	private static final int _ZONE_COUNT = AdjacencyZone.values().length;
+
+	//One geometry per board size, built the first time it's asked for
+	private static final Map<Long, BoardGeometry> _geometries = new HashMap<Long, BoardGeometry>();
+
+	//The dimensions of the board
+	private final int _columns, _rows;
+
+	//The BoardCoordinate of every space, so nobody has to make new ones. Null on sparse boards.
+	private final BoardCoordinate[] _boardCoordinates;
+
+	//The neighbor of every space in every direction, at (space * _ZONE_COUNT + zone ordinal), NO_NEIGHBOR if it's off the board. Null on sparse boards.
+	private final int[] _neighbors;
+
+	/**
+	 * Gets the geometry for a board of the given size, building it if this is the first time
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @return Returns the BoardGeometry for the board
+	 */
+	public static synchronized BoardGeometry get(int columns, int rows) {
+		long key = ((long) columns << 32) | rows; //Sparse boards can have more than 65535 rows, so the rows get all 32 low bits
+		BoardGeometry boardGeometry = _geometries.get(key);
+		if (boardGeometry == null) {
+			boardGeometry = new BoardGeometry(columns, rows);
+			_geometries.put(key, boardGeometry);
+		}
+		return boardGeometry;
+	}
+
+	/**
+	 * Builds the geometry for a board of the given size
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 */
+	private BoardGeometry(int columns, int rows) {
+		_columns = columns;
+		_rows = rows;
+
+		if (Board.isSparse(columns, rows)) {
+			_boardCoordinates = null;
+			_neighbors = null;
+			return;
+		}
+
+		_boardCoordinates = new BoardCoordinate[columns * rows];
+		_neighbors = new int[columns * rows * _ZONE_COUNT];
+
+		for (int column = 0; column < columns; column++) {
+			for (int row = 0; row < rows; row++) {
+				int space = getSpaceIndex(column, row);
+				_boardCoordinates[space] = new BoardCoordinate(column, row);
+
+				for (AdjacencyZone adjacencyZone : AdjacencyZone.values()) {
+					int neighborColumn = column + adjacencyZone.getColumnOffset();
+					int neighborRow = row + adjacencyZone.getRowOffset();
+
+					int neighbor = NO_NEIGHBOR;
+					if (adjacencyZone != AdjacencyZone.NONE && isOnBoard(neighborColumn, neighborRow)) { //NONE would be the space itself, which isn't a neighbor
+						neighbor = getSpaceIndex(neighborColumn, neighborRow);
+					}
+					_neighbors[space * _ZONE_COUNT + adjacencyZone.ordinal()] = neighbor;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of columns
+	 * @return Returns the number of columns
+	 */
+	public int getNumberOfColumns() {
+		return _columns;
+	}
+
+	/**
+	 * Gets the number of rows
+	 * @return Returns the number of rows
+	 */
+	public int getNumberOfRows() {
+		return _rows;
+	}
+
+	/**
+	 * Gets the number of spaces on the board
+	 * @return Returns the number of spaces on the board
+	 */
+	public int getNumberOfSpaces() {
+		return _columns * _rows;
+	}
+
+	/**
+	 * Determines whether the given column and row are on the board
+	 * @param column The column
+	 * @param row The row
+	 * @return Returns true if the column and row are on the board
+	 */
+	public boolean isOnBoard(int column, int row) {
+		return column >= 0 && column < _columns && row >= 0 && row < _rows;
+	}
+
+	/**
+	 * Gets the index of a space
+	 * @param column The column of the space
+	 * @param row The row of the space
+	 * @return Returns the index of the space
+	 */
+	public int getSpaceIndex(int column, int row) {
+		return column * _rows + row;
+	}
+
+	/**
+	 * Gets the column of a space
+	 * @param spaceIndex The index of the space
+	 * @return Returns the column of the space
+	 */
+	public int getColumn(int spaceIndex) {
+		return spaceIndex / _rows;
+	}
+
+	/**
+	 * Gets the row of a space
+	 * @param spaceIndex The index of the space
+	 * @return Returns the row of the space
+	 */
+	public int getRow(int spaceIndex) {
+		return spaceIndex % _rows;
+	}
+
+	/**
+	 * Gets the shared BoardCoordinate of a space. On sparse boards there is nothing to share, so it's a new one.
+	 * @param spaceIndex The index of the space
+	 * @return Returns the BoardCoordinate of the space
+	 */
+	public BoardCoordinate getBoardCoordinate(int spaceIndex) {
+		if (_boardCoordinates == null) {
+			return new BoardCoordinate(getColumn(spaceIndex), getRow(spaceIndex));
+		}
+		return _boardCoordinates[spaceIndex];
+	}
+
+	/**
+	 * Gets the shared BoardCoordinate of a space. On sparse boards there is nothing to share, so it's a new one.
+	 * @param column The column of the space
+	 * @param row The row of the space
+	 * @return Returns the BoardCoordinate of the space
+	 */
+	public BoardCoordinate getBoardCoordinate(int column, int row) {
+		return getBoardCoordinate(getSpaceIndex(column, row));
+	}
+
+	/**
+	 * Gets the neighbor of a space in the given direction
+	 * @param spaceIndex The index of the space
+	 * @param adjacencyZone The direction to look in
+	 * @return Returns the index of the neighboring space, or NO_NEIGHBOR if it would be off the board or the direction is AdjacencyZone.NONE
+	 */
+	public int getNeighbor(int spaceIndex, AdjacencyZone adjacencyZone) {
+		if (_neighbors != null) {
+			return _neighbors[spaceIndex * _ZONE_COUNT + adjacencyZone.ordinal()];
+		}
+
+		int column = getColumn(spaceIndex) + adjacencyZone.getColumnOffset();
+		int row = getRow(spaceIndex) + adjacencyZone.getRowOffset();
+		if (adjacencyZone == AdjacencyZone.NONE || spaceIndex == NO_NEIGHBOR || !isOnBoard(column, row)) {
+			return NO_NEIGHBOR;
+		}
+		return getSpaceIndex(column, row);
+	}
+}
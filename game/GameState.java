@@ -4,6 +4,7 @@ import connect4.enums.*;
 import connect4.events.*;
 import connect4.guis.*;
 import connect4.players.*;
+import connect4.telemetry.*;
 import java.util.*;
 
 /**
@@ -17,21 +18,64 @@ public class GameState {
 	public EventSource<GameStartedEventData> gameStarted;
 	public EventSource<GameOverEventData> gameEnded;
 
+	//The usual game: seven columns, six rows and four in a row
+	public static final int DEFAULT_COLUMNS = 7;
+	public static final int DEFAULT_ROWS = 6;
+	public static final int DEFAULT_CONNECT_LENGTH = 4;
+
 	//Required private values, each of which has some sort of getter.
+	private final int _columns, _rows, _connectLength;
 	private Board _board;
 	private Board _ghostBoard;
 	private boolean _isGameGoing;
 	private GhostBoardManager _ghostBoardManager;
 	private Map<PlayerID, Player> _players;
 	private PlayerID _currentPlayerID;
+
+	//The move handed to submitMove that the turn loop hasn't played yet, and whether the turn loop is already running further up the stack
+	private int _submittedColumn;
+	private boolean _isRunningTurns;
+
+	//The Flight Recorder event for the game in progress, null if there isn't one
+	private GameEvent _gameEvent;
 	
 	/**
-	 * Essentially just instantiates all of the required items for the game
+	 * Essentially just instantiates all of the required items for the usual 7x6 game of four in a row
 	 * @author Nate Celeste NTC14, Noah Crowley NWC17
 	 */
 	public GameState() {
+		this(DEFAULT_COLUMNS, DEFAULT_ROWS, DEFAULT_CONNECT_LENGTH);
+	}
+
+	/**
+	 * Instantiates all of the required items for a game on a board of the given size, with a human as player 1 and the AI as player 2
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @param connectLength The number of tokens in a row it takes to win
+	 */
+	public GameState(int columns, int rows, int connectLength) {
+		this(columns, rows, connectLength, PlayerType.HUMAN, PlayerType.COMPUTER);
+	}
+
+	/**
+	 * Instantiates all of the required items for a game on a board of the given size between the given kinds of players
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @param connectLength The number of tokens in a row it takes to win
+	 * @param player1Type The kind of Player for player 1
+	 * @param player2Type The kind of Player for player 2
+	 */
+	public GameState(int columns, int rows, int connectLength, PlayerType player1Type, PlayerType player2Type) {
+		if (columns < 1 || rows < 1 || connectLength < 2 || (connectLength > columns && connectLength > rows)) {
+			throw new IllegalArgumentException("A " + columns + "x" + rows + " board can't be played with " + connectLength + " in a row");
+		}
+		_columns = columns;
+		_rows = rows;
+		_connectLength = connectLength;
+
 		_board = new Board(this);
 		_ghostBoard = new Board(this);
+		_ghostBoard.setSearchMode(true); //Nobody listens to the ghost Board, so don't bother telling anyone about its moves
 
 		currentPlayerChanged = new EventSource<PlayerChangedEventData>();
 		gameStarted = new EventSource<GameStartedEventData>();
@@ -39,13 +83,38 @@ public class GameState {
 
 		_currentPlayerID = PlayerID.PLAYER1;
 		_isGameGoing = false;
+		_submittedColumn = Player.NO_MOVE;
 
-		_createPlayers();
+		_createPlayers(player1Type, player2Type);
 
 		_ghostBoardManager = new GhostBoardManager();
 		_board.spaceChanged.addListener(_ghostBoardManager);
 	}
 
+	/**
+	 * Gets the number of columns
+	 * @return Returns the number of columns
+	 */
+	public int getNumberOfColumns() {
+		return _columns;
+	}
+
+	/**
+	 * Gets the number of rows
+	 * @return Returns the number of rows
+	 */
+	public int getNumberOfRows() {
+		return _rows;
+	}
+
+	/**
+	 * Gets the number of tokens in a row it takes to win
+	 * @return Returns the connect length
+	 */
+	public int getConnectLength() {
+		return _connectLength;
+	}
+
 	/**
 	 * Determines whether a game is currently in progress
 	 * @return Returns true if the game is going, false if otherwise
@@ -96,52 +165,197 @@ public class GameState {
 	}
 
 	/**
-	 * Starts the game and fires the gameStarted event
+	 * Puts a Player in its seat, replacing whoever was there. Meant to be done before the game starts.
+	 * @param player The Player to seat, which goes wherever its PlayerID says
+	 */
+	public void setPlayer(Player player) {
+		if (player.getPlayerID() == PlayerID.NONE) {
+			throw new IllegalArgumentException("A Player needs to be player 1 or player 2");
+		}
+		_players.put(player.getPlayerID(), player);
+	}
+
+	/**
+	 * Starts the game and fires the gameStarted event, then plays turns until the game is over or it is waiting on a move to be submitted.
+	 * A game between two ComputerPlayers is played all the way through before this returns.
 	 */
 	public void startGame() {
+		_gameEvent = new GameEvent();
+		_gameEvent.begin();
 		_isGameGoing = true;
 		gameStarted.notifyListeners(null);
+		_runTurns();
+	}
+
+	/**
+	 * Throws the game in progress away and starts a new one from an empty Board, cancelling any move a Player is still working out.
+	 * The Board is emptied by taking every move back, so anything listening to it sees the spaces clear.
+	 */
+	public void restartGame() {
+		stopGame();
+		while (_board.undoMove() != -1) {
+		}
+		_currentPlayerID = PlayerID.PLAYER1;
+		startGame();
+	}
+
+	/**
+	 * Stops the game without anyone winning and without firing the gameEnded event, like when the window is closed. Any move a Player is still working out is cancelled.
+	 */
+	public void stopGame() {
+		_isGameGoing = false;
+		_submittedColumn = Player.NO_MOVE;
+		for (Player player : _players.values()) {
+			player.cancelMove();
+		}
+		_commitGameEvent("Stopped");
+	}
+
+	/**
+	 * Hands in a move for a Player that doesn't decide its moves in requestMove, like a HumanPlayer clicking a column, and then plays turns until the game is waiting again
+	 * @param playerID The PlayerID of the player making the move
+	 * @param column The column to drop a token into
+	 * @return Returns true if the move was accepted, false if the game isn't going, it isn't that player's turn, or the column can't be played
+	 */
+	public boolean submitMove(PlayerID playerID, int column) {
+		if (!_isGameGoing || playerID != _currentPlayerID || _submittedColumn != Player.NO_MOVE || !_canPlay(column)) {
+			return false;
+		}
+
+		_submittedColumn = column;
+		_runTurns();
+		return true;
 	}
 
 	/**
 	 * Ends the game and fires the gameEnded event
-	 * @param winnerPlayerID The PlayerID of the player who won the game
+	 * @param winnerPlayerID The PlayerID of the player who won the game, or PlayerID.NONE for a draw
 	 */
 	public void endGame(PlayerID winnerPlayerID) {
 		_isGameGoing = false;
+		_currentPlayerID = PlayerID.NONE;
+		_submittedColumn = Player.NO_MOVE;
+		for (Player player : _players.values()) { //Nobody needs to keep thinking, a ComputerPlayer could be pondering
+			player.cancelMove();
+		}
+		_commitGameEvent((winnerPlayerID == PlayerID.NONE) ? "Draw" : winnerPlayerID.toString());
 
 		GameOverEventData eventData = new GameOverEventData(winnerPlayerID);
 		gameEnded.notifyListeners(eventData);
 	}
 
 	/**
-	 * Sets the current player to the player who is next up.
+	 * Sets the current player to the player who is next up, or ends the game if the last move won it or filled the board.
+	 */
+	private void _goToNextPlayer() {
+		PlayerID winningPlayer = _board.checkForWinner();
+		if (winningPlayer != PlayerID.NONE) {
+			endGame(winningPlayer);
+			return;
+		}
+		if (_board.getMoveCount() == _board.getNumberOfSpaces()) { //Nowhere left to play, so it's a draw
+			endGame(PlayerID.NONE);
+			return;
+		}
+
+		_currentPlayerID = _currentPlayerID.getOppositePlayerID();
+
+		PlayerChangedEventData eventData = new PlayerChangedEventData(_currentPlayerID);
+		currentPlayerChanged.notifyListeners(eventData);
+	}
+
+	/**
+	 * The turn loop. Asks the current Player for its move, plays it and moves on to the next player, over and over, until the game ends or a Player has to wait for its move.
+	 * Everything happens in this one loop instead of each move calling the next, so the stack stays the same depth however long the game is.
+	 * Listeners that submit a move while the loop is running (say from a popup) just leave it for the loop to pick up.
 	 */
-	public void goToNextPlayer() {
-	    PlayerID winningPlayer = _board.checkForWinner();
-	    if(winningPlayer == PlayerID.NONE) {
+	private void _runTurns() {
+		if (_isRunningTurns) {
+			return;
+		}
 
-            if (_currentPlayerID == PlayerID.PLAYER1)
-                _currentPlayerID = PlayerID.PLAYER2;
-            else
-                _currentPlayerID = PlayerID.PLAYER1;
+		_isRunningTurns = true;
+		try {
+			while (_isGameGoing) {
+				int column = _submittedColumn;
+				_submittedColumn = Player.NO_MOVE;
+				if (column == Player.NO_MOVE) {
+					Player player = getCurrentPlayer();
+					column = player.requestMove(this);
+					if (column == Player.NO_MOVE) {
+						if (_submittedColumn != Player.NO_MOVE) { //The move was already submitted from inside requestMove, so go back around and play it
+							continue;
+						}
+						return; //Nothing to do until the move gets submitted
+					}
+					if (!_canPlay(column)) {
+						throw new IllegalStateException(_currentPlayerID + " tried to play in column " + column + ", which can't be played");
+					}
+				}
 
-            PlayerChangedEventData eventData = new PlayerChangedEventData(_currentPlayerID);
-            currentPlayerChanged.notifyListeners(eventData);
-        }
-        else {
-	        _currentPlayerID = PlayerID.NONE;
-            this.endGame(winningPlayer);
-        }
+				_board.dropToken(column, _currentPlayerID);
+				_goToNextPlayer();
+			}
+		} finally {
+			_isRunningTurns = false;
+		}
+	}
+
+	/**
+	 * Finishes the Flight Recorder event for the game in progress, if there is one. Only the first call after startGame does anything, so stopping a game that already ended isn't recorded twice.
+	 * @param result The winner, Draw or Stopped
+	 */
+	private void _commitGameEvent(String result) {
+		if (_gameEvent == null) {
+			return;
+		}
+
+		if (_gameEvent.shouldCommit()) {
+			_gameEvent.columns = _columns;
+			_gameEvent.rows = _rows;
+			_gameEvent.connectLength = _connectLength;
+			_gameEvent.moveCount = _board.getMoveCount();
+			_gameEvent.result = result;
+			_gameEvent.commit();
+		}
+		_gameEvent = null;
+	}
+
+	/**
+	 * Determines whether a token can be dropped into a column
+	 * @param column The column to check
+	 * @return Returns true if the column is on the board and isn't full
+	 */
+	private boolean _canPlay(int column) {
+		return column >= 0 && column < _columns && _board.getColumnHeight(column) < _rows;
 	}
 
 	/**
 	 * Creates the players, Player1 and Player2, and stores them in the _players Map.
+	 * @param player1Type The kind of Player for player 1
+	 * @param player2Type The kind of Player for player 2
 	 */
-	private void _createPlayers() {
+	private void _createPlayers(PlayerType player1Type, PlayerType player2Type) {
 		_players = new HashMap<PlayerID, Player>();
-		_players.put(PlayerID.PLAYER1, new HumanPlayer(PlayerID.PLAYER1));
-		_players.put(PlayerID.PLAYER2, new ComputerPlayer(this, PlayerID.PLAYER2));
+		_players.put(PlayerID.PLAYER1, _createPlayer(player1Type, PlayerID.PLAYER1));
+		_players.put(PlayerID.PLAYER2, _createPlayer(player2Type, PlayerID.PLAYER2));
+	}
+
+	/**
+	 * Creates a single Player of the given kind. A remote player talks over standard input and output, use setPlayer for anything else.
+	 * @param playerType The kind of Player to create
+	 * @param playerID The PlayerID of the new Player
+	 * @return Returns the new Player
+	 */
+	private Player _createPlayer(PlayerType playerType, PlayerID playerID) {
+		switch (playerType) {
+			case COMPUTER:
+				return new ComputerPlayer(this, playerID);
+			case REMOTE:
+				return new RemotePlayer(playerID, System.in, System.out);
+			default:
+				return new HumanPlayer(playerID);
+		}
 	}
 
 	/**
@@ -183,20 +397,41 @@ public class GameState {
 
 		@Override
 		public void handleNotification(Board.SpaceChangedEventData data){
-			Space space = _ghostBoard.getSpace(data.column, data.row);
-			space.setOwnerPlayerID(data.ownerPlayerID);
+			if (data.ownerPlayerID == PlayerID.NONE) {
+				_ghostBoard.undoMove();
+			}
+			else {
+				_ghostBoard.makeMove(data.column, data.ownerPlayerID);
+			}
 		}
 	}
 
 	/**
-	 * Starts everything up.
-	 * @param args Just the general args for a main method...Not used
+	 * Starts everything up. Without a human playing there's no GUI, the game is just played out and the result printed (unless a remote player is using the console).
+	 * @param args Optionally the number of columns, rows and tokens in a row it takes to win, then the kind of player 1 and player 2 (human, computer or remote), in that order.
+	 * Anything left out is the usual 7, 6 and 4, with a human against the computer.
 	 */
 	@SuppressWarnings("unused")
 	public static void main(String[] args){
-		GameState gameState = new GameState();
-		Connect4Gui gui = new Connect4Gui(gameState);
+		int columns = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_COLUMNS;
+		int rows = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_ROWS;
+		int connectLength = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_CONNECT_LENGTH;
+		PlayerType player1Type = (args.length > 3) ? PlayerType.fromString(args[3]) : PlayerType.HUMAN;
+		PlayerType player2Type = (args.length > 4) ? PlayerType.fromString(args[4]) : PlayerType.COMPUTER;
+
+		GameState gameState = new GameState(columns, rows, connectLength, player1Type, player2Type);
+		if (player1Type == PlayerType.HUMAN || player2Type == PlayerType.HUMAN) {
+			Connect4Gui gui = new Connect4Gui(gameState);
+			gameState.startGame();
+			return;
+		}
+
 		gameState.startGame();
+		if (player1Type != PlayerType.REMOTE && player2Type != PlayerType.REMOTE) {
+			PlayerID winner = gameState.getBoard().checkForWinner();
+			String result = (winner == PlayerID.NONE) ? "It's a draw" : winner + " won";
+			System.out.println(result + " after " + gameState.getBoard().getMoveCount() + " moves");
+		}
 	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,314 @@
+package connect4.game;
+
+import connect4.enums.*;
+import java.util.*;
+
+/**
+ * This class is a Position for boards too big to fit in a BitBoard (like 9x7, or 10x10 with five in a row), but still small enough to keep a WinningLines table for.
+ * The owner of every space is kept in a plain array numbered the same way as WinningLines spaces, next to the height of every column.
+ * Wins and scores come from the LineCounter just like they do for a BitBoard, and the key is a Zobrist hash that is updated as tokens come and go,
+ * so nothing a search does to a GridPosition ever has to look at the whole board.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class GridPosition implements Position {
+
+	//The same seed every time, so a position always has the same key
+	private static final long _ZOBRIST_SEED = 0x436F6E6E65637434L;
+
+	//Owners as they are stored in _owners
+	private static final byte _EMPTY = 0;
+	private static final byte _PLAYER1 = 1;
+	private static final byte _PLAYER2 = 2;
+
+	//The dimensions of the board and how many tokens in a row it takes to win
+	private final int _columns, _rows, _connectLength;
+
+	//The lines of the board, which also decide how spaces are numbered
+	private final WinningLines _winningLines;
+
+	//A random number for every space and player, XORed into the key while the player has a token there. Never changes, so copies share it.
+	private final long[] _zobristKeys;
+
+	//The owner of every space, the number of tokens in every column, and the number of tokens on the board
+	private final byte[] _owners;
+	private final int[] _columnHeights;
+	private int _moveCount;
+
+	//The Zobrist key of the position as it stands
+	private long _key;
+
+	//Every player's token count in every line
+	private final LineCounter _lineCounter;
+
+	/**
+	 * Creates an empty GridPosition with the given dimensions and connect length
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @param connectLength The number of tokens in a row it takes to win
+	 */
+	public GridPosition(int columns, int rows, int connectLength) {
+		if (columns <= 0 || rows <= 0) {
+			throw new IllegalArgumentException("A board needs at least one column and one row");
+		}
+		_columns = columns;
+		_rows = rows;
+		_connectLength = connectLength;
+		_winningLines = WinningLines.get(columns, rows, connectLength);
+
+		_owners = new byte[_winningLines.getSpaceCount()];
+		_columnHeights = new int[columns];
+		_lineCounter = new LineCounter(_winningLines);
+
+		_zobristKeys = new long[_owners.length * 2];
+		Random random = new Random(_ZOBRIST_SEED);
+		for (int i = 0; i < _zobristKeys.length; i++) {
+			_zobristKeys[i] = random.nextLong();
+		}
+	}
+
+	/**
+	 * Creates a copy of another GridPosition
+	 * @param gridPosition The GridPosition to copy
+	 */
+	public GridPosition(GridPosition gridPosition) {
+		_columns = gridPosition._columns;
+		_rows = gridPosition._rows;
+		_connectLength = gridPosition._connectLength;
+		_winningLines = gridPosition._winningLines;
+		_zobristKeys = gridPosition._zobristKeys;
+
+		_owners = new byte[gridPosition._owners.length];
+		_columnHeights = new int[_columns];
+		_lineCounter = new LineCounter(_winningLines);
+		copyFrom(gridPosition);
+	}
+
+	@Override
+	public Position copy() {
+		return new GridPosition(this);
+	}
+
+	/**
+	 * Overwrites this GridPosition with another GridPosition of the same dimensions
+	 * @param position The GridPosition to copy the position from
+	 */
+	@Override
+	public void copyFrom(Position position) {
+		if (!(position instanceof GridPosition)) {
+			throw new IllegalArgumentException("A GridPosition can only copy another GridPosition");
+		}
+		GridPosition gridPosition = (GridPosition) position;
+		if (gridPosition._winningLines != _winningLines) { //Tables are shared per size and connect length, so this is the same as comparing all three
+			throw new IllegalArgumentException("Cannot copy a GridPosition of different dimensions");
+		}
+		System.arraycopy(gridPosition._owners, 0, _owners, 0, _owners.length);
+		System.arraycopy(gridPosition._columnHeights, 0, _columnHeights, 0, _columns);
+		_moveCount = gridPosition._moveCount;
+		_key = gridPosition._key;
+		_lineCounter.copyFrom(gridPosition._lineCounter);
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(_owners, _EMPTY);
+		Arrays.fill(_columnHeights, 0);
+		_moveCount = 0;
+		_key = 0L;
+		_lineCounter.clear();
+	}
+
+	@Override
+	public int getNumberOfColumns() {
+		return _columns;
+	}
+
+	@Override
+	public int getNumberOfRows() {
+		return _rows;
+	}
+
+	@Override
+	public long getNumberOfSpaces() {
+		return (long) _columns * _rows;
+	}
+
+	@Override
+	public int getConnectLength() {
+		return _connectLength;
+	}
+
+	@Override
+	public int getMoveCount() {
+		return _moveCount;
+	}
+
+	@Override
+	public long getKey() {
+		return _key;
+	}
+
+	@Override
+	public PlayerID getOwnerPlayerID(int column, int row) {
+		return _toPlayerID(_owners[_getSpaceIndex(column, row)]);
+	}
+
+	/**
+	 * Sets the owner of a single space without any regard for gravity. Only meant for keeping views of the board in sync.
+	 * @param column The column of the space
+	 * @param row The row of the space, where row 0 is the top of the board
+	 * @param playerID The PlayerID of the new owner, PlayerID.NONE will empty the space
+	 */
+	@Override
+	public void setOwnerPlayerID(int column, int row, PlayerID playerID) {
+		int spaceIndex = _getSpaceIndex(column, row);
+		if (_owners[spaceIndex] != _EMPTY) {
+			_removeToken(spaceIndex);
+		}
+		if (playerID != PlayerID.NONE) {
+			_addToken(spaceIndex, playerID == PlayerID.PLAYER1);
+		}
+
+		//The height is wherever the highest token in the column is now, since tokens set this way don't have to be stacked
+		int height = _rows;
+		while (height > 0 && _owners[_winningLines.getSpaceIndex(column, height - 1)] == _EMPTY) {
+			height--;
+		}
+		_columnHeights[column] = height;
+	}
+
+	@Override
+	public int getColumnHeight(int column) {
+		return _columnHeights[column];
+	}
+
+	@Override
+	public boolean canPlay(int column) {
+		return _columnHeights[column] < _rows;
+	}
+
+	@Override
+	public int getCandidateColumns(int[] columns) {
+		int count = 0;
+		for (int column = 0; column < _columns; column++) {
+			if (_columnHeights[column] < _rows) {
+				columns[count++] = column;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int getCandidateCapacity() {
+		return _columns;
+	}
+
+	@Override
+	public int play(int column, PlayerID playerID) {
+		int height = _columnHeights[column];
+		if (height >= _rows || playerID == PlayerID.NONE) {
+			return -1;
+		}
+
+		_addToken(_winningLines.getSpaceIndex(column, height), playerID == PlayerID.PLAYER1);
+		_columnHeights[column] = height + 1;
+		return _rows - 1 - height;
+	}
+
+	@Override
+	public boolean undo(int column) {
+		int height = _columnHeights[column];
+		if (height == 0) {
+			return false;
+		}
+
+		_removeToken(_winningLines.getSpaceIndex(column, height - 1));
+		_columnHeights[column] = height - 1;
+		return true;
+	}
+
+	@Override
+	public boolean isWinningMove(int column, PlayerID playerID) {
+		int height = _columnHeights[column];
+		if (height >= _rows || playerID == PlayerID.NONE) {
+			return false;
+		}
+		return _lineCounter.wouldCompleteLine(_winningLines.getSpaceIndex(column, height), playerID == PlayerID.PLAYER1);
+	}
+
+	@Override
+	public boolean isWinningSpace(int column, int row) {
+		int spaceIndex = _getSpaceIndex(column, row);
+		byte owner = _owners[spaceIndex];
+		if (owner == _EMPTY) {
+			return false;
+		}
+		return _lineCounter.isLineCompleteThrough(spaceIndex, owner == _PLAYER1);
+	}
+
+	@Override
+	public PlayerID findWinner() {
+		return _lineCounter.findWinner();
+	}
+
+	@Override
+	public int getLineScore(PlayerID playerID) {
+		return _lineCounter.getLineScore(playerID);
+	}
+
+	/**
+	 * Gets the LineCounter keeping count of every player's tokens in every line
+	 * @return Returns the LineCounter of this GridPosition
+	 */
+	public LineCounter getLineCounter() {
+		return _lineCounter;
+	}
+
+	/**
+	 * Puts a token on an empty space, keeping the key and the line counts up to date. The column height is left to the caller.
+	 * @param spaceIndex The WinningLines index of the space
+	 * @param isPlayer1 Whether the token belongs to player 1
+	 */
+	private void _addToken(int spaceIndex, boolean isPlayer1) {
+		_owners[spaceIndex] = isPlayer1 ? _PLAYER1 : _PLAYER2;
+		_key ^= _zobristKeys[spaceIndex * 2 + (isPlayer1 ? 0 : 1)];
+		_lineCounter.addToken(spaceIndex, isPlayer1);
+		_moveCount++;
+	}
+
+	/**
+	 * Takes the token off of a space, keeping the key and the line counts up to date. The column height is left to the caller.
+	 * @param spaceIndex The WinningLines index of the space, which must not be empty
+	 */
+	private void _removeToken(int spaceIndex) {
+		boolean isPlayer1 = (_owners[spaceIndex] == _PLAYER1);
+		_owners[spaceIndex] = _EMPTY;
+		_key ^= _zobristKeys[spaceIndex * 2 + (isPlayer1 ? 0 : 1)];
+		_lineCounter.removeToken(spaceIndex, isPlayer1);
+		_moveCount--;
+	}
+
+	/**
+	 * Gets the WinningLines index of a space given in Board coordinates
+	 * @param column The column of the space
+	 * @param row The row of the space, where row 0 is the top of the board
+	 * @return Returns the index of the space
+	 */
+	private int _getSpaceIndex(int column, int row) {
+		return _winningLines.getSpaceIndex(column, _rows - 1 - row);
+	}
+
+	/**
+	 * Turns a stored owner back into a PlayerID
+	 * @param owner The owner as stored in _owners
+	 * @return Returns the matching PlayerID
+	 */
+	private static PlayerID _toPlayerID(byte owner) {
+		if (owner == _PLAYER1) {
+			return PlayerID.PLAYER1;
+		}
+		if (owner == _PLAYER2) {
+			return PlayerID.PLAYER2;
+		}
+		return PlayerID.NONE;
+	}
+}
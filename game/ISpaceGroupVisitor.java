@@ -0,0 +1,22 @@
+package connect4.game;
+
+import connect4.enums.*;
+
+/**
+ * This interface is used to walk through the SpaceGroups on a Board one at a time with BoardAnalyzer.visitSpaceGroups, without creating a SpaceGroup object for each one
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public interface ISpaceGroupVisitor {
+
+	/**
+	 * To be implemented to look at a single group of connected Spaces owned by the same player
+	 * @param column The column of the first Space in the group
+	 * @param row The row of the first Space in the group
+	 * @param adjacencyZone The positive AdjacencyZone the group runs in from its first Space
+	 * @param length The number of Spaces in the group
+	 * @param ownerPlayerID The PlayerID of the owner of every Space in the group
+	 * @return Return true to keep going, or false to stop looking at groups right away
+	 */
+	public boolean visitSpaceGroup(int column, int row, AdjacencyZone adjacencyZone, int length, PlayerID ownerPlayerID);
+
+}
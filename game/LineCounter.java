@@ -0,0 +1,218 @@
+package connect4.game;
+
+import connect4.enums.*;
+import java.util.*;
+
+/**
+ * This class counts each player's tokens in every line of a WinningLines table as tokens come and go.
+ * From those counts it keeps a running score of the position and the number of lines each player has completed, so a win is spotted the moment a count reaches the connect length.
+ * Every Position keeps one of these, and it only ever touches the lines through the space that changed.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class LineCounter {
+
+	//The lines being counted
+	private final WinningLines _winningLines;
+	private final int _connectLength;
+
+	//Every player's token count in every line, the lines each player has completed, and the sum of the line weights from player 1's point of view
+	private final byte[] _player1LineCounts, _player2LineCounts;
+	private int _player1CompletedLines, _player2CompletedLines;
+	private int _lineScore;
+
+	/**
+	 * Creates a new LineCounter with every count at 0
+	 * @param winningLines The lines to count
+	 */
+	public LineCounter(WinningLines winningLines) {
+		_winningLines = winningLines;
+		_connectLength = winningLines.getConnectLength();
+		_player1LineCounts = new byte[winningLines.getLineCount()];
+		_player2LineCounts = new byte[winningLines.getLineCount()];
+	}
+
+	/**
+	 * Overwrites every count with the counts of another LineCounter for the same lines
+	 * @param lineCounter The LineCounter to copy
+	 */
+	public void copyFrom(LineCounter lineCounter) {
+		System.arraycopy(lineCounter._player1LineCounts, 0, _player1LineCounts, 0, _player1LineCounts.length);
+		System.arraycopy(lineCounter._player2LineCounts, 0, _player2LineCounts, 0, _player2LineCounts.length);
+		_player1CompletedLines = lineCounter._player1CompletedLines;
+		_player2CompletedLines = lineCounter._player2CompletedLines;
+		_lineScore = lineCounter._lineScore;
+	}
+
+	/**
+	 * Sets every count back to 0
+	 */
+	public void clear() {
+		Arrays.fill(_player1LineCounts, (byte) 0);
+		Arrays.fill(_player2LineCounts, (byte) 0);
+		_player1CompletedLines = 0;
+		_player2CompletedLines = 0;
+		_lineScore = 0;
+	}
+
+	/**
+	 * Gets the lines being counted
+	 * @return Returns the WinningLines
+	 */
+	public WinningLines getWinningLines() {
+		return _winningLines;
+	}
+
+	/**
+	 * Gets the number of tokens the given player has in a line
+	 * @param line The index of the line in the WinningLines
+	 * @param playerID The PlayerID of the player
+	 * @return Returns the number of the player's tokens in the line
+	 */
+	public int getLineCount(int line, PlayerID playerID) {
+		if (playerID == PlayerID.PLAYER1) {
+			return _player1LineCounts[line];
+		}
+		if (playerID == PlayerID.PLAYER2) {
+			return _player2LineCounts[line];
+		}
+		return 0;
+	}
+
+	/**
+	 * Determines whether the given player has completed any line, i.e. has won
+	 * @param playerID The PlayerID of the player
+	 * @return Returns true if the player has a complete line anywhere
+	 */
+	public boolean hasCompletedLine(PlayerID playerID) {
+		if (playerID == PlayerID.PLAYER1) {
+			return _player1CompletedLines > 0;
+		}
+		if (playerID == PlayerID.PLAYER2) {
+			return _player2CompletedLines > 0;
+		}
+		return false;
+	}
+
+	/**
+	 * Finds a player that has completed a line
+	 * @return Returns the PlayerID of a player with a complete line, PlayerID.NONE if there is none
+	 */
+	public PlayerID findWinner() {
+		if (_player1CompletedLines > 0) {
+			return PlayerID.PLAYER1;
+		}
+		if (_player2CompletedLines > 0) {
+			return PlayerID.PLAYER2;
+		}
+		return PlayerID.NONE;
+	}
+
+	/**
+	 * Gets the running score of the lines for the given player: every line only the player has tokens in is worth its WinningLines weight, minus the same for the other player
+	 * @param playerID The PlayerID of the player to score the position for
+	 * @return Returns the player's line score minus the opposing player's line score
+	 */
+	public int getLineScore(PlayerID playerID) {
+		return (playerID == PlayerID.PLAYER2) ? -_lineScore : _lineScore;
+	}
+
+	/**
+	 * Determines whether a line through the given space is complete for the given player
+	 * @param spaceIndex The WinningLines index of the space
+	 * @param isPlayer1 Whether to look at player 1's counts
+	 * @return Returns true if one of the lines through the space is complete
+	 */
+	public boolean isLineCompleteThrough(int spaceIndex, boolean isPlayer1) {
+		byte[] lineCounts = isPlayer1 ? _player1LineCounts : _player2LineCounts;
+		for (int line : _winningLines.getLinesThroughSpace(spaceIndex)) {
+			if (lineCounts[line] == _connectLength) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determines whether a token placed on the given space would complete a line for the given player
+	 * @param spaceIndex The WinningLines index of the empty space
+	 * @param isPlayer1 Whether the token would belong to player 1
+	 * @return Returns true if the token would win
+	 */
+	public boolean wouldCompleteLine(int spaceIndex, boolean isPlayer1) {
+		byte[] lineCounts = isPlayer1 ? _player1LineCounts : _player2LineCounts;
+		for (int line : _winningLines.getLinesThroughSpace(spaceIndex)) {
+			if (lineCounts[line] == _connectLength - 1) { //The other player can't have a token in the line, or it wouldn't have room for ours
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Counts a new token in every line through its space, updating the line score as it goes
+	 * @param spaceIndex The WinningLines index of the token's space
+	 * @param isPlayer1 Whether the token belongs to player 1
+	 */
+	public void addToken(int spaceIndex, boolean isPlayer1) {
+		byte[] ownCounts = isPlayer1 ? _player1LineCounts : _player2LineCounts;
+		byte[] otherCounts = isPlayer1 ? _player2LineCounts : _player1LineCounts;
+		int scoreChange = 0;
+
+		for (int line : _winningLines.getLinesThroughSpace(spaceIndex)) {
+			int own = ownCounts[line];
+			int other = otherCounts[line];
+			if (own == 0 && other > 0) { //The line was the other player's, and now it's nobody's
+				scoreChange += _winningLines.getLineWeight(other);
+			}
+			else if (other == 0) { //Still just ours, and worth more
+				scoreChange += _winningLines.getLineWeight(own + 1) - _winningLines.getLineWeight(own);
+			}
+			ownCounts[line] = (byte) (own + 1);
+
+			if (own + 1 == _connectLength) {
+				if (isPlayer1) {
+					_player1CompletedLines++;
+				}
+				else {
+					_player2CompletedLines++;
+				}
+			}
+		}
+
+		_lineScore += isPlayer1 ? scoreChange : -scoreChange;
+	}
+
+	/**
+	 * Takes a token back out of every line through its space, exactly undoing addToken
+	 * @param spaceIndex The WinningLines index of the token's space
+	 * @param isPlayer1 Whether the token belongs to player 1
+	 */
+	public void removeToken(int spaceIndex, boolean isPlayer1) {
+		byte[] ownCounts = isPlayer1 ? _player1LineCounts : _player2LineCounts;
+		byte[] otherCounts = isPlayer1 ? _player2LineCounts : _player1LineCounts;
+		int scoreChange = 0;
+
+		for (int line : _winningLines.getLinesThroughSpace(spaceIndex)) {
+			int own = ownCounts[line];
+			int other = otherCounts[line];
+			if (own == 1 && other > 0) { //The line goes back to being the other player's
+				scoreChange -= _winningLines.getLineWeight(other);
+			}
+			else if (other == 0) {
+				scoreChange -= _winningLines.getLineWeight(own) - _winningLines.getLineWeight(own - 1);
+			}
+			ownCounts[line] = (byte) (own - 1);
+
+			if (own == _connectLength) {
+				if (isPlayer1) {
+					_player1CompletedLines--;
+				}
+				else {
+					_player2CompletedLines--;
+				}
+			}
+		}
+
+		_lineScore += isPlayer1 ? scoreChange : -scoreChange;
+	}
+}
@@ -0,0 +1,155 @@
+package connect4.game;
+
+import connect4.enums.*;
+
+/**
+ * This interface is what the AI searches on: the tokens on a board of any size, with just the operations a search needs.
+ * BitBoard is the fast one for boards that fit in a long, GridPosition handles everything bigger, and SparsePosition the really big boards where only the tokens played are stored.
+ * Every one of them keeps its line score up to date as tokens come and go, so playing a token, checking for a win and scoring the position only ever look at the lines through one space, no matter how big the board is.
+ * Note that rows follow the Board convention, so row 0 is the top of the Board.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public interface Position {
+
+	/**
+	 * Gets the number of columns
+	 * @return Returns the number of columns
+	 */
+	public int getNumberOfColumns();
+
+	/**
+	 * Gets the number of rows
+	 * @return Returns the number of rows
+	 */
+	public int getNumberOfRows();
+
+	/**
+	 * Gets the number of spaces on the board. It's a long since a sparse board can have more spaces than an int can count.
+	 * @return Returns the number of columns times the number of rows
+	 */
+	public long getNumberOfSpaces();
+
+	/**
+	 * Gets the number of tokens in a row it takes to win
+	 * @return Returns the connect length
+	 */
+	public int getConnectLength();
+
+	/**
+	 * Gets the number of tokens that have been placed
+	 * @return Returns the number of tokens on the board
+	 */
+	public int getMoveCount();
+
+	/**
+	 * Gets a key that identifies this position, which is the same for the same tokens no matter what order they were played in
+	 * @return Returns the key of this position
+	 */
+	public long getKey();
+
+	/**
+	 * Gets the PlayerID of the owner of the given space
+	 * @param column The column of the space
+	 * @param row The row of the space, where row 0 is the top of the board
+	 * @return Returns the PlayerID of the owner, PlayerID.NONE if the space is empty
+	 */
+	public PlayerID getOwnerPlayerID(int column, int row);
+
+	/**
+	 * Sets the owner of a single space without any regard for gravity. Only meant for keeping views of the board in sync.
+	 * @param column The column of the space
+	 * @param row The row of the space, where row 0 is the top of the board
+	 * @param playerID The PlayerID of the new owner, PlayerID.NONE will empty the space
+	 */
+	public void setOwnerPlayerID(int column, int row, PlayerID playerID);
+
+	/**
+	 * Gets the number of tokens in the given column
+	 * @param column The column
+	 * @return Returns the number of tokens in the column
+	 */
+	public int getColumnHeight(int column);
+
+	/**
+	 * Determines whether a token can be dropped into the given column
+	 * @param column The column
+	 * @return Returns true if the column is not full
+	 */
+	public boolean canPlay(int column);
+
+	/**
+	 * Fills the given array with the playable columns a search has to look at. That's every playable column, from left to right, except on a SparsePosition,
+	 * where it's only the columns close enough to a token to win or block anything, so the search grows with the tokens played instead of the width of the board.
+	 * @param columns The array to fill, which has to have room for getCandidateCapacity columns
+	 * @return Returns the number of columns put in the array
+	 */
+	public int getCandidateColumns(int[] columns);
+
+	/**
+	 * Gets the most columns getCandidateColumns could put in its array right now, so callers only need arrays as big as the candidates and not the whole board
+	 * @return Returns the number of columns on the board, or on a SparsePosition the number of candidate columns
+	 */
+	public int getCandidateCapacity();
+
+	/**
+	 * Drops a token for the given player into the given column
+	 * @param column The column to drop the token into
+	 * @param playerID The PlayerID of the player dropping the token
+	 * @return Returns the row the token landed on, or -1 if the column was full
+	 */
+	public int play(int column, PlayerID playerID);
+
+	/**
+	 * Removes the top token of the given column
+	 * @param column The column to remove the token from
+	 * @return Returns true if a token was removed, false if the column was empty
+	 */
+	public boolean undo(int column);
+
+	/**
+	 * Determines whether dropping a token into the given column would win the game for the given player
+	 * @param column The column
+	 * @param playerID The PlayerID of the player
+	 * @return Returns true if the move would complete a line for the player
+	 */
+	public boolean isWinningMove(int column, PlayerID playerID);
+
+	/**
+	 * Determines whether the token at the given space is part of a complete line
+	 * @param column The column of the space
+	 * @param row The row of the space, where row 0 is the top of the board
+	 * @return Returns true if the owner of the space has a complete line through it, false if it doesn't or the space is empty
+	 */
+	public boolean isWinningSpace(int column, int row);
+
+	/**
+	 * Finds a player that has completed a line anywhere on the board
+	 * @return Returns the PlayerID of a player with a complete line, PlayerID.NONE if there is none
+	 */
+	public PlayerID findWinner();
+
+	/**
+	 * Gets the running score of the lines for the given player: every line only the player has tokens in is worth its WinningLines weight, minus the same for the other player
+	 * @param playerID The PlayerID of the player to score the position for
+	 * @return Returns the player's line score minus the opposing player's line score
+	 */
+	public int getLineScore(PlayerID playerID);
+
+	/**
+	 * Creates a copy of this position of the same kind
+	 * @return Returns the copy
+	 */
+	public Position copy();
+
+	/**
+	 * Overwrites this position with another position of the same kind and size
+	 * @param position The position to copy
+	 */
+	public void copyFrom(Position position);
+
+	/**
+	 * Removes every token
+	 */
+	public void clear();
+
+}
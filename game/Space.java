@@ -4,26 +4,26 @@ import connect4.enums.*;
 
 /**
  * This class is the primary Node and Graph piece of the entire game structure
- * This class will contain a BoardCoordinate and a PlayerID to keep track of its own state
- * It will also keep a reference to its parent Board so as to find neighboring Space objects
+ * This class will contain a BoardCoordinate to keep track of its own position
+ * It will also keep a reference to its parent Board, which holds the actual owner of this Space in its Position, so as to find neighboring Space objects
  * @author Nate Celeste NTC14, Noah Crowley NWC17
  */
 public class Space {
 
 	//Variables used to store the information needed to fulfill its functions
 	private Board _board;
-	private PlayerID _ownerPlayerID;
 	private BoardCoordinate _boardCoordinate;
+	private int _spaceIndex; //Where this Space is in the Board's BoardGeometry
 	
 	/**
-	 * Creates a Space at the given BoardCoordinate with an ownerPlayerID of PlayerID.NONE
+	 * Creates a Space at the given BoardCoordinate. Its owner is whatever the Board says is at that BoardCoordinate.
 	 * @param board The Board this Space will be associated with
 	 * @param boardCoordinate The BoardCoordinate representing the position of this Space on its parent Board
 	 */
 	public Space(Board board, BoardCoordinate boardCoordinate) {
 		_board = board;
 		_boardCoordinate = boardCoordinate;
-		_ownerPlayerID = PlayerID.NONE;
+		_spaceIndex = board.getGeometry().getSpaceIndex(boardCoordinate.getColumn(), boardCoordinate.getRow());
 	}
 	
 	/**
@@ -39,7 +39,7 @@ public class Space {
 	 * @return Returns the PlayerID of the Player who owns this Space, PlayerID.NONE if no one owns it
 	 */
 	public PlayerID getOwnerPlayerID() {
-		return _ownerPlayerID;
+		return _board.getOwnerPlayerID(_boardCoordinate.getColumn(), _boardCoordinate.getRow());
 	}
 	
 	/**
@@ -47,7 +47,7 @@ public class Space {
 	 * @param playerID The PlayerID of the new owner of this Space. Passing in PlayerID.NONE will make this space empty.
 	 */
 	public void setOwnerPlayerID(PlayerID playerID) {
-		_ownerPlayerID = playerID;
+		_board.setOwnerPlayerID(_boardCoordinate.getColumn(), _boardCoordinate.getRow(), playerID);
 	}
 	
 	/**
@@ -55,16 +55,25 @@ public class Space {
 	 * @return Returns true if the owner PlayerID of this Space is PlayerID.NONE, false otherwise
 	 */
 	public boolean isEmpty() {
-		return _ownerPlayerID == PlayerID.NONE;
+		return getOwnerPlayerID() == PlayerID.NONE;
 	}
 
 	/**
 	 * Gets the BoardCoordinate in the given direction of the provided AdjacencyZone.
+	 * Coordinates on the Board are the shared ones from its BoardGeometry, only coordinates that fall off the Board are created new.
 	 * @param adjacencyZone The AdjacencyZone used to determine which direction to get the adjacent BoardCoordinate
 	 * @return Returns a BoardCoordinate that is offset by the AdjacencyZone's direction
 	 */
 	public BoardCoordinate getAdjacentBoardCoordinate(AdjacencyZone adjacencyZone) {
-		return _boardCoordinate.add(adjacencyZone.getOffsetBoardCoordinate());
+		BoardGeometry boardGeometry = _board.getGeometry();
+		int neighbor = boardGeometry.getNeighbor(_spaceIndex, adjacencyZone);
+		if (neighbor != BoardGeometry.NO_NEIGHBOR) {
+			return boardGeometry.getBoardCoordinate(neighbor);
+		}
+		if (adjacencyZone == AdjacencyZone.NONE) {
+			return _boardCoordinate;
+		}
+		return _boardCoordinate.add(adjacencyZone.getOffsetBoardCoordinate()); //Off the board, so there is nothing to share
 	}
 
 	/**
@@ -73,19 +82,13 @@ public class Space {
 	 * @return Returns the adjacent Space in the direction of the AdjacencyZone, returns null if no Space exists in that direction
 	 */
 	public Space getAdjacentSpace(AdjacencyZone adjacencyZone) {
-		if (adjacencyZone == AdjacencyZone.NONE) {
-			return null;
-		}
-
-		BoardCoordinate adjacentSpaceBoardCoordinate = getAdjacentBoardCoordinate(adjacencyZone);
-		int adjacentColumn = adjacentSpaceBoardCoordinate.getColumn();
-		int adjacentRow = adjacentSpaceBoardCoordinate.getRow();
+		int neighbor = _board.getGeometry().getNeighbor(_spaceIndex, adjacencyZone); //Already NO_NEIGHBOR for AdjacencyZone.NONE and off the board
 
-		if (adjacentColumn < 0 || adjacentColumn >= _board.getNumberOfColumns() || adjacentRow < 0 || adjacentRow >= _board.getNumberOfRows()) {
+		if (neighbor == BoardGeometry.NO_NEIGHBOR) {
 			return null;
 		}
 
-		Space adjacentSpace = _board.getSpace(adjacentColumn, adjacentRow);
+		Space adjacentSpace = _board.getSpace(neighbor);
 		return adjacentSpace;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,284 @@
+package connect4.game;
+
+import connect4.enums.*;
+import java.util.*;
+
+/**
+ * This class keeps track of every SpaceGroup on a Board as tokens come and go, instead of finding them all again from scratch.
+ * A single token can only extend, join or split the groups running through its own Space, so adding or removing one only touches those (at most four) groups.
+ * For every positive AdjacencyZone it remembers which group each Space belongs to and how long each group is, and for each player it keeps a set of their groups
+ * that can be walked without looking at the rest of the Board. A group here is the same thing getSpaceGroups finds: its first Space, its direction and its length.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class SpaceGroupIndex {
+
+	//Used in place of a Space index when there isn't one
+	private static final int _NONE = -1;
+
+	//The directions groups run in, shared with AdjacencyZone
+	private static final AdjacencyZone[] _directions = AdjacencyZone.getPositiveAdjacencyZones();
+
+	//The shape of the board and who owns each Space, as far as this index knows
+	private final BoardGeometry _geometry;
+	private final PlayerID[] _owners;
+
+	//For each direction: the first Space of the group each Space is in (_NONE if it's empty), and the length of each group, stored at its first Space
+	private final int[][] _groupStarts;
+	private final int[][] _groupLengths;
+
+	//For each player, a set of their groups. A group is numbered (direction * number of Spaces + first Space).
+	//The positions array says where each group is in the set, so groups can be added and removed in constant time.
+	private final int[][] _playerGroups;
+	private final int[][] _playerGroupPositions;
+	private final int[] _playerGroupCounts;
+
+	/**
+	 * Creates a new, empty SpaceGroupIndex for a board with the given BoardGeometry
+	 * @param geometry The BoardGeometry of the Board
+	 */
+	public SpaceGroupIndex(BoardGeometry geometry) {
+		_geometry = geometry;
+		int spaces = geometry.getNumberOfSpaces();
+
+		_owners = new PlayerID[spaces];
+		_groupStarts = new int[_directions.length][spaces];
+		_groupLengths = new int[_directions.length][spaces];
+
+		_playerGroups = new int[2][_directions.length * spaces];
+		_playerGroupPositions = new int[2][_directions.length * spaces];
+		_playerGroupCounts = new int[2];
+
+		clear();
+	}
+
+	/**
+	 * Forgets every group
+	 */
+	public void clear() {
+		Arrays.fill(_owners, PlayerID.NONE);
+		for (int direction = 0; direction < _directions.length; direction++) {
+			Arrays.fill(_groupStarts[direction], _NONE);
+			Arrays.fill(_groupLengths[direction], 0);
+		}
+		for (int player = 0; player < 2; player++) {
+			Arrays.fill(_playerGroupPositions[player], _NONE);
+			_playerGroupCounts[player] = 0;
+		}
+	}
+
+	/**
+	 * Lets the index know a token was placed, extending or joining the groups next to it
+	 * @param spaceIndex The BoardGeometry index of the Space, which must have been empty
+	 * @param playerID The PlayerID of the owner of the token
+	 */
+	public void addToken(int spaceIndex, PlayerID playerID) {
+		_owners[spaceIndex] = playerID;
+
+		for (int direction = 0; direction < _directions.length; direction++) {
+			AdjacencyZone adjacencyZone = _directions[direction];
+			int[] groupStarts = _groupStarts[direction];
+			int[] groupLengths = _groupLengths[direction];
+
+			//Join the group behind this Space, if it's ours
+			int start = spaceIndex;
+			int length = 1;
+			int previousSpace = _geometry.getNeighbor(spaceIndex, adjacencyZone.getOppositeAdjacencyZone());
+			if (getOwnerPlayerID(previousSpace) == playerID) {
+				start = groupStarts[previousSpace];
+				length += groupLengths[start];
+				_removeGroup(playerID, direction, start);
+			}
+			groupStarts[spaceIndex] = start;
+
+			//Then swallow the group in front of it, if that one is ours too
+			int nextSpace = _geometry.getNeighbor(spaceIndex, adjacencyZone);
+			if (getOwnerPlayerID(nextSpace) == playerID) {
+				int nextLength = groupLengths[nextSpace];
+				_removeGroup(playerID, direction, nextSpace);
+				groupLengths[nextSpace] = 0;
+				for (int i = 0; i < nextLength; i++, nextSpace = _geometry.getNeighbor(nextSpace, adjacencyZone)) {
+					groupStarts[nextSpace] = start;
+				}
+				length += nextLength;
+			}
+
+			groupLengths[start] = length;
+			_addGroup(playerID, direction, start);
+		}
+	}
+
+	/**
+	 * Lets the index know a token was taken away, shortening or splitting the groups it was in
+	 * @param spaceIndex The BoardGeometry index of the Space, which must have had a token
+	 */
+	public void removeToken(int spaceIndex) {
+		PlayerID playerID = _owners[spaceIndex];
+		if (playerID == PlayerID.NONE) {
+			return;
+		}
+
+		for (int direction = 0; direction < _directions.length; direction++) {
+			AdjacencyZone adjacencyZone = _directions[direction];
+			int[] groupStarts = _groupStarts[direction];
+			int[] groupLengths = _groupLengths[direction];
+
+			int start = groupStarts[spaceIndex];
+			int length = groupLengths[start];
+			_removeGroup(playerID, direction, start);
+			groupLengths[start] = 0;
+
+			//Count how far into the group this Space is
+			int before = 0;
+			for (int space = start; space != spaceIndex; space = _geometry.getNeighbor(space, adjacencyZone)) {
+				before++;
+			}
+
+			//Whatever was in front of this Space keeps going as its own group
+			if (before > 0) {
+				groupLengths[start] = before;
+				_addGroup(playerID, direction, start);
+			}
+
+			//And whatever was behind it becomes a new group
+			int after = length - before - 1;
+			int nextSpace = _geometry.getNeighbor(spaceIndex, adjacencyZone);
+			if (after > 0) {
+				groupLengths[nextSpace] = after;
+				_addGroup(playerID, direction, nextSpace);
+				for (int i = 0, space = nextSpace; i < after; i++, space = _geometry.getNeighbor(space, adjacencyZone)) {
+					groupStarts[space] = nextSpace;
+				}
+			}
+
+			groupStarts[spaceIndex] = _NONE;
+		}
+
+		_owners[spaceIndex] = PlayerID.NONE;
+	}
+
+	/**
+	 * Gets the number of groups, of any length, the given player has
+	 * @param playerID The PlayerID of the player
+	 * @return Returns the number of groups the player has
+	 */
+	public int getGroupCount(PlayerID playerID) {
+		int player = _getPlayer(playerID);
+		return (player < 0) ? 0 : _playerGroupCounts[player];
+	}
+
+	/**
+	 * Walks through the given player's groups of size minimumSize and larger, handing each one to the visitor. Only the player's own groups are looked at.
+	 * @param playerID The PlayerID of the player whose groups to visit
+	 * @param minimumSize The minimumSize of the groups to visit
+	 * @param includeLockedGroups If true, locked groups will be visited too.
+	 * @param visitor The ISpaceGroupVisitor to hand each group to
+	 * @return Returns true if every group was visited, false if the visitor stopped early
+	 */
+	public boolean visitSpaceGroups(PlayerID playerID, int minimumSize, boolean includeLockedGroups, ISpaceGroupVisitor visitor) {
+		int player = _getPlayer(playerID);
+		if (player < 0) {
+			return true;
+		}
+
+		int spaces = _geometry.getNumberOfSpaces();
+		int[] groups = _playerGroups[player];
+		for (int i = 0; i < _playerGroupCounts[player]; i++) {
+			int direction = groups[i] / spaces;
+			int start = groups[i] % spaces;
+			int length = _groupLengths[direction][start];
+
+			if (length < minimumSize) { //Too small
+				continue;
+			}
+			if (!includeLockedGroups && isLocked(start, _directions[direction], length)) {
+				continue;
+			}
+
+			BoardCoordinate boardCoordinate = _geometry.getBoardCoordinate(start);
+			if (!visitor.visitSpaceGroup(boardCoordinate.getColumn(), boardCoordinate.getRow(), _directions[direction], length, playerID)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determines whether a group is locked, i.e. both ends are blocked by the other player or the wall
+	 * @param start The BoardGeometry index of the first Space of the group
+	 * @param adjacencyZone The direction of the group
+	 * @param length The length of the group
+	 * @return Returns true if neither end of the group is an empty Space
+	 */
+	public boolean isLocked(int start, AdjacencyZone adjacencyZone, int length) {
+		int previousSpace = _geometry.getNeighbor(start, adjacencyZone.getOppositeAdjacencyZone());
+		return getOwnerPlayerID(previousSpace) != PlayerID.NONE && getOwnerPlayerID(getSpaceAfter(start, adjacencyZone, length)) != PlayerID.NONE;
+	}
+
+	/**
+	 * Gets the Space just past the end of a group
+	 * @param start The BoardGeometry index of the first Space of the group
+	 * @param adjacencyZone The direction of the group
+	 * @param length The length of the group
+	 * @return Returns the BoardGeometry index of the Space after the group, or BoardGeometry.NO_NEIGHBOR if the group runs into the wall
+	 */
+	public int getSpaceAfter(int start, AdjacencyZone adjacencyZone, int length) {
+		BoardCoordinate boardCoordinate = _geometry.getBoardCoordinate(start);
+		int column = boardCoordinate.getColumn() + adjacencyZone.getColumnOffset() * length;
+		int row = boardCoordinate.getRow() + adjacencyZone.getRowOffset() * length;
+		return _geometry.isOnBoard(column, row) ? _geometry.getSpaceIndex(column, row) : BoardGeometry.NO_NEIGHBOR;
+	}
+
+	/**
+	 * Gets the owner of a Space, as far as this index knows
+	 * @param spaceIndex The BoardGeometry index of the Space, or BoardGeometry.NO_NEIGHBOR
+	 * @return Returns the PlayerID of the owner, or null for BoardGeometry.NO_NEIGHBOR so that it never matches anyone, not even an empty Space
+	 */
+	public PlayerID getOwnerPlayerID(int spaceIndex) {
+		return (spaceIndex == BoardGeometry.NO_NEIGHBOR) ? null : _owners[spaceIndex];
+	}
+
+	/**
+	 * Adds a group to a player's set
+	 * @param playerID The PlayerID of the owner of the group
+	 * @param direction The index of the group's direction
+	 * @param start The BoardGeometry index of the first Space of the group
+	 */
+	private void _addGroup(PlayerID playerID, int direction, int start) {
+		int player = _getPlayer(playerID);
+		int group = direction * _geometry.getNumberOfSpaces() + start;
+		_playerGroupPositions[player][group] = _playerGroupCounts[player];
+		_playerGroups[player][_playerGroupCounts[player]++] = group;
+	}
+
+	/**
+	 * Removes a group from a player's set by moving the last group in the set into its place
+	 * @param playerID The PlayerID of the owner of the group
+	 * @param direction The index of the group's direction
+	 * @param start The BoardGeometry index of the first Space of the group
+	 */
+	private void _removeGroup(PlayerID playerID, int direction, int start) {
+		int player = _getPlayer(playerID);
+		int group = direction * _geometry.getNumberOfSpaces() + start;
+		int position = _playerGroupPositions[player][group];
+
+		int lastGroup = _playerGroups[player][--_playerGroupCounts[player]];
+		_playerGroups[player][position] = lastGroup;
+		_playerGroupPositions[player][lastGroup] = position;
+		_playerGroupPositions[player][group] = _NONE;
+	}
+
+	/**
+	 * Turns a PlayerID into an index for the per-player arrays
+	 * @param playerID The PlayerID
+	 * @return Returns 0 for PLAYER1, 1 for PLAYER2 and -1 for anything else
+	 */
+	private static int _getPlayer(PlayerID playerID) {
+		if (playerID == PlayerID.PLAYER1) {
+			return 0;
+		}
+		if (playerID == PlayerID.PLAYER2) {
+			return 1;
+		}
+		return -1;
+	}
+}
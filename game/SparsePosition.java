@@ -0,0 +1,648 @@
+package connect4.game;
+
+import connect4.enums.*;
+import java.util.*;
+
+/**
+ * This class is a Position for really big boards, like 100x100 with five in a row, where a WinningLines table or even an array of every space would be mostly wasted.
+ * Only the parts of the board that have tokens on them are stored: the board is cut up into 8x8 tiles, and each tile that has ever had a token on it
+ * gets two longs, one bit per space for each player. Tiles are found through a small open addressing hash table, so memory grows with the tokens played, not the size of the board.
+ * There is no table of lines either. Playing a token only reads the few spaces in each direction that could share a line with it,
+ * which is enough to keep the line score and the number of completed lines up to date, and to check for wins.
+ * It also keeps the candidate columns, the ones within one less than the connect length of a token, since a move anywhere else can't win, block or even share a line with anything.
+ * The search only looks at those, so its work grows with the tokens played as well.
+ * Heights count up from the bottom of the board here, while rows follow the Board convention, so row 0 is the top of the Board.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class SparsePosition implements Position {
+
+	//Tiles are 8x8, so a tile is exactly one long per player
+	private static final int _TILE_SHIFT = 3;
+	private static final int _TILE_MASK = (1 << _TILE_SHIFT) - 1;
+
+	//How many tiles there is room for before the first grow
+	private static final int _INITIAL_TILE_CAPACITY = 16;
+
+	//What a space can hold when reading a line
+	private static final byte _EMPTY = 0;
+	private static final byte _PLAYER1 = 1;
+	private static final byte _PLAYER2 = 2;
+	private static final byte _OFF_BOARD = 3;
+
+	//The directions a line can go in, as column and height steps: up, right, up and to the right, and down and to the right
+	private static final int[][] _DIRECTIONS = { {0, 1}, {1, 0}, {1, 1}, {1, -1} };
+
+	//The dimensions of the board, how many tokens in a row it takes to win, and the number of tiles in each column of tiles
+	private final int _columns, _rows, _connectLength, _tileRows;
+
+	//What a line is worth by how many of one player's tokens are in it (see WinningLines)
+	private final int[] _lineWeights;
+
+	//The hash table from tile number to tile slot plus one (0 means empty), and the tile number in every slot
+	private int[] _tileTable;
+	private int[] _tileNumbers;
+	private int _tileCount;
+
+	//Two longs per tile slot: player 1's spaces, then player 2's
+	private long[] _tileMasks;
+
+	//The number of tokens in every column, and the number of tokens on the board
+	private final int[] _columnHeights;
+	private int _moveCount;
+
+	//The candidate columns: the number of tokens close enough to each column to make it one, the candidates in no particular order,
+	//and each column's place in that list plus one (0 means it isn't a candidate), so adding and removing one is constant work
+	private final int[] _nearbyTokenCounts;
+	private final int[] _candidateColumns;
+	private final int[] _candidatePlaces;
+	private int _candidateCount;
+
+	//The key of the position, the running line score from player 1's point of view, and the lines each player has completed
+	private long _key;
+	private int _lineScore;
+	private int _player1CompletedLines, _player2CompletedLines;
+
+	//Scratch space for reading the spaces around a token and counting them by owner, so playing never allocates
+	private final byte[] _line;
+	private final int[] _ownerCounts;
+
+	//The last tile looked up, since the spaces around a token are nearly always in the same tile. Slots never change once given out, so this only has to be forgotten by clear and copyFrom.
+	private int _cachedTileNumber, _cachedTileSlot;
+
+	/**
+	 * Creates an empty SparsePosition with the given dimensions and connect length
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @param connectLength The number of tokens in a row it takes to win
+	 */
+	public SparsePosition(int columns, int rows, int connectLength) {
+		if (columns <= 0 || rows <= 0) {
+			throw new IllegalArgumentException("A board needs at least one column and one row");
+		}
+		if (connectLength < 2) {
+			throw new IllegalArgumentException("It has to take at least 2 in a row to win");
+		}
+		_columns = columns;
+		_rows = rows;
+		_connectLength = connectLength;
+		_tileRows = (rows + _TILE_MASK) >> _TILE_SHIFT;
+		_lineWeights = WinningLines.createLineWeights(connectLength);
+
+		_tileTable = new int[_INITIAL_TILE_CAPACITY * 2];
+		_tileNumbers = new int[_INITIAL_TILE_CAPACITY];
+		_tileMasks = new long[_INITIAL_TILE_CAPACITY * 2];
+		_columnHeights = new int[columns];
+		_nearbyTokenCounts = new int[columns];
+		_candidateColumns = new int[columns];
+		_candidatePlaces = new int[columns];
+		_line = new byte[2 * connectLength - 1];
+		_ownerCounts = new int[_OFF_BOARD + 1];
+		_cachedTileNumber = -1;
+	}
+
+	/**
+	 * Creates a copy of another SparsePosition
+	 * @param sparsePosition The SparsePosition to copy
+	 */
+	public SparsePosition(SparsePosition sparsePosition) {
+		this(sparsePosition._columns, sparsePosition._rows, sparsePosition._connectLength);
+		copyFrom(sparsePosition);
+	}
+
+	@Override
+	public Position copy() {
+		return new SparsePosition(this);
+	}
+
+	/**
+	 * Overwrites this SparsePosition with another SparsePosition of the same dimensions. This only allocates if the other one has more tiles than there is room for.
+	 * @param position The SparsePosition to copy the position from
+	 */
+	@Override
+	public void copyFrom(Position position) {
+		if (!(position instanceof SparsePosition)) {
+			throw new IllegalArgumentException("A SparsePosition can only copy another SparsePosition");
+		}
+		SparsePosition sparsePosition = (SparsePosition) position;
+		if (sparsePosition._columns != _columns || sparsePosition._rows != _rows || sparsePosition._connectLength != _connectLength) {
+			throw new IllegalArgumentException("Cannot copy a SparsePosition of different dimensions");
+		}
+
+		if (_tileTable.length != sparsePosition._tileTable.length) {
+			_tileTable = new int[sparsePosition._tileTable.length];
+			_tileNumbers = new int[sparsePosition._tileNumbers.length];
+			_tileMasks = new long[sparsePosition._tileMasks.length];
+		}
+		System.arraycopy(sparsePosition._tileTable, 0, _tileTable, 0, _tileTable.length);
+		System.arraycopy(sparsePosition._tileNumbers, 0, _tileNumbers, 0, sparsePosition._tileCount);
+		System.arraycopy(sparsePosition._tileMasks, 0, _tileMasks, 0, sparsePosition._tileCount * 2);
+		_tileCount = sparsePosition._tileCount;
+		_cachedTileNumber = -1;
+
+		System.arraycopy(sparsePosition._columnHeights, 0, _columnHeights, 0, _columns);
+		_moveCount = sparsePosition._moveCount;
+
+		//Only the candidates have anything in their counts and places, so that's all there is to clear and copy
+		_clearCandidates();
+		for (int i = 0; i < sparsePosition._candidateCount; i++) {
+			int column = sparsePosition._candidateColumns[i];
+			_candidateColumns[i] = column;
+			_candidatePlaces[column] = i + 1;
+			_nearbyTokenCounts[column] = sparsePosition._nearbyTokenCounts[column];
+		}
+		_candidateCount = sparsePosition._candidateCount;
+		_key = sparsePosition._key;
+		_lineScore = sparsePosition._lineScore;
+		_player1CompletedLines = sparsePosition._player1CompletedLines;
+		_player2CompletedLines = sparsePosition._player2CompletedLines;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(_tileTable, 0);
+		_tileCount = 0;
+		_cachedTileNumber = -1;
+		Arrays.fill(_columnHeights, 0);
+		_moveCount = 0;
+		_clearCandidates();
+		_key = 0L;
+		_lineScore = 0;
+		_player1CompletedLines = 0;
+		_player2CompletedLines = 0;
+	}
+
+	@Override
+	public int getNumberOfColumns() {
+		return _columns;
+	}
+
+	@Override
+	public int getNumberOfRows() {
+		return _rows;
+	}
+
+	@Override
+	public long getNumberOfSpaces() {
+		return (long) _columns * _rows;
+	}
+
+	@Override
+	public int getConnectLength() {
+		return _connectLength;
+	}
+
+	@Override
+	public int getMoveCount() {
+		return _moveCount;
+	}
+
+	/**
+	 * Gets the number of tiles that have had a token on them, which is what the memory of this SparsePosition grows with
+	 * @return Returns the number of tiles in use
+	 */
+	public int getTileCount() {
+		return _tileCount;
+	}
+
+	@Override
+	public long getKey() {
+		return _key;
+	}
+
+	@Override
+	public PlayerID getOwnerPlayerID(int column, int row) {
+		byte owner = _getOwner(column, _rows - 1 - row);
+		if (owner == _PLAYER1) {
+			return PlayerID.PLAYER1;
+		}
+		if (owner == _PLAYER2) {
+			return PlayerID.PLAYER2;
+		}
+		return PlayerID.NONE;
+	}
+
+	/**
+	 * Sets the owner of a single space without any regard for gravity. Only meant for keeping views of the board in sync.
+	 * @param column The column of the space
+	 * @param row The row of the space, where row 0 is the top of the board
+	 * @param playerID The PlayerID of the new owner, PlayerID.NONE will empty the space
+	 */
+	@Override
+	public void setOwnerPlayerID(int column, int row, PlayerID playerID) {
+		int height = _rows - 1 - row;
+		byte owner = _getOwner(column, height);
+		if (owner != _EMPTY) {
+			_removeToken(column, height, owner == _PLAYER1);
+		}
+		if (playerID != PlayerID.NONE) {
+			_addToken(column, height, playerID == PlayerID.PLAYER1);
+		}
+
+		//The height is wherever the highest token in the column is now, since tokens set this way don't have to be stacked
+		_columnHeights[column] = _rows; //So _getOwner looks at the tiles instead of trusting the old height
+		int columnHeight = _rows;
+		while (columnHeight > 0 && _getOwner(column, columnHeight - 1) == _EMPTY) {
+			columnHeight--;
+		}
+		_columnHeights[column] = columnHeight;
+	}
+
+	@Override
+	public int getColumnHeight(int column) {
+		return _columnHeights[column];
+	}
+
+	@Override
+	public boolean canPlay(int column) {
+		return _columnHeights[column] < _rows;
+	}
+
+	/**
+	 * Fills the given array with the playable columns within one less than the connect length of a token. Only the candidates are looked at, not every column.
+	 * An empty board has just the center column. There's no need to fall back on the rest of the board when every candidate is full, since a full column's neighbors are candidates too,
+	 * so every candidate being full means every column is.
+	 * @param columns The array to fill, which has to have room for getCandidateCapacity columns
+	 * @return Returns the number of columns put in the array
+	 */
+	@Override
+	public int getCandidateColumns(int[] columns) {
+		if (_candidateCount == 0) {
+			columns[0] = _columns / 2;
+			return 1;
+		}
+
+		int count = 0;
+		for (int i = 0; i < _candidateCount; i++) {
+			int column = _candidateColumns[i];
+			if (_columnHeights[column] < _rows) {
+				columns[count++] = column;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int getCandidateCapacity() {
+		return Math.max(_candidateCount, 1); //The center column of an empty board
+	}
+
+	/**
+	 * Gets the number of candidate columns, full or not, which is what the search's work grows with
+	 * @return Returns the number of columns within one less than the connect length of a token
+	 */
+	public int getCandidateCount() {
+		return _candidateCount;
+	}
+
+	@Override
+	public int play(int column, PlayerID playerID) {
+		int height = _columnHeights[column];
+		if (height >= _rows || playerID == PlayerID.NONE) {
+			return -1;
+		}
+
+		_addToken(column, height, playerID == PlayerID.PLAYER1);
+		_columnHeights[column] = height + 1;
+		return _rows - 1 - height;
+	}
+
+	@Override
+	public boolean undo(int column) {
+		int height = _columnHeights[column];
+		if (height == 0) {
+			return false;
+		}
+
+		_removeToken(column, height - 1, _getOwner(column, height - 1) == _PLAYER1);
+		_columnHeights[column] = height - 1;
+		return true;
+	}
+
+	@Override
+	public boolean isWinningMove(int column, PlayerID playerID) {
+		int height = _columnHeights[column];
+		if (height >= _rows || playerID == PlayerID.NONE) {
+			return false;
+		}
+		return _isRunThrough(column, height, (playerID == PlayerID.PLAYER1) ? _PLAYER1 : _PLAYER2);
+	}
+
+	@Override
+	public boolean isWinningSpace(int column, int row) {
+		int height = _rows - 1 - row;
+		byte owner = _getOwner(column, height);
+		if (owner == _EMPTY) {
+			return false;
+		}
+		return _isRunThrough(column, height, owner);
+	}
+
+	@Override
+	public PlayerID findWinner() {
+		if (_player1CompletedLines > 0) {
+			return PlayerID.PLAYER1;
+		}
+		if (_player2CompletedLines > 0) {
+			return PlayerID.PLAYER2;
+		}
+		return PlayerID.NONE;
+	}
+
+	@Override
+	public int getLineScore(PlayerID playerID) {
+		return (playerID == PlayerID.PLAYER2) ? -_lineScore : _lineScore;
+	}
+
+	/**
+	 * Determines whether a token of the given owner on the given space is part of a full connect length in any direction. The space itself is counted as the owner's either way.
+	 * @param column The column of the space
+	 * @param height The height of the space, where 0 is the bottom of the board
+	 * @param owner The owner to look for
+	 * @return Returns true if there is a complete line through the space
+	 */
+	private boolean _isRunThrough(int column, int height, byte owner) {
+		for (int[] direction : _DIRECTIONS) {
+			int length = 1;
+			for (int i = 1; i < _connectLength && _getOwner(column + direction[0] * i, height + direction[1] * i) == owner; i++) {
+				length++;
+			}
+			for (int i = 1; i < _connectLength && _getOwner(column - direction[0] * i, height - direction[1] * i) == owner; i++) {
+				length++;
+			}
+			if (length >= _connectLength) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Puts a token on an empty space, keeping the key, the line score and the completed lines up to date. The column height is left to the caller.
+	 * @param column The column of the space
+	 * @param height The height of the space, where 0 is the bottom of the board
+	 * @param isPlayer1 Whether the token belongs to player 1
+	 */
+	private void _addToken(int column, int height, boolean isPlayer1) {
+		_updateLines(column, height, isPlayer1, 1);
+
+		int slot = _createTile(column, height);
+		_tileMasks[slot * 2 + (isPlayer1 ? 0 : 1)] |= _getTileBit(column, height);
+		_key ^= _getZobristKey(column, height, isPlayer1);
+		_moveCount++;
+		_updateCandidates(column, 1);
+	}
+
+	/**
+	 * Takes the token off of a space, keeping the key, the line score and the completed lines up to date. The column height is left to the caller.
+	 * @param column The column of the space
+	 * @param height The height of the space, where 0 is the bottom of the board
+	 * @param isPlayer1 Whether the token belongs to player 1
+	 */
+	private void _removeToken(int column, int height, boolean isPlayer1) {
+		int slot = _findTile(column, height);
+		_tileMasks[slot * 2 + (isPlayer1 ? 0 : 1)] &= ~_getTileBit(column, height);
+		_key ^= _getZobristKey(column, height, isPlayer1);
+		_moveCount--;
+		_updateCandidates(column, -1);
+
+		_updateLines(column, height, isPlayer1, -1);
+	}
+
+	/**
+	 * Counts a token in or out of every column close enough to it, which makes a column a candidate when its first nearby token shows up and stops it being one when its last one goes
+	 * @param column The column of the token
+	 * @param change 1 for a token that was added, -1 for one that was taken away
+	 */
+	private void _updateCandidates(int column, int change) {
+		int first = Math.max(column - (_connectLength - 1), 0);
+		int last = Math.min(column + (_connectLength - 1), _columns - 1);
+		for (int nearbyColumn = first; nearbyColumn <= last; nearbyColumn++) {
+			int count = _nearbyTokenCounts[nearbyColumn] + change;
+			_nearbyTokenCounts[nearbyColumn] = count;
+
+			if (count == 1 && change > 0) {
+				_candidateColumns[_candidateCount] = nearbyColumn;
+				_candidatePlaces[nearbyColumn] = ++_candidateCount;
+			}
+			else if (count == 0) { //Move the last candidate into its place
+				int place = _candidatePlaces[nearbyColumn] - 1;
+				int lastColumn = _candidateColumns[--_candidateCount];
+				_candidateColumns[place] = lastColumn;
+				_candidatePlaces[lastColumn] = place + 1;
+				_candidatePlaces[nearbyColumn] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Forgets every candidate column. Only the candidates are touched, not every column.
+	 */
+	private void _clearCandidates() {
+		for (int i = 0; i < _candidateCount; i++) {
+			int column = _candidateColumns[i];
+			_nearbyTokenCounts[column] = 0;
+			_candidatePlaces[column] = 0;
+		}
+		_candidateCount = 0;
+	}
+
+	/**
+	 * Adds or takes away what one token is worth in every line through its space. The space itself has to be empty when this is called,
+	 * so the counts read from the board are always the counts without the token. This is the same bookkeeping LineCounter does, only reading the lines straight off the board.
+	 * @param column The column of the space
+	 * @param height The height of the space, where 0 is the bottom of the board
+	 * @param isPlayer1 Whether the token belongs to player 1
+	 * @param sign 1 to add the token, -1 to take it away
+	 */
+	private void _updateLines(int column, int height, boolean isPlayer1, int sign) {
+		byte own = isPlayer1 ? _PLAYER1 : _PLAYER2;
+		int center = _connectLength - 1;
+		int scoreChange = 0;
+		int completedChange = 0;
+
+		for (int[] direction : _DIRECTIONS) {
+			//Read every space that could share a line with this one
+			for (int i = 0; i < _line.length; i++) {
+				_line[i] = _getOwner(column + direction[0] * (i - center), height + direction[1] * (i - center));
+			}
+
+			//Then slide along every line through the space, which is every window of the connect length that covers the center. The center itself reads as empty.
+			Arrays.fill(_ownerCounts, 0);
+			for (int i = 0; i < _connectLength; i++) {
+				_ownerCounts[_line[i]]++;
+			}
+			for (int start = 0; start <= center; start++) {
+				if (start > 0) {
+					_ownerCounts[_line[start - 1]]--;
+					_ownerCounts[_line[start + center]]++;
+				}
+				if (_ownerCounts[_OFF_BOARD] > 0) { //Runs off the board, so it isn't a line
+					continue;
+				}
+
+				int ownCount = _ownerCounts[own];
+				int otherCount = _ownerCounts[_PLAYER1 + _PLAYER2 - own];
+				if (ownCount == 0 && otherCount > 0) { //The line was the other player's, and with the token it's nobody's
+					scoreChange += _lineWeights[otherCount];
+				}
+				else if (otherCount == 0) { //Just ours, and worth more with the token
+					scoreChange += _lineWeights[ownCount + 1] - _lineWeights[ownCount];
+					if (ownCount + 1 == _connectLength) {
+						completedChange++;
+					}
+				}
+			}
+		}
+
+		_lineScore += (isPlayer1 ? scoreChange : -scoreChange) * sign;
+		if (isPlayer1) {
+			_player1CompletedLines += completedChange * sign;
+		}
+		else {
+			_player2CompletedLines += completedChange * sign;
+		}
+	}
+
+	/**
+	 * Gets the owner of a space, which is off the board for anything past the edges
+	 * @param column The column of the space
+	 * @param height The height of the space, where 0 is the bottom of the board
+	 * @return Returns the owner of the space as it would be stored in a line
+	 */
+	private byte _getOwner(int column, int height) {
+		if (column < 0 || column >= _columns || height < 0 || height >= _rows) {
+			return _OFF_BOARD;
+		}
+		if (height >= _columnHeights[column]) { //The height is always just past the highest token, even ones set with setOwnerPlayerID, so there's no need to look
+			return _EMPTY;
+		}
+
+		int slot = _findTile(column, height);
+		if (slot < 0) {
+			return _EMPTY;
+		}
+		long bit = _getTileBit(column, height);
+		if ((_tileMasks[slot * 2] & bit) != 0) {
+			return _PLAYER1;
+		}
+		if ((_tileMasks[slot * 2 + 1] & bit) != 0) {
+			return _PLAYER2;
+		}
+		return _EMPTY;
+	}
+
+	/**
+	 * Finds the slot of the tile a space is in
+	 * @param column The column of the space
+	 * @param height The height of the space, where 0 is the bottom of the board
+	 * @return Returns the slot of the tile, or -1 if no token has ever been on it
+	 */
+	private int _findTile(int column, int height) {
+		int tileNumber = (column >> _TILE_SHIFT) * _tileRows + (height >> _TILE_SHIFT);
+		if (tileNumber == _cachedTileNumber) {
+			return _cachedTileSlot;
+		}
+
+		int tableMask = _tileTable.length - 1;
+		for (int index = _getTableIndex(tileNumber, tableMask); _tileTable[index] != 0; index = (index + 1) & tableMask) { //Linear probing, and tiles are never removed, so the first empty entry means it isn't there
+			int slot = _tileTable[index] - 1;
+			if (_tileNumbers[slot] == tileNumber) {
+				_cachedTileNumber = tileNumber;
+				_cachedTileSlot = slot;
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the slot of the tile a space is in, giving the tile a slot if it doesn't have one yet
+	 * @param column The column of the space
+	 * @param height The height of the space, where 0 is the bottom of the board
+	 * @return Returns the slot of the tile
+	 */
+	private int _createTile(int column, int height) {
+		int slot = _findTile(column, height);
+		if (slot >= 0) {
+			return slot;
+		}
+
+		if (_tileCount == _tileNumbers.length) {
+			_growTiles();
+		}
+		int tileNumber = (column >> _TILE_SHIFT) * _tileRows + (height >> _TILE_SHIFT);
+		slot = _tileCount++;
+		_tileNumbers[slot] = tileNumber;
+		_tileMasks[slot * 2] = 0L;
+		_tileMasks[slot * 2 + 1] = 0L;
+		_insertTile(slot);
+
+		_cachedTileNumber = tileNumber;
+		_cachedTileSlot = slot;
+		return slot;
+	}
+
+	/**
+	 * Puts a slot's tile into the first free entry of the hash table
+	 * @param slot The slot of the tile
+	 */
+	private void _insertTile(int slot) {
+		int tableMask = _tileTable.length - 1;
+		int index = _getTableIndex(_tileNumbers[slot], tableMask);
+		while (_tileTable[index] != 0) {
+			index = (index + 1) & tableMask;
+		}
+		_tileTable[index] = slot + 1;
+	}
+
+	/**
+	 * Gets where in the hash table to start looking for a tile. Tile numbers next to each other are spread out so they don't pile up in one spot.
+	 * @param tileNumber The number of the tile
+	 * @param tableMask One less than the size of the hash table
+	 * @return Returns the index in the hash table
+	 */
+	private static int _getTableIndex(int tileNumber, int tableMask) {
+		return ((tileNumber * 0x9E3779B9) >>> 16) & tableMask;
+	}
+
+	/**
+	 * Doubles the room for tiles and rebuilds the hash table, keeping it at most half full
+	 */
+	private void _growTiles() {
+		int capacity = _tileNumbers.length * 2;
+		_tileNumbers = Arrays.copyOf(_tileNumbers, capacity);
+		_tileMasks = Arrays.copyOf(_tileMasks, capacity * 2);
+
+		_tileTable = new int[capacity * 2];
+		for (int slot = 0; slot < _tileCount; slot++) {
+			_insertTile(slot);
+		}
+	}
+
+	/**
+	 * Gets the bit of a space within its tile
+	 * @param column The column of the space
+	 * @param height The height of the space, where 0 is the bottom of the board
+	 * @return Returns the mask of the space's bit
+	 */
+	private static long _getTileBit(int column, int height) {
+		return 1L << (((column & _TILE_MASK) << _TILE_SHIFT) | (height & _TILE_MASK));
+	}
+
+	/**
+	 * Gets the random number XORed into the key while the given player has a token on the given space. It's worked out from the space instead of looked up, so there is no table as big as the board.
+	 * @param column The column of the space
+	 * @param height The height of the space, where 0 is the bottom of the board
+	 * @param isPlayer1 Whether the token belongs to player 1
+	 * @return Returns the Zobrist key of the token
+	 */
+	private long _getZobristKey(int column, int height, boolean isPlayer1) {
+		long z = ((long) column * _rows + height) * 2 + (isPlayer1 ? 0 : 1) + 1;
+
+		//SplitMix64, which turns consecutive numbers into ones that look random
+		z *= 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
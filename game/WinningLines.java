@@ -0,0 +1,214 @@
+package connect4.game;
+
+import java.util.*;
+
+/**
+ * This class is a table of every line of spaces a player could win with on a board of a given size and connect length (69 lines of four on the usual 7x6 board),
+ * along with an index of which lines pass through each space. It lets a Position keep a running count of every player's tokens in every line,
+ * so placing a token only has to touch the handful of lines through that one space instead of searching the board for groups.
+ * Spaces are numbered the same way as BitBoard bits, (column * (rows + 1) + height from the bottom), whether or not the board fits in a BitBoard.
+ * The tables never change once built, so one table is shared by every Position of the same size.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class WinningLines {
+
+	//How many tokens in a row it takes to win, unless told otherwise
+	public static final int CONNECT_LENGTH = 4;
+
+	//What an open line is worth at most, i.e. once it's one token away from winning. Very scary!
+	private static final int _THREAT_WEIGHT = 4000;
+
+	//One table per board size and connect length, built the first time it's asked for
+	private static final Map<Long, WinningLines> _tables = new HashMap<Long, WinningLines>();
+
+	//The dimensions of the board and the number of tokens in each line
+	private final int _columns, _rows, _connectLength;
+
+	//The spaces in each line
+	private final int[][] _lineSpaces;
+
+	//The lines that pass through each space
+	private final int[][] _linesThroughSpace;
+
+	//What a line is worth to a player by how many of their tokens are in it, as long as the other player has none there
+	private final int[] _lineWeights;
+
+	/**
+	 * Gets the table for a board of the given size with lines of four, building it if this is the first time
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @return Returns the WinningLines for the board
+	 */
+	public static WinningLines get(int columns, int rows) {
+		return get(columns, rows, CONNECT_LENGTH);
+	}
+
+	/**
+	 * Gets the table for a board of the given size and connect length, building it if this is the first time
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @param connectLength The number of tokens in a row it takes to win
+	 * @return Returns the WinningLines for the board
+	 */
+	public static synchronized WinningLines get(int columns, int rows, int connectLength) {
+		long key = ((long) columns << 32) | ((long) rows << 16) | connectLength;
+		WinningLines winningLines = _tables.get(key);
+		if (winningLines == null) {
+			winningLines = new WinningLines(columns, rows, connectLength);
+			_tables.put(key, winningLines);
+		}
+		return winningLines;
+	}
+
+	/**
+	 * Builds the table for a board of the given size and connect length
+	 * @param columns The number of columns
+	 * @param rows The number of rows
+	 * @param connectLength The number of tokens in a row it takes to win
+	 */
+	private WinningLines(int columns, int rows, int connectLength) {
+		if (connectLength < 2) {
+			throw new IllegalArgumentException("It has to take at least 2 in a row to win");
+		}
+		_columns = columns;
+		_rows = rows;
+		_connectLength = connectLength;
+
+		//Every line is a starting space plus a direction: up, right, up and to the right, or down and to the right. Heights count up from the bottom here.
+		int[][] directions = { {0, 1}, {1, 0}, {1, 1}, {1, -1} };
+		List<int[]> lineSpaces = new ArrayList<int[]>();
+		for (int[] direction : directions) {
+			for (int column = 0; column < columns; column++) {
+				for (int height = 0; height < rows; height++) {
+					int lastColumn = column + direction[0] * (connectLength - 1);
+					int lastHeight = height + direction[1] * (connectLength - 1);
+					if (lastColumn >= columns || lastHeight < 0 || lastHeight >= rows) { //Runs off the board
+						continue;
+					}
+
+					int[] spaces = new int[connectLength];
+					for (int i = 0; i < connectLength; i++) {
+						spaces[i] = getSpaceIndex(column + direction[0] * i, height + direction[1] * i);
+					}
+					lineSpaces.add(spaces);
+				}
+			}
+		}
+		_lineSpaces = lineSpaces.toArray(new int[lineSpaces.size()][]);
+
+		//Now flip it around to find the lines through each space
+		int[] counts = new int[columns * (rows + 1)];
+		for (int[] spaces : _lineSpaces) {
+			for (int space : spaces) {
+				counts[space]++;
+			}
+		}
+		_linesThroughSpace = new int[counts.length][];
+		for (int space = 0; space < counts.length; space++) {
+			_linesThroughSpace[space] = new int[counts[space]];
+			counts[space] = 0;
+		}
+		for (int line = 0; line < _lineSpaces.length; line++) {
+			for (int space : _lineSpaces[line]) {
+				_linesThroughSpace[space][counts[space]++] = line;
+			}
+		}
+
+		_lineWeights = createLineWeights(connectLength);
+	}
+
+	/**
+	 * Works out what a line is worth to a player by how many of their tokens are in it, as long as the other player has none there.
+	 * One token is worth 10, and every token after that is worth ten times more, up until the line only needs one more, which is worth the most.
+	 * A complete line is worth nothing here, since the game is already over. For four in a row that's 10, 100 and 4000.
+	 * @param connectLength The number of tokens in a row it takes to win
+	 * @return Returns a new array of weights, indexed by the number of tokens in the line
+	 */
+	public static int[] createLineWeights(int connectLength) {
+		int[] lineWeights = new int[connectLength + 1];
+		int weight = 10;
+		for (int count = 1; count < connectLength - 1; count++) {
+			lineWeights[count] = weight;
+			weight = Math.min(weight * 10, _THREAT_WEIGHT / 2);
+		}
+		lineWeights[connectLength - 1] = _THREAT_WEIGHT;
+		return lineWeights;
+	}
+
+	/**
+	 * Gets the number of columns on the board this table is for
+	 * @return Returns the number of columns
+	 */
+	public int getNumberOfColumns() {
+		return _columns;
+	}
+
+	/**
+	 * Gets the number of rows on the board this table is for
+	 * @return Returns the number of rows
+	 */
+	public int getNumberOfRows() {
+		return _rows;
+	}
+
+	/**
+	 * Gets the number of tokens in a row it takes to win
+	 * @return Returns the connect length
+	 */
+	public int getConnectLength() {
+		return _connectLength;
+	}
+
+	/**
+	 * Gets the number of lines on the board
+	 * @return Returns the number of lines
+	 */
+	public int getLineCount() {
+		return _lineSpaces.length;
+	}
+
+	/**
+	 * Gets the number of space indexes this table uses, including the unused one on top of each column
+	 * @return Returns one more than the largest space index
+	 */
+	public int getSpaceCount() {
+		return _linesThroughSpace.length;
+	}
+
+	/**
+	 * Gets the spaces in a line. The array is shared, so don't change it!
+	 * @param line The index of the line
+	 * @return Returns the indexes of the line's spaces
+	 */
+	public int[] getLineSpaces(int line) {
+		return _lineSpaces[line];
+	}
+
+	/**
+	 * Gets the lines that pass through a space. The array is shared, so don't change it!
+	 * @param spaceIndex The index of the space
+	 * @return Returns the indexes of the lines through the space, empty for the unused index on top of each column
+	 */
+	public int[] getLinesThroughSpace(int spaceIndex) {
+		return _linesThroughSpace[spaceIndex];
+	}
+
+	/**
+	 * Gets what a line is worth to a player with the given number of tokens in it, as long as the other player has none there
+	 * @param count The number of the player's tokens in the line
+	 * @return Returns the weight of the line
+	 */
+	public int getLineWeight(int count) {
+		return _lineWeights[count];
+	}
+
+	/**
+	 * Gets the index of a space, which for boards that fit in a BitBoard is also its bit index
+	 * @param column The column of the space
+	 * @param height The height of the space, where 0 is the bottom of the board
+	 * @return Returns the index of the space
+	 */
+	public int getSpaceIndex(int column, int height) {
+		return column * (_rows + 1) + height;
+	}
+}
@@ -1,5 +1,6 @@
 package connect4.guis;
 
+import connect4.ai.*;
 import connect4.enums.*;
 import connect4.events.*;
 import connect4.game.*;
@@ -8,6 +9,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * This class manages the entire user interface for the game
@@ -56,6 +58,15 @@ public class Connect4Gui extends JFrame implements ActionListener {
 	/** stores the reference to the GameOverManager */
 	private GameOverManager _gameOverManager;
 
+	/** stores the reference to the SearchCompletedManager */
+	private SearchCompletedManager _searchCompletedManager;
+
+	/** stores the reference to the NewGameManager */
+	private NewGameManager _newGameManager;
+
+	/** stores the reference to the WindowClosingManager */
+	private WindowClosingManager _windowClosingManager;
+
 	/**
 	 * Creates a new GUI for the game
 	 * @param gameState The GameState for the GUI to display
@@ -72,11 +83,17 @@ public class Connect4Gui extends JFrame implements ActionListener {
 		_gameOverManager = new GameOverManager();
 		_gameState.gameEnded.addListener(_gameOverManager);
 
+		_searchCompletedManager = new SearchCompletedManager();
+		_newGameManager = new NewGameManager();
+		_windowClosingManager = new WindowClosingManager();
+		_runComputerPlayersInBackground();
+
 		_buttonArray = new JButton[_gameState.getBoard().getNumberOfColumns()];
 		_boxArray = new Box[_gameState.getBoard().getNumberOfColumns()][_gameState.getBoard().getNumberOfRows()];
 
 		_createPlayerColors();
 		_setLookAndFeel();
+		_createMenu();
 		_createBoard();
 		_createButtons();
 		_createBoxes();
@@ -92,14 +109,14 @@ public class Connect4Gui extends JFrame implements ActionListener {
 		String message = "";
 
 		boolean isCurrentPlayerHuman = _gameState.getCurrentPlayer() instanceof HumanPlayer;
-		if (isCurrentPlayerHuman) {
+		if (!_gameState.isGameGoing()) {
+			message = "The game is over";
+		} else if (isCurrentPlayerHuman) {
 			JButton eventSource = (JButton) e.getSource();
 			int pressedButtonX = _getPressedButtonX(eventSource);
-			boolean successfulDrop = _gameState.getBoard().dropToken(pressedButtonX);
+			boolean successfulDrop = _gameState.submitMove(_gameState.getCurrentPlayerID(), pressedButtonX);
 
-			if (successfulDrop) {
-				_gameState.goToNextPlayer();
-			} else {
+			if (!successfulDrop) {
 				message = "You selected a full column. Please select a different column";
 			}
 		} else {
@@ -118,6 +135,38 @@ public class Connect4Gui extends JFrame implements ActionListener {
 		_playerColors = new HashMap<PlayerID, Color>();
 		_playerColors.put(PlayerID.PLAYER1, Color.RED);
 		_playerColors.put(PlayerID.PLAYER2, Color.YELLOW);
+		_playerColors.put(PlayerID.NONE, _BACKGROUND_COLOR); //Spaces emptied out by a new game
+	}
+
+	/**
+	 * Makes every ComputerPlayer think on a thread of its own and hand its moves back on the Swing event thread, so the window never freezes while the AI thinks.
+	 * Against a human the AI also ponders while the human thinks. How each search went is shown in the text area.
+	 */
+	private void _runComputerPlayersInBackground() {
+		for (PlayerID playerID : new PlayerID[] { PlayerID.PLAYER1, PlayerID.PLAYER2 }) {
+			Player player = _gameState.getPlayer(playerID);
+			if (player instanceof ComputerPlayer) {
+				ComputerPlayer computerPlayer = (ComputerPlayer) player;
+				computerPlayer.setMoveCallbackExecutor(new SwingExecutor());
+				computerPlayer.setPonderingEnabled(_gameState.getPlayer(playerID.getOppositePlayerID()) instanceof HumanPlayer);
+				computerPlayer.searchCompleted.addListener(_searchCompletedManager);
+			}
+		}
+	}
+
+	/**
+	 * Creates the menu bar with the option to start a new game
+	 */
+	private void _createMenu() {
+		JMenuItem newGameItem = new JMenuItem("New Game");
+		newGameItem.addActionListener(_newGameManager);
+
+		JMenu gameMenu = new JMenu("Game");
+		gameMenu.add(newGameItem);
+
+		JMenuBar menuBar = new JMenuBar();
+		menuBar.add(gameMenu);
+		setJMenuBar(menuBar);
 	}
 
 	/**
@@ -176,7 +225,7 @@ public class Connect4Gui extends JFrame implements ActionListener {
 	 */
 	private void _createTextArea() {
 		_textArea = new JTextArea();
-		_textArea.setRows(3);
+		_textArea.setRows(5);
 		_textArea.setLineWrap(true);
 		_textArea.setWrapStyleWord(true);
 		_textArea.setMargin(new Insets(10, 10, 10, 10));
@@ -192,6 +241,7 @@ public class Connect4Gui extends JFrame implements ActionListener {
 		setTitle(_TITLE);
 		setVisible(true);
 		setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+		addWindowListener(_windowClosingManager);
 	}
 
 	/**
@@ -255,21 +305,6 @@ public class Connect4Gui extends JFrame implements ActionListener {
 	private class TurnChangedManager implements IEventListener<GameState.PlayerChangedEventData> {
 		@Override
 		public void handleNotification(GameState.PlayerChangedEventData data) {
-			PlayerID previousPlayerID = data.newPlayerID.getOppositePlayerID();
-			Player previousPlayer = _gameState.getPlayer(previousPlayerID);
-			
-			if (previousPlayer instanceof ComputerPlayer) {
-				ComputerPlayer computerPlayer = (ComputerPlayer)previousPlayer;
-				long millisecondsElapsed = computerPlayer.getLastTurnDuration();
-				int numberOfTurns = computerPlayer.getNumberOfTurnsAnalyzed();
-				double timeComplexity = Math.log(numberOfTurns) / Math.log(_gameState.getBoard().getNumberOfColumns());
-				
-				String message = "Your opponent took " + millisecondsElapsed
-						+ " milliseconds to make their turn. " + "They looked at " + numberOfTurns
-						+ " possible turns. The time complexity for this turn was O(N^" + timeComplexity + ")";
-				_setText(message);
-			}
-			
 			String currentPlayerString = data.newPlayerID.toString();
 			
 			_setTitle(currentPlayerString);
@@ -281,6 +316,28 @@ public class Connect4Gui extends JFrame implements ActionListener {
 		}
 	}
 	
+	/**
+	 * This class is used to show how the AI's search went whenever a ComputerPlayer fires the searchCompleted event
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private class SearchCompletedManager implements IEventListener<ComputerPlayer.SearchCompletedEventData> {
+		@Override
+		public void handleNotification(ComputerPlayer.SearchCompletedEventData data) {
+			SearchStatistics statistics = data.statistics;
+
+			StringBuilder bestLine = new StringBuilder();
+			for (int column : statistics.getPrincipalVariation()) {
+				bestLine.append(' ').append(column + 1); //Columns are counted from 1 for people
+			}
+
+			String message = String.format("%s took %.1f milliseconds to make their turn, looking at %d positions (%.0f per second) %d moves deep. "
+					+ "%.0f%% of the positions searched were cut off early and %.0f%% were already in the transposition table. Best line:%s",
+					data.playerID, statistics.getNanos() / 1e6, statistics.getNodeCount(), statistics.getNodesPerSecond(), statistics.getDepthReached(),
+					statistics.getCutoffRate() * 100, statistics.getTranspositionHitRate() * 100, bestLine);
+			_setText(message);
+		}
+	}
+
 	/**
 	 * This class is used to manage what happens when the gameEnded event is fired on the GameState
 	 * @author Nate Celeste NTC14, Noah Crowley NWC17
@@ -291,8 +348,46 @@ public class Connect4Gui extends JFrame implements ActionListener {
 			PlayerID winningPlayer = data.winnerPlayerID;
 			
 			String message = "Congratulations " + winningPlayer.toString() + "! You have won!";
+			if (winningPlayer == PlayerID.NONE) {
+				message = "The board is full. It's a draw!";
+			}
 			_showMessage(message);
 			_setTitle(message);
 		}
 	}
+
+	/**
+	 * This class is used to start a new game when New Game is picked from the menu
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private class NewGameManager implements ActionListener {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			_setText("");
+			_setTitle(PlayerID.PLAYER1.toString());
+			_gameState.restartGame();
+		}
+	}
+
+	/**
+	 * This class is used to stop the game, and with it any search the AI is running, when the window is closed
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private class WindowClosingManager extends WindowAdapter {
+		@Override
+		public void windowClosing(WindowEvent e) {
+			_gameState.stopGame();
+		}
+	}
+
+	/**
+	 * This class runs whatever it is given on the Swing event thread, which is where the AI's moves have to be played
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private class SwingExecutor implements Executor {
+		@Override
+		public void execute(Runnable runnable) {
+			SwingUtilities.invokeLater(runnable);
+		}
+	}
 }
\ No newline at end of file
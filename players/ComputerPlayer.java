@@ -1,9 +1,11 @@
 package connect4.players;
 
+import connect4.ai.*;
 import connect4.enums.*;
 import connect4.events.*;
 import connect4.game.*;
-import java.util.*;
+import connect4.telemetry.*;
+import java.util.concurrent.*;
 
 /**
  * This class is the core of our project. It implements the AI decision making algorithm
@@ -11,11 +13,41 @@ import java.util.*;
  */
 public class ComputerPlayer extends Player {
 
+	//Fired on the game's thread with the SearchStatistics of every move the AI decides on, just before the move is played
+	public EventSource<SearchCompletedEventData> searchCompleted;
+
+	//How many positions the Solver may look at on a turn before the AI falls back to the SearchEngine. Roughly a second's worth.
+	private static final long _SOLVER_NODE_LIMIT = 10000000L;
+
+	//The time budget of every turn on a sparse board when no budget or clock was set. Searching a board that big to the full depth could take hours.
+	public static final long SPARSE_MOVE_TIME_BUDGET_MILLIS = 2000;
+
 	//A bunch of private variables
 	private GameState _gameState;
-	private PlayerChangedHandler _playerChangedHandler;
+	private SearchStrategy _searchStrategy;
+	private SearchEngine _searchEngine;
+	private Solver _solver; //Only created once the AI is told to play perfectly
+	private OpeningBook _openingBook;
+	private TimeManager _timeManager; //Only used when playing against a clock
+	private long _totalMillis, _incrementMillis; //The time control, so the clock can be wound back for a new game
+	private long _moveTimeBudgetMillis;
+	private long _nodeBudget;
 	private long _lastTurnDuration;
-	private int _numberOfTurnsAnalyzed;
+	private long _numberOfTurnsAnalyzed;
+	private SearchStatistics _lastSearchStatistics;
+	private SearchStatistics _engineStatistics; //Only set when the SearchEngine decided the move
+
+	//Searching in the background: the thread the AI thinks on, where the chosen move gets handed back to the game (null to think right in requestMove),
+	//and which search is the current one. Anything searched under an older generation was cancelled and is thrown away.
+	private ExecutorService _searchExecutor;
+	private Executor _moveCallbackExecutor;
+	private volatile int _searchGeneration;
+	private GameStartedHandler _gameStartedHandler;
+
+	//Pondering: searching the opponent's position while they think, so the TranspositionTable already knows most of the AI's next search
+	private boolean _isPonderingEnabled;
+	private volatile long _lastPonderNodeCount;
+	private PlayerChangedHandler _playerChangedHandler;
 
 	/**
 	 * Creates a new ComputerPlayer associated with the given GameState and PlayerID
@@ -23,28 +55,194 @@ public class ComputerPlayer extends Player {
 	 * @param playerID The PlayerID to be associated with this new ComputerPlayer
 	 */
 	public ComputerPlayer(GameState gameState, PlayerID playerID) {
+		this(gameState, playerID, SearchEngine.DEFAULT_TRANSPOSITION_TABLE_MEGABYTES);
+	}
+
+	/**
+	 * Creates a new ComputerPlayer associated with the given GameState and PlayerID, with a TranspositionTable of the given size
+	 * @param gameState The GameState to which this ComputerPlayer belongs
+	 * @param playerID The PlayerID to be associated with this new ComputerPlayer
+	 * @param transpositionTableMegabytes The amount of memory the AI may use to remember positions, in megabytes
+	 */
+	public ComputerPlayer(GameState gameState, PlayerID playerID, int transpositionTableMegabytes) {
 		super(playerID);
 
 		_gameState = gameState;
+		_searchStrategy = SearchStrategy.HEURISTIC;
+		_searchEngine = new SearchEngine(SearchEngine.DEFAULT_DEPTH, transpositionTableMegabytes);
+		_openingBook = OpeningBook.getDefault(); //Shared by every ComputerPlayer, so this is free after the first one
+		searchCompleted = new EventSource<SearchCompletedEventData>();
 
-		_playerChangedHandler = new PlayerChangedHandler(this);
+		_gameStartedHandler = new GameStartedHandler();
+		_gameState.gameStarted.addListener(_gameStartedHandler);
+		_playerChangedHandler = new PlayerChangedHandler();
 		_gameState.currentPlayerChanged.addListener(_playerChangedHandler);
 	}
 	
 	/**
-	 * This handles the entire AI algorithm and eventually takes a turn for the AI
+	 * This handles the entire AI algorithm and decides on the AI's turn. The GameState drops the token.
+	 * With a move callback Executor the search runs on a background thread instead, and the move is submitted through that Executor once it's ready.
+	 * @param gameState The GameState of the game being played, which is the one this ComputerPlayer was created with
+	 * @return Returns the column the AI chose, or NO_MOVE if it is still thinking in the background
+	 */
+	@Override
+	public int requestMove(GameState gameState) {
+		if (_moveCallbackExecutor == null) {
+			_clearStop(); //Left over from a cancel, but nothing else is searching
+			int column = _decideMove(_gameState.getBoard().getPosition(), _searchGeneration);
+			searchCompleted.notifyListeners(new SearchCompletedEventData(_playerID, _lastSearchStatistics));
+			return column;
+		}
+
+		//Stop pondering, if the AI was, and move on to the real search. Everything the ponder found is still in the TranspositionTable.
+		//The Board keeps changing on the game's thread, so the search gets its own copy. One thread means a cancelled search is always done before the next one starts.
+		cancelMove();
+		_getSearchExecutor().execute(new SearchTask(_gameState.getBoard().getPosition().copy(), _searchGeneration));
+		return NO_MOVE;
+	}
+
+	/**
+	 * Stops any search running in the background as soon as possible and throws its move away
+	 */
+	@Override
+	public void cancelMove() {
+		_searchGeneration++;
+		_searchEngine.stop();
+		if (_solver != null) {
+			_solver.stop();
+		}
+	}
+
+	/**
+	 * Determines whether the AI searches during its opponent's turns
+	 * @return Returns true if pondering is enabled
+	 */
+	public boolean isPonderingEnabled() {
+		return _isPonderingEnabled;
+	}
+
+	/**
+	 * Makes the AI search during its opponent's turns too. It searches the opponent's position one move deeper than its own search depth,
+	 * which covers every reply it could face, and when the opponent moves the AI's own search finds most of its work already in the TranspositionTable.
+	 * Pondering only happens while searching in the background (see setMoveCallbackExecutor), and never takes anything off the AI's clock.
+	 * @param isPonderingEnabled Whether to ponder
+	 */
+	public void setPonderingEnabled(boolean isPonderingEnabled) {
+		_isPonderingEnabled = isPonderingEnabled;
+		if (!isPonderingEnabled && _gameState.getCurrentPlayerID() != _playerID) {
+			cancelMove();
+		}
+	}
+
+	/**
+	 * Makes the AI forget every position it has searched, so its next search starts the same way it would in a brand new program.
+	 * Only call this while the AI isn't searching.
+	 */
+	public void clearTranspositionTable() {
+		_searchEngine.getTranspositionTable().clear();
+	}
+
+	/**
+	 * Gets the number of positions the AI looked at while pondering during its opponent's most recent turn
+	 * @return Returns the number of positions looked at while pondering, 0 if the AI didn't ponder
+	 */
+	public long getLastPonderNodeCount() {
+		return _lastPonderNodeCount;
+	}
+
+	/**
+	 * Gets the Executor the AI hands its moves back through when it searches in the background
+	 * @return Returns the move callback Executor, or null if the AI searches right in requestMove
+	 */
+	public Executor getMoveCallbackExecutor() {
+		return _moveCallbackExecutor;
+	}
+
+	/**
+	 * Makes the AI search on a background thread of its own instead of the thread that asked for its move, like the GUI's event thread.
+	 * The chosen move is submitted to the GameState through the given Executor, which should run it on the game's thread (for the GUI that's SwingUtilities.invokeLater).
+	 * @param moveCallbackExecutor The Executor to submit moves through, or null to search right in requestMove
+	 */
+	public void setMoveCallbackExecutor(Executor moveCallbackExecutor) {
+		_moveCallbackExecutor = moveCallbackExecutor;
+	}
+
+	/**
+	 * Gets the thread the AI searches on in the background, starting it the first time
+	 * @return Returns the ExecutorService for searching in the background
 	 */
-	public void play() {
-		long startTime = System.currentTimeMillis(); //Measure the startTime for time analysis
+	private ExecutorService _getSearchExecutor() {
+		if (_searchExecutor == null) {
+			_searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "connect4-computer-player");
+				thread.setDaemon(true); //Thinking should never keep the program running
+				return thread;
+			});
+		}
+		return _searchExecutor;
+	}
+
+	/**
+	 * Takes back the stop request cancelMove left on the SearchEngine and Solver. Background tasks do this before checking their generation,
+	 * so a cancel that comes in between can't be lost.
+	 */
+	private void _clearStop() {
+		_searchEngine.clearStop();
+		if (_solver != null) {
+			_solver.clearStop();
+		}
+	}
+
+	/**
+	 * Decides on a move for the given position, timing it, taking it off the clock and putting together its SearchStatistics
+	 * @param position The position to decide on a move for
+	 * @param generation The search generation this move is being decided for
+	 * @return Returns the chosen column
+	 */
+	private int _decideMove(Position position, int generation) {
+		SearchEvent event = new SearchEvent(); //Free unless Flight Recorder is recording
+		event.begin();
+		int moveNumber = position.getMoveCount();
+
+		long startTime = System.nanoTime(); //Measure the startTime for time analysis
+		long startBytes = AllocationMeter.getAllocatedBytes(); //And what the move allocates, which all lands on this thread
+		_numberOfTurnsAnalyzed = 0;
+		_engineStatistics = null;
 		
-		int columnChosen = _chooseColumn(); //This method is basically the entire algorithm
+		int columnChosen = _chooseColumn(position); //This method is basically the entire algorithm
+
+		long nanos = System.nanoTime() - startTime; //More run-time analysis
+		long allocatedBytes = AllocationMeter.getAllocatedBytes() - startBytes;
+		_lastTurnDuration = nanos / 1000000; //Set that as our last turn duration. Simple stuff here.
 
-		_gameState.getBoard().dropToken(columnChosen); //Just...Drop the token
+		//The whole move counts, book and Solver included, but only the SearchEngine knows about cutoffs and the TranspositionTable
+		if (_engineStatistics != null) {
+			_lastSearchStatistics = new SearchStatistics(nanos, _numberOfTurnsAnalyzed, _engineStatistics.getDepthReached(), _engineStatistics.getInteriorNodeCount(),
+				_engineStatistics.getCutoffCount(), _engineStatistics.getTranspositionProbeCount(), _engineStatistics.getTranspositionHitCount(),
+				_engineStatistics.getScore(), _engineStatistics.getPrincipalVariation(), allocatedBytes);
+		}
+		else {
+			_lastSearchStatistics = new SearchStatistics(nanos, _numberOfTurnsAnalyzed, 0, 0, 0, 0, 0, 0, new int[] { columnChosen }, allocatedBytes);
+		}
 
-		long endTime = System.currentTimeMillis(); //More run-time analysis
-		_lastTurnDuration = endTime - startTime; //Find the difference of the startTime and endTime and then set that as our last turn duration. Simple stuff here.
+		if (_timeManager != null && generation == _searchGeneration) { //Take the turn off the clock, unless it was cancelled
+			_timeManager.consume(_lastTurnDuration);
+		}
 
-		_gameState.goToNextPlayer(); //Let the game move on!
+		if (event.shouldCommit()) {
+			event.player = _playerID.toString();
+			event.strategy = _searchStrategy.toString();
+			event.moveNumber = moveNumber;
+			event.depth = _searchEngine.getDepth();
+			event.depthReached = _lastSearchStatistics.getDepthReached();
+			event.nodeCount = _lastSearchStatistics.getNodeCount();
+			event.column = columnChosen;
+			event.score = _lastSearchStatistics.getScore();
+			event.allocatedBytes = allocatedBytes;
+			event.isCancelled = generation != _searchGeneration;
+			event.commit();
+		}
+		return columnChosen;
 	}
 
 	/**
@@ -56,179 +254,288 @@ public class ComputerPlayer extends Player {
 	}
 
 	/**
-	 * Gets the number of turns analyzed by the AI during its most recent turn
+	 * Gets everything measured while the AI decided upon its most recent turn
+	 * @return Returns the SearchStatistics of the most recent turn, or null if the AI hasn't taken one
+	 */
+	public SearchStatistics getLastSearchStatistics() {
+		return _lastSearchStatistics;
+	}
+
+	/**
+	 * Gets the number of turns analyzed by the AI during its most recent turn, i.e. the number of positions its search visited
 	 * @return Returns the number of turns analyzed by the AI during its most recent turn
 	 */
-	public int getNumberOfTurnsAnalyzed() {
+	public long getNumberOfTurnsAnalyzed() {
 		return _numberOfTurnsAnalyzed;
 	}
+
+	/**
+	 * Gets the SearchStrategy the AI uses to decide on its turns
+	 * @return Returns the SearchStrategy the AI uses to decide on its turns
+	 */
+	public SearchStrategy getSearchStrategy() {
+		return _searchStrategy;
+	}
+
+	/**
+	 * Sets the SearchStrategy the AI uses to decide on its turns. With SearchStrategy.PERFECT the AI proves the best column with the Solver,
+	 * and only falls back to the SearchEngine early in the game when the Solver can't finish in time.
+	 * @param searchStrategy The SearchStrategy to use
+	 */
+	public void setSearchStrategy(SearchStrategy searchStrategy) {
+		_searchStrategy = searchStrategy;
+		if (_searchStrategy == SearchStrategy.PERFECT && _solver == null) {
+			_solver = new Solver();
+			_solver.setNodeLimit(_SOLVER_NODE_LIMIT);
+		}
+	}
+
+	/**
+	 * Gets the OpeningBook the AI plays from at the start of the game
+	 * @return Returns the OpeningBook, or null if the AI doesn't have one
+	 */
+	public OpeningBook getOpeningBook() {
+		return _openingBook;
+	}
+
+	/**
+	 * Sets the OpeningBook the AI plays from at the start of the game. By default this is the book in OpeningBook.DEFAULT_FILE_NAME, if there is one.
+	 * @param openingBook The OpeningBook to use, or null to always search
+	 */
+	public void setOpeningBook(OpeningBook openingBook) {
+		_openingBook = openingBook;
+	}
+
+	/**
+	 * Gets the number of moves the AI looks ahead
+	 * @return Returns the number of moves the AI looks ahead
+	 */
+	public int getSearchDepth() {
+		return _searchEngine.getDepth();
+	}
+
+	/**
+	 * Sets the number of moves the AI looks ahead
+	 * @param depth The number of moves to look ahead, at least 1
+	 */
+	public void setSearchDepth(int depth) {
+		_searchEngine.setDepth(depth);
+	}
+
+	/**
+	 * Gets the number of threads the AI searches with
+	 * @return Returns the number of threads the AI searches with
+	 */
+	public int getSearchThreadCount() {
+		return _searchEngine.getThreadCount();
+	}
+
+	/**
+	 * Sets the number of threads the AI searches with. Every thread searches the same position and they share what they find, so more threads mean deeper searches in the same time.
+	 * @param threadCount The number of threads to search with, at least 1
+	 */
+	public void setSearchThreadCount(int threadCount) {
+		_searchEngine.setThreadCount(threadCount);
+	}
+
+	/**
+	 * Makes the AI play against a clock. Each turn gets a share of the time left on the clock, more in the middlegame and almost none for forced moves.
+	 * The search depth still caps how far ahead the AI looks, so raise it to SearchEngine.MAXIMUM_DEPTH to let the clock decide.
+	 * @param totalMillis The number of milliseconds on the clock at the start of the game
+	 * @param incrementMillis The number of milliseconds added to the clock after every turn
+	 */
+	public void setTimeControl(long totalMillis, long incrementMillis) {
+		_totalMillis = totalMillis;
+		_incrementMillis = incrementMillis;
+		_timeManager = new TimeManager(totalMillis, incrementMillis);
+	}
+
+	/**
+	 * Gets the TimeManager keeping track of the AI's clock
+	 * @return Returns the TimeManager, or null if the AI isn't playing against a clock
+	 */
+	public TimeManager getTimeManager() {
+		return _timeManager;
+	}
+
+	/**
+	 * Gives every turn the same fixed time budget. Ignored while playing against a clock.
+	 * @param millis The number of milliseconds each turn may take, or 0 for no limit (except on sparse boards, which get SPARSE_MOVE_TIME_BUDGET_MILLIS unless there's a node budget)
+	 */
+	public void setMoveTimeBudget(long millis) {
+		_moveTimeBudgetMillis = millis;
+	}
+
+	/**
+	 * Limits the number of positions the AI may look at on each turn
+	 * @param nodes The number of positions each turn may look at, or 0 for no limit
+	 */
+	public void setNodeBudget(long nodes) {
+		_nodeBudget = nodes;
+	}
 	
 	/**
-	 * This method contains almost all of the AI's algorithm for turn making. Arguably the most complicated method of the entire project
+	 * This method plays from the OpeningBook if the position is in it, otherwise it hands the position over to the Solver when playing perfectly, or to the SearchEngine, which looks as many moves ahead as its depth and this turn's time and node budgets allow
+	 * @param position The position to choose a column for. The SearchEngine copies this, so it is never touched.
 	 * @return Returns the int representing the chosen column for the AI to drop a token into
 	 */
-	private int _chooseColumn() {
-		_numberOfTurnsAnalyzed = 0; //New turn, and we haven't analyzed anything yet
-		
-		Board ghostBoard = _gameState.getGhostBoard(); //Easier to do this now
-		int columnChosen = -1; //-1 represents no chosen column
-		int firstOpenColumn = -1; //-1 represents that no column is currently open
-		int columnChosenScoreAverage = -1; //-1 represents the score average of the currently chosen average
-		
-		for (int column = 0; column < ghostBoard.getNumberOfColumns(); column++) { //Iterate over all of the columns of the ghost board once...
-			if (!ghostBoard.dropToken(column, _playerID)) { //If the column is full, no use in even looking at this.
-				continue;
-			}
-			
-			if (firstOpenColumn == -1) { //At this point, we know the column is open. And if no open column has been found yet, at least we can know this one is
-				firstOpenColumn = column;
-			}
-			
-			if (ghostBoard.checkForWinner().equals(_playerID)) { //If the token was dropped and this player won, just choose this! No better move can possibly exist!!
-				columnChosen = column;
-	            ghostBoard.getTopOwnedSpace(column).setOwnerPlayerID(PlayerID.NONE);
-	            break;
-			}
-			
-			int averageScoreForColumn = 0;
-			boolean containsOpponentVictory = false; //If the current column allows the opponent to win, we want to avoid that
-
-			for (int otherPlayerColumn = 0; otherPlayerColumn < ghostBoard.getNumberOfColumns(); otherPlayerColumn++) { //Now iterate over every column again, this time for the opposing player's possible turns
-                if (!ghostBoard.dropToken(otherPlayerColumn, _playerID.getOppositePlayerID())) { //If the column is full, no use in even looking at this.
-                    continue;
-                }
-    			
-    			if (ghostBoard.checkForWinner().equals(_playerID.getOppositePlayerID())) { //Have to avoid letting the other player win!
-    				containsOpponentVictory = true;
-    			}
-                
-                _numberOfTurnsAnalyzed++; //This counts as one set of turns analyzed, now
-				int boardScore = _scoreGhostBoard(); //This method is a big deal
-				averageScoreForColumn += boardScore; //At the end of this we'll average out this sum
-				ghostBoard.getTopOwnedSpace(otherPlayerColumn).setOwnerPlayerID(PlayerID.NONE); //Erase the hypothetical move from the ghost board
+	private int _chooseColumn(Position position) {
+		boolean isSolvable = Solver.canSolve(position); //The book and the Solver only know the usual game of four in a row on a BitBoard
+
+		if (_openingBook != null && isSolvable) { //Still in the book? Then there's nothing to think about.
+			int bookEntry = _openingBook.probe((BitBoard) position, _playerID);
+			if (bookEntry != OpeningBook.MISS && position.canPlay(OpeningBook.getBestMove(bookEntry))) {
+				return OpeningBook.getBestMove(bookEntry);
 			}
-			
-			averageScoreForColumn /= ghostBoard.getNumberOfColumns(); //Now average out the sum of the scores that will result after the other player's next turn based on this possible move
-			if (!containsOpponentVictory && 
-				(averageScoreForColumn > columnChosenScoreAverage || columnChosen == -1)) { //As long as this doesn't result in the other player winning and is the best option so far, this column should become the new choice
-				columnChosen = column;
-				columnChosenScoreAverage = averageScoreForColumn;
+		}
+
+		if (_searchStrategy == SearchStrategy.PERFECT && isSolvable) {
+			SolverResult result = _solver.analyze((BitBoard) position, _playerID);
+			_numberOfTurnsAnalyzed = result.getNodeCount();
+			if (result.getOutcome() != GameOutcome.UNKNOWN) {
+				return result.getBestColumn();
 			}
-			
-            ghostBoard.getTopOwnedSpace(column).setOwnerPlayerID(PlayerID.NONE); //Erase the hypothetical move from the ghost board
+			//Too early in the game to prove anything, so just search like normal
 		}
-		
-		if (columnChosen == -1) { //If no column was chosen, the AI should just go with the first open column it found
-			columnChosen = firstOpenColumn;
+
+		long timeBudgetMillis = _moveTimeBudgetMillis;
+		if (_timeManager != null) {
+			timeBudgetMillis = _timeManager.allocate(position, _playerID);
 		}
-		
+		else if (timeBudgetMillis == 0 && _nodeBudget == 0 && position instanceof SparsePosition) { //Nothing else would stop the search
+			timeBudgetMillis = SPARSE_MOVE_TIME_BUDGET_MILLIS;
+		}
+		SearchLimits limits = new SearchLimits(_searchEngine.getDepth(), timeBudgetMillis, _nodeBudget);
+
+		int columnChosen = _searchEngine.chooseColumn(position, _playerID, limits); //This is basically the entire algorithm
+
+		_numberOfTurnsAnalyzed += _searchEngine.getNodeCount(); //Every position the search visited counts as a turn analyzed
+		_engineStatistics = _searchEngine.getStatistics();
+
 		return columnChosen;
 	}
-	
+
 	/**
-	 * Determines whether a space group is imminent, i.e. is one move away from a victory
-	 * @param spaceGroup The SpaceGroup to check for imminence
-	 * @return Returns true if the SpaceGroup is imminent, false if otherwise
+	 * This class searches for a move on the AI's background thread and hands it back to the game, unless the search was cancelled along the way
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
 	 */
-	private boolean _isSpaceGroupImminent(SpaceGroup spaceGroup) {
-		if (spaceGroup.getLength() < 2) {
-			return false;
-		}
-		if (spaceGroup.isLocked()) {
-			return false;
-		}
-		if (spaceGroup.isLocked()) { //If this SpaceGroup is locked then this SpaceGroup is not imminent
-			return false;
-		}
-		
-		Space positiveSpace = spaceGroup.getPositiveNextSpace();
-		Space negativeSpace = spaceGroup.getNegativeNextSpace();
-		
-		if (spaceGroup.getLength() == 3) {
-			//A SpaceGroup that has the length of 3 is imminent if either end has an empty space. i.e. _ A A A or A A A _ or even _ A A A _
-			if ((positiveSpace != null && positiveSpace.isEmpty()) ||
-				(negativeSpace != null && negativeSpace.isEmpty())) {
-				return true;
-			}
+	private class SearchTask implements Runnable {
+		private Position _position;
+		private int _generation;
+
+		private SearchTask(Position position, int generation) {
+			_position = position;
+			_generation = generation;
 		}
-		else if (spaceGroup.getLength() == 2) {
-			//So, if a SpaceGroup has the length of 2, it can still be imminent in that it may have another Space with a single empty space in the middle. i.e. A A _ A is just as imminent as A A A _
-			if (positiveSpace != null && positiveSpace.isEmpty()) { //This would be something like A A _ A
-				Space nextPositiveSpace = positiveSpace.getAdjacentSpace(spaceGroup.getAdjacencyZone());
-				if (nextPositiveSpace != null && nextPositiveSpace.getOwnerPlayerID().equals(spaceGroup.getOwnerPlayerID())) {
-					return true;
-				}
+
+		@Override
+		public void run() {
+			_clearStop();
+			if (_generation != _searchGeneration) { //Cancelled before it even started
+				return;
 			}
-			if (negativeSpace != null && negativeSpace.isEmpty()) { //This would be something like A _ A A
-				Space nextNegativeSpace = negativeSpace.getAdjacentSpace(spaceGroup.getAdjacencyZone().getOppositeAdjacencyZone());
-				if (nextNegativeSpace != null && nextNegativeSpace.getOwnerPlayerID().equals(spaceGroup.getOwnerPlayerID())) {
-					return true;
-				}
+
+			int column = _decideMove(_position, _generation);
+			if (_generation == _searchGeneration) {
+				_moveCallbackExecutor.execute(new MoveSubmitter(column, _lastSearchStatistics, _generation));
 			}
 		}
-		
-		return false;
 	}
 
 	/**
-	 * This method scores the entire Ghost Board to determine how each set of moves will affect the state of the game
-	 * @return Returns the integer score difference of the game with the given state of the Ghost Board
+	 * This class searches the opponent's position on the AI's background thread until the opponent moves, just to fill the TranspositionTable
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
 	 */
-	private int _scoreGhostBoard() {
-		Board ghostBoard = _gameState.getGhostBoard();
-		SpaceGroup[] spaceGroups = BoardAnalyzer.getSpaceGroups(ghostBoard, 2, true); //Get all SpaceGroups (locked and not) of at least size 2 (size 1 SpaceGroups are neglected as they cannot be considered imminent)
-		Map<PlayerID, Integer> playerScores = new HashMap<PlayerID, Integer>(); //Score the scores of each Player
-		
-		//Initialize each Player's score to 0
-		playerScores.put(PlayerID.PLAYER1, 0);
-		playerScores.put(PlayerID.PLAYER2, 0);
-		
-		for (int i = 0; i < spaceGroups.length; i++) { //Iterate over each SpaceGroup found
-			SpaceGroup spaceGroup = spaceGroups[i];
-			if (spaceGroup.isLocked() && spaceGroup.getLength() < 4) { //If the SpaceGroup is locked and is not a winning group, then there is nothing useful about this. Continue on
-				continue;
-			}
-			
-			int scoreAddend = 0;
-			if (spaceGroup.getLength() >= 4) { //If the SpaceGroup is a winning SpaceGroup, that Player needs a solid 10,000 points added to their score - very scary!
-				scoreAddend = 10000;
-			}
-			else if (_isSpaceGroupImminent(spaceGroup)) { //If the SpaceGroup is imminent, i.e. one move away from that player winning, it is a very good SpaceGroup to have. 4,000 points!
-				scoreAddend = 4000;
-			}
-			else { //Otherwise, just give the Player an extra 100 points for every Space in the SpaceGroup
-				scoreAddend = 100 * spaceGroup.getLength();
+	private class PonderTask implements Runnable {
+		private Position _position;
+		private int _generation;
+
+		private PonderTask(Position position, int generation) {
+			_position = position;
+			_generation = generation;
+		}
+
+		@Override
+		public void run() {
+			_clearStop();
+			if (_generation != _searchGeneration) {
+				return;
 			}
-			
-			int newScore = playerScores.get(spaceGroup.getOwnerPlayerID()) + scoreAddend;
-			playerScores.put(spaceGroup.getOwnerPlayerID(), newScore);
+
+			int depth = Math.min(_searchEngine.getDepth() + 1, SearchEngine.MAXIMUM_DEPTH); //One deeper, so every reply gets searched as deep as the AI's own turn would
+			_searchEngine.chooseColumn(_position, _playerID.getOppositePlayerID(), new SearchLimits(depth));
+			_lastPonderNodeCount = _searchEngine.getNodeCount();
 		}
-		
-		//So now, get the two scores and find their difference. Then return that
-		int score = playerScores.get(_playerID);
-		int opposingScore = playerScores.get(_playerID.getOppositePlayerID());
-		int scoreDifference = score - opposingScore;
-		
-		return scoreDifference;
 	}
-	
+
 	/**
-	 * This class is used to handle the PlayerChanged event and start the AI's decision making algorithm
+	 * This class submits a move the AI found in the background, on whichever thread the move callback Executor runs it on
 	 * @author Nate Celeste NTC14, Noah Crowley NWC17
 	 */
-	private class PlayerChangedHandler implements IEventListener<GameState.PlayerChangedEventData> {
-		private ComputerPlayer _player;
+	private class MoveSubmitter implements Runnable {
+		private int _column;
+		private SearchStatistics _statistics;
+		private int _generation;
 
-		private PlayerChangedHandler(ComputerPlayer player) {
-			_player = player;
+		private MoveSubmitter(int column, SearchStatistics statistics, int generation) {
+			_column = column;
+			_statistics = statistics;
+			_generation = generation;
+		}
+
+		@Override
+		public void run() {
+			if (_generation == _searchGeneration) { //The game could have been restarted while this was waiting to run
+				searchCompleted.notifyListeners(new SearchCompletedEventData(_playerID, _statistics));
+				_gameState.submitMove(_playerID, _column);
+			}
 		}
+	}
 
+	/**
+	 * This class starts pondering as soon as it becomes the opponent's turn
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private class PlayerChangedHandler implements IEventListener<GameState.PlayerChangedEventData> {
 		@Override
 		public void handleNotification(GameState.PlayerChangedEventData eventData) {
-			if (eventData.newPlayerID != _player.getPlayerID()) {
+			if (!_isPonderingEnabled || _moveCallbackExecutor == null || eventData.newPlayerID != _playerID.getOppositePlayerID()) {
 				return;
 			}
-			_player.play();
+			if (_searchStrategy == SearchStrategy.PERFECT && Solver.canSolve(_gameState.getBoard().getPosition())) { //The Solver doesn't use the SearchEngine's table
+				return;
+			}
+
+			cancelMove(); //Nothing should be running, but just in case
+			_lastPonderNodeCount = 0;
+			_getSearchExecutor().execute(new PonderTask(_gameState.getBoard().getPosition().copy(), _searchGeneration));
+		}
+	}
+
+	/**
+	 * This class winds the AI's clock back whenever a new game starts
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private class GameStartedHandler implements IEventListener<GameState.GameStartedEventData> {
+		@Override
+		public void handleNotification(GameState.GameStartedEventData eventData) {
+			if (_timeManager != null) {
+				_timeManager = new TimeManager(_totalMillis, _incrementMillis);
+			}
+		}
+	}
+
+	/**
+	 * Used for sending the SearchStatistics of a move over the searchCompleted event
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	public class SearchCompletedEventData extends EventData {
+		public PlayerID playerID;
+		public SearchStatistics statistics;
+
+		public SearchCompletedEventData(PlayerID playerID, SearchStatistics statistics) {
+			this.playerID = playerID;
+			this.statistics = statistics;
 		}
 	}
 
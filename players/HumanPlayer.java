@@ -1,9 +1,10 @@
 package connect4.players;
 
 import connect4.enums.*;
+import connect4.game.*;
 
 /**
- * This is essentially a dummy class meant only to distinguish between the ComputerPlayer and the HumanPlayer
+ * This is essentially a dummy class meant only to distinguish between the ComputerPlayer and the HumanPlayer. Its moves come from the GUI through GameState.submitMove.
  * @author Nate Celeste NTC14, Noah Crowley NWC17
  */
 public class HumanPlayer extends Player {
@@ -12,7 +13,8 @@ public class HumanPlayer extends Player {
 		super(playerID);
 	}
 
-    @Override
-    public void play() {
-    }
+	@Override
+	public int requestMove(GameState gameState) {
+		return NO_MOVE; //Wait for the human to click a column
+	}
 }
@@ -1,6 +1,7 @@
 package connect4.players;
 
 import connect4.enums.*;
+import connect4.game.*;
 
 /**
  * This abstract class is to be used as a base for both the HumanPlayer and ComputerPlayer
@@ -8,6 +9,9 @@ import connect4.enums.*;
  */
 public abstract class Player {
 
+	//Returned by requestMove when the move isn't ready yet and will be handed to GameState.submitMove later
+	public static final int NO_MOVE = -1;
+
 	//A bunch of protected stuff so each Player object can function properly
 	protected PlayerID _playerID;
 
@@ -28,8 +32,17 @@ public abstract class Player {
 	}
 
 	/**
-	 * To be implemented by each class that extends from this so as to take its turn
+	 * Asks this Player for its move. The GameState calls this once at the start of each of this Player's turns and plays the column itself,
+	 * so a Player should never touch the Board or move the game along on its own.
+	 * @param gameState The GameState of the game being played
+	 * @return Returns the column to drop a token into, or NO_MOVE if the move will come later through GameState.submitMove
+	 */
+	public abstract int requestMove(GameState gameState);
+
+	/**
+	 * Lets a Player know that the move it is working out in the background won't be needed, because the game was restarted or stopped. Does nothing unless a Player works in the background.
 	 */
-	public abstract void play();
-	
+	public void cancelMove() {
+	}
+
 }
\ No newline at end of file
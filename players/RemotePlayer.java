@@ -0,0 +1,54 @@
+package connect4.players;
+
+import connect4.enums.*;
+import connect4.game.*;
+import java.io.*;
+
+/**
+ * This class is a Player whose moves come from another program, like an engine on the other end of a socket or a pipe.
+ * The protocol is as simple as it gets: one column number per line each way. At the start of each of its turns it sends the column its opponent just played
+ * (nothing on the very first move of the game) and then waits for a line with the column it should play.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class RemotePlayer extends Player {
+
+	//Where the moves come from and where the opponent's moves go
+	private BufferedReader _reader;
+	private Writer _writer;
+
+	/**
+	 * Creates a new RemotePlayer that talks to another program over the given streams
+	 * @param playerID The PlayerID to be associated with this new RemotePlayer
+	 * @param input The stream the other program's moves are read from
+	 * @param output The stream the opponent's moves are written to
+	 */
+	public RemotePlayer(PlayerID playerID, InputStream input, OutputStream output) {
+		super(playerID);
+		_reader = new BufferedReader(new InputStreamReader(input));
+		_writer = new OutputStreamWriter(output);
+	}
+
+	@Override
+	public int requestMove(GameState gameState) {
+		Board board = gameState.getBoard();
+		try {
+			if (board.getMoveCount() > 0) { //Tell the other side what just happened
+				_writer.write(board.getLastMove() + System.lineSeparator());
+				_writer.flush();
+			}
+
+			String line = _reader.readLine();
+			while (line != null && line.trim().isEmpty()) {
+				line = _reader.readLine();
+			}
+			if (line == null) {
+				throw new IllegalStateException(_playerID + " disconnected");
+			}
+			return Integer.parseInt(line.trim());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (NumberFormatException e) {
+			throw new IllegalStateException(_playerID + " sent something that isn't a column: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package connect4.telemetry;
+
+import java.lang.management.*;
+
+/**
+ * This static class reads how many bytes the current thread has allocated since it started, from the JVM's own per-thread counter.
+ * Taking the difference of two readings gives what a piece of code allocated, without a profiler and without counting anything other threads did.
+ * A reading costs about as much as System.nanoTime, so it can be taken around every move.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class AllocationMeter {
+
+	//The JVM's thread bean, or null if this JVM can't count allocations per thread
+	private static final com.sun.management.ThreadMXBean _THREAD_BEAN = _findThreadBean();
+
+	/**
+	 * Determines whether this JVM can count the bytes each thread allocates
+	 * @return Returns true if getAllocatedBytes gives real numbers
+	 */
+	public static boolean isSupported() {
+		return _THREAD_BEAN != null;
+	}
+
+	/**
+	 * Gets the number of bytes the current thread has allocated since it started
+	 * @return Returns the number of bytes, or 0 if this JVM can't count them, so differences just come out as 0
+	 */
+	public static long getAllocatedBytes() {
+		return (_THREAD_BEAN != null) ? _THREAD_BEAN.getCurrentThreadAllocatedBytes() : 0;
+	}
+
+	/**
+	 * Finds the JVM's thread bean and makes sure it is counting allocations
+	 * @return Returns the thread bean, or null if it can't count allocations
+	 */
+	private static com.sun.management.ThreadMXBean _findThreadBean() {
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if (!(threadBean instanceof com.sun.management.ThreadMXBean)) { //Only JVMs built on HotSpot have it
+			return null;
+		}
+
+		com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+		try {
+			if (!allocationBean.isThreadAllocatedMemorySupported()) {
+				return null;
+			}
+			if (!allocationBean.isThreadAllocatedMemoryEnabled()) {
+				allocationBean.setThreadAllocatedMemoryEnabled(true);
+			}
+		}
+		catch (UnsupportedOperationException | SecurityException e) {
+			return null;
+		}
+		return allocationBean;
+	}
+}
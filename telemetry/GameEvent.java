@@ -0,0 +1,33 @@
+package connect4.telemetry;
+
+import jdk.jfr.*;
+
+/**
+ * A Flight Recorder event covering a whole game, from GameState.startGame until the game ends or is stopped, so GC pauses and CPU spikes in a recording can be matched to the game they happened in.
+ * Like every event in this package it costs next to nothing unless a recording is running, so it is always left in.
+ * Record with java -XX:StartFlightRecording=filename=connect4.jfr and look for the "Connect 4" category.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+@Name("connect4.Game")
+@Label("Game")
+@Category("Connect 4")
+@Description("A game from start to finish")
+public class GameEvent extends Event {
+
+	@Label("Columns")
+	public int columns;
+
+	@Label("Rows")
+	public int rows;
+
+	@Label("Connect Length")
+	public int connectLength;
+
+	@Label("Moves")
+	@Description("The number of tokens on the board when the game ended")
+	public int moveCount;
+
+	@Label("Result")
+	@Description("The winner, Draw, or Stopped if the game was thrown away before it finished")
+	public String result;
+}
@@ -0,0 +1,166 @@
+package connect4.telemetry;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * This class counts latencies in a fixed number of buckets so that percentiles can be read off at any time without keeping every value.
+ * Values under 64 nanoseconds get a bucket each, and every power of two above that is split into 32 buckets, so a percentile is never off by more than about 3%.
+ * Everything up to MAXIMUM_NANOS (just under 2^42) fits in the 64 single buckets plus 32 for each of the 36 powers of two from 2^6 to 2^41, 1216 buckets or about 9.5 kilobytes, and anything longer is counted as MAXIMUM_NANOS.
+ * Recording is a handful of arithmetic and two or three atomic adds, with no locks and no allocation, so several threads can record into the same histogram and it can be left on all the time.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class LatencyHistogram {
+
+	//The longest latency that gets its own bucket, a little over 73 minutes
+	public static final long MAXIMUM_NANOS = (1L << 42) - 1;
+
+	//Values below this each get their own bucket, and above it every power of two gets _SUB_BUCKETS buckets
+	private static final int _LINEAR_BUCKETS = 64;
+	private static final int _SUB_BUCKETS = 32;
+	private static final int _SUB_BUCKET_BITS = 5;
+	private static final int _BUCKET_COUNT = _getIndex(MAXIMUM_NANOS) + 1;
+
+	//The count of every bucket, plus a few totals that don't need the buckets at all
+	private final AtomicLongArray _counts;
+	private final AtomicLong _count;
+	private final AtomicLong _totalNanos;
+	private final AtomicLong _maximumNanos;
+
+	/**
+	 * Creates a new, empty LatencyHistogram
+	 */
+	public LatencyHistogram() {
+		_counts = new AtomicLongArray(_BUCKET_COUNT);
+		_count = new AtomicLong();
+		_totalNanos = new AtomicLong();
+		_maximumNanos = new AtomicLong();
+	}
+
+	/**
+	 * Counts one latency
+	 * @param nanos The latency in nanoseconds. Negative values count as 0.
+	 */
+	public void record(long nanos) {
+		long value = Math.min(Math.max(nanos, 0), MAXIMUM_NANOS);
+		_counts.incrementAndGet(_getIndex(value));
+		_count.incrementAndGet();
+		_totalNanos.addAndGet(value);
+
+		long maximum = _maximumNanos.get();
+		while (value > maximum && !_maximumNanos.compareAndSet(maximum, value)) { //Usually the value isn't a new maximum and this is a single read
+			maximum = _maximumNanos.get();
+		}
+	}
+
+	/**
+	 * Adds every latency counted by another LatencyHistogram to this one
+	 * @param histogram The LatencyHistogram to add
+	 */
+	public void add(LatencyHistogram histogram) {
+		for (int i = 0; i < _BUCKET_COUNT; i++) {
+			long count = histogram._counts.get(i);
+			if (count != 0) {
+				_counts.addAndGet(i, count);
+			}
+		}
+		_count.addAndGet(histogram._count.get());
+		_totalNanos.addAndGet(histogram._totalNanos.get());
+		_maximumNanos.accumulateAndGet(histogram._maximumNanos.get(), Math::max);
+	}
+
+	/**
+	 * Creates a copy of this LatencyHistogram as it stands, so that percentiles can be read from numbers that don't keep changing
+	 * @return Returns the copy
+	 */
+	public LatencyHistogram copy() {
+		LatencyHistogram copy = new LatencyHistogram();
+		copy.add(this);
+		return copy;
+	}
+
+	/**
+	 * Forgets every latency counted so far
+	 */
+	public void clear() {
+		for (int i = 0; i < _BUCKET_COUNT; i++) {
+			_counts.set(i, 0);
+		}
+		_count.set(0);
+		_totalNanos.set(0);
+		_maximumNanos.set(0);
+	}
+
+	/**
+	 * Gets the number of latencies counted
+	 * @return Returns the number of latencies counted
+	 */
+	public long getCount() {
+		return _count.get();
+	}
+
+	/**
+	 * Gets the average latency
+	 * @return Returns the average latency in nanoseconds, or 0 if nothing has been counted
+	 */
+	public double getMeanNanos() {
+		long count = _count.get();
+		return (count > 0) ? (double) _totalNanos.get() / count : 0;
+	}
+
+	/**
+	 * Gets the longest latency counted, exactly
+	 * @return Returns the longest latency in nanoseconds, or 0 if nothing has been counted
+	 */
+	public long getMaximumNanos() {
+		return _maximumNanos.get();
+	}
+
+	/**
+	 * Gets the latency that the given percentage of latencies are at or below. The answer is the top of the bucket the percentile falls in, but never more than the maximum.
+	 * @param percentile The percentile, from 0 to 100, like 99 for p99
+	 * @return Returns the latency in nanoseconds, or 0 if nothing has been counted
+	 */
+	public long getPercentileNanos(double percentile) {
+		long count = _count.get();
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = Math.max((long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100), 1);
+		long seen = 0;
+		for (int i = 0; i < _BUCKET_COUNT; i++) {
+			seen += _counts.get(i);
+			if (seen >= rank) {
+				return Math.min(_getHighestValue(i), getMaximumNanos());
+			}
+		}
+		return getMaximumNanos(); //Only reachable if counts were added while looking
+	}
+
+	/**
+	 * Finds the bucket a value is counted in
+	 * @param value The value, from 0 to MAXIMUM_NANOS
+	 * @return Returns the index of the bucket
+	 */
+	private static int _getIndex(long value) {
+		if (value < _LINEAR_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - _SUB_BUCKET_BITS; //So that value >> shift is from 32 to 63
+		return _LINEAR_BUCKETS + (shift - 1) * _SUB_BUCKETS + (int) (value >> shift) - _SUB_BUCKETS;
+	}
+
+	/**
+	 * Finds the highest value counted in a bucket
+	 * @param index The index of the bucket
+	 * @return Returns the highest value in the bucket
+	 */
+	private static long _getHighestValue(int index) {
+		if (index < _LINEAR_BUCKETS) {
+			return index;
+		}
+		int shift = (index - _LINEAR_BUCKETS) / _SUB_BUCKETS + 1;
+		long top = (index - _LINEAR_BUCKETS) % _SUB_BUCKETS + _SUB_BUCKETS;
+		return ((top + 1) << shift) - 1;
+	}
+}
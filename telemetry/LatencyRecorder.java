@@ -0,0 +1,289 @@
+package connect4.telemetry;
+
+import connect4.enums.*;
+import connect4.events.*;
+import connect4.game.*;
+import connect4.players.*;
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * This class keeps a LatencyHistogram of how long the AI takes to decide on its moves, split up by engine configuration and by game phase,
+ * so that the whole spread of move times can be looked at instead of just the last one.
+ * The phase is the third of the board that was already filled when the move was searched: the opening, the middlegame or the endgame.
+ * Every configuration takes a fixed amount of memory, however many moves are recorded, and recording a move never locks or allocates unless its configuration is new.
+ * The percentiles can be read at any time, written out as CSV or JSON, or written out to a file every so often in the background.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class LatencyRecorder {
+
+	//The phases moves are split into, by how much of the board was filled when the move was searched
+	public static final String[] PHASES = { "opening", "middlegame", "endgame" };
+
+	//The percentiles that get exported
+	private static final double[] _PERCENTILES = { 50, 90, 99 };
+
+	//A LatencyHistogram for each phase of each configuration, sorted by configuration so exports always come out in the same order
+	private ConcurrentMap<String, LatencyHistogram[]> _histograms;
+
+	//Writing the percentiles out every so often. Only created once an export is scheduled.
+	private ScheduledExecutorService _exportExecutor;
+
+	/**
+	 * Creates a new, empty LatencyRecorder
+	 */
+	public LatencyRecorder() {
+		_histograms = new ConcurrentSkipListMap<String, LatencyHistogram[]>();
+	}
+
+	/**
+	 * Starts recording every move the given ComputerPlayer decides on, from its searchCompleted event
+	 * @param computerPlayer The ComputerPlayer to record
+	 * @param gameState The GameState the ComputerPlayer plays in, which tells the recorder how far along the game is
+	 */
+	public void listenTo(ComputerPlayer computerPlayer, GameState gameState) {
+		computerPlayer.searchCompleted.addListener(new SearchCompletedHandler(computerPlayer, gameState));
+	}
+
+	/**
+	 * Records the latency of one move
+	 * @param configuration The name of the engine configuration that decided on the move
+	 * @param phase The index of the game phase in PHASES
+	 * @param nanos How long the move took, in nanoseconds
+	 */
+	public void record(String configuration, int phase, long nanos) {
+		LatencyHistogram[] histograms = _histograms.get(configuration);
+		if (histograms == null) {
+			histograms = new LatencyHistogram[PHASES.length];
+			for (int i = 0; i < histograms.length; i++) {
+				histograms[i] = new LatencyHistogram();
+			}
+			LatencyHistogram[] existingHistograms = _histograms.putIfAbsent(configuration, histograms);
+			if (existingHistograms != null) { //Another thread got there first
+				histograms = existingHistograms;
+			}
+		}
+		histograms[phase].record(nanos);
+	}
+
+	/**
+	 * Works out which game phase a position is in
+	 * @param moveCount The number of tokens on the board
+	 * @param spaceCount The number of spaces on the board
+	 * @return Returns the index of the game phase in PHASES
+	 */
+	public static int getPhase(int moveCount, long spaceCount) {
+		return (int) Math.min((long) Math.max(moveCount, 0) * PHASES.length / Math.max(spaceCount, 1), PHASES.length - 1);
+	}
+
+	/**
+	 * Gets the configurations that have been recorded so far
+	 * @return Returns the names of the configurations, in alphabetical order
+	 */
+	public Set<String> getConfigurations() {
+		return Collections.unmodifiableSet(_histograms.keySet());
+	}
+
+	/**
+	 * Gets a copy of the LatencyHistogram for one phase of one configuration, which won't change as more moves are recorded
+	 * @param configuration The name of the configuration
+	 * @param phase The index of the game phase in PHASES, or -1 for every phase together
+	 * @return Returns the copy, which is empty if the configuration has never been recorded
+	 */
+	public LatencyHistogram getSnapshot(String configuration, int phase) {
+		LatencyHistogram snapshot = new LatencyHistogram();
+		LatencyHistogram[] histograms = _histograms.get(configuration);
+		if (histograms != null) {
+			for (int i = 0; i < histograms.length; i++) {
+				if (phase < 0 || phase == i) {
+					snapshot.add(histograms[i]);
+				}
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Forgets every move recorded so far
+	 */
+	public void clear() {
+		_histograms.clear();
+	}
+
+	/**
+	 * Writes the move count, mean, p50, p90, p99 and maximum of every phase of every configuration, plus every phase together, as CSV. Times are in milliseconds.
+	 * @param writer Where to write the CSV
+	 */
+	public void writeCsv(PrintWriter writer) {
+		writer.println("configuration,phase,count,mean_ms,p50_ms,p90_ms,p99_ms,max_ms");
+		for (String configuration : _histograms.keySet()) {
+			for (int phase = -1; phase < PHASES.length; phase++) {
+				LatencyHistogram snapshot = getSnapshot(configuration, phase);
+				writer.printf(Locale.ROOT, "\"%s\",%s,%d,%.3f", configuration.replace("\"", "\"\""), _getPhaseName(phase), snapshot.getCount(), snapshot.getMeanNanos() / 1e6);
+				for (double percentile : _PERCENTILES) {
+					writer.printf(Locale.ROOT, ",%.3f", snapshot.getPercentileNanos(percentile) / 1e6);
+				}
+				writer.printf(Locale.ROOT, ",%.3f%n", snapshot.getMaximumNanos() / 1e6);
+			}
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Writes the same numbers as writeCsv as a JSON array, with one object per phase of every configuration
+	 * @param writer Where to write the JSON
+	 */
+	public void writeJson(PrintWriter writer) {
+		writer.println("[");
+		boolean isFirst = true;
+		for (String configuration : _histograms.keySet()) {
+			for (int phase = -1; phase < PHASES.length; phase++) {
+				LatencyHistogram snapshot = getSnapshot(configuration, phase);
+				if (!isFirst) {
+					writer.println(",");
+				}
+				isFirst = false;
+				writer.printf(Locale.ROOT, "  {\"configuration\": \"%s\", \"phase\": \"%s\", \"count\": %d, \"mean_ms\": %.3f",
+					configuration.replace("\\", "\\\\").replace("\"", "\\\""), _getPhaseName(phase), snapshot.getCount(), snapshot.getMeanNanos() / 1e6);
+				for (double percentile : _PERCENTILES) {
+					writer.printf(Locale.ROOT, ", \"p%d_ms\": %.3f", (int) percentile, snapshot.getPercentileNanos(percentile) / 1e6);
+				}
+				writer.printf(Locale.ROOT, ", \"max_ms\": %.3f}", snapshot.getMaximumNanos() / 1e6);
+			}
+		}
+		writer.println();
+		writer.println("]");
+		writer.flush();
+	}
+
+	/**
+	 * Writes the percentiles to a file, as JSON if its name ends in .json and as CSV otherwise.
+	 * The file is written next to where it goes and then moved into place, so nothing reading it ever sees half a file.
+	 * @param path The file to write
+	 * @throws IOException Thrown if the file can't be written
+	 */
+	public void export(Path path) throws IOException {
+		Path absolutePath = path.toAbsolutePath();
+		Path temporaryPath = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+		try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8))) {
+			if (absolutePath.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")) {
+				writeJson(writer);
+			}
+			else {
+				writeCsv(writer);
+			}
+		}
+		try {
+			Files.move(temporaryPath, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			Files.deleteIfExists(temporaryPath);
+			throw e;
+		}
+	}
+
+	/**
+	 * Starts writing the percentiles to a file every so often on a background thread, replacing any export already scheduled
+	 * @param path The file to write, as in export
+	 * @param periodMillis How many milliseconds to wait between exports
+	 */
+	public synchronized void startExporting(Path path, long periodMillis) {
+		stopExporting();
+		_exportExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "connect4-latency-export");
+			thread.setDaemon(true); //Exporting should never keep the program running
+			return thread;
+		});
+		_exportExecutor.scheduleWithFixedDelay(new ExportTask(path), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops the background exports started by startExporting. Call export afterwards to write out the final numbers.
+	 */
+	public synchronized void stopExporting() {
+		if (_exportExecutor != null) {
+			_exportExecutor.shutdownNow();
+			_exportExecutor = null;
+		}
+	}
+
+	/**
+	 * Gets the name of a game phase for exporting
+	 * @param phase The index of the game phase in PHASES, or -1 for every phase together
+	 * @return Returns the name of the phase
+	 */
+	private static String _getPhaseName(int phase) {
+		return (phase < 0) ? "all" : PHASES[phase];
+	}
+
+	/**
+	 * This class records the latency of every move a ComputerPlayer decides on. It fires just before the move is played, so the Board still shows the position that was searched.
+	 * The configuration's name is only worked out again when the ComputerPlayer's settings change.
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private class SearchCompletedHandler implements IEventListener<ComputerPlayer.SearchCompletedEventData> {
+		private ComputerPlayer _computerPlayer;
+		private GameState _gameState;
+		private SearchStrategy _searchStrategy;
+		private int _depth, _threadCount;
+		private boolean _isPonderingEnabled, _hasClock;
+		private String _configuration;
+
+		private SearchCompletedHandler(ComputerPlayer computerPlayer, GameState gameState) {
+			_computerPlayer = computerPlayer;
+			_gameState = gameState;
+		}
+
+		@Override
+		public void handleNotification(ComputerPlayer.SearchCompletedEventData eventData) {
+			Board board = _gameState.getBoard();
+			int phase = getPhase(board.getMoveCount(), board.getNumberOfSpaces());
+			record(_getConfiguration(), phase, eventData.statistics.getNanos());
+		}
+
+		/**
+		 * Gets the name of the ComputerPlayer's configuration, like "7x6 connect 4, Heuristic, depth 10, 1 thread"
+		 * @return Returns the name of the configuration
+		 */
+		private String _getConfiguration() {
+			if (_configuration == null || _searchStrategy != _computerPlayer.getSearchStrategy() || _depth != _computerPlayer.getSearchDepth()
+					|| _threadCount != _computerPlayer.getSearchThreadCount() || _isPonderingEnabled != _computerPlayer.isPonderingEnabled()
+					|| _hasClock != (_computerPlayer.getTimeManager() != null)) {
+				_searchStrategy = _computerPlayer.getSearchStrategy();
+				_depth = _computerPlayer.getSearchDepth();
+				_threadCount = _computerPlayer.getSearchThreadCount();
+				_isPonderingEnabled = _computerPlayer.isPonderingEnabled();
+				_hasClock = _computerPlayer.getTimeManager() != null;
+				_configuration = String.format("%dx%d connect %d, %s, depth %d, %d thread%s%s%s", _gameState.getNumberOfColumns(), _gameState.getNumberOfRows(),
+					_gameState.getConnectLength(), _searchStrategy, _depth, _threadCount, (_threadCount == 1) ? "" : "s",
+					_isPonderingEnabled ? ", pondering" : "", _hasClock ? ", clock" : "");
+			}
+			return _configuration;
+		}
+	}
+
+	/**
+	 * This class writes the percentiles out on the export thread. A failed export is reported and tried again next time.
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private class ExportTask implements Runnable {
+		private Path _path;
+
+		private ExportTask(Path path) {
+			_path = path;
+		}
+
+		@Override
+		public void run() {
+			try {
+				export(_path);
+			}
+			catch (IOException e) {
+				System.err.println("Couldn't export the move latencies: " + e.getMessage());
+			}
+		}
+	}
+}
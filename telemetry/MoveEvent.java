@@ -0,0 +1,33 @@
+package connect4.telemetry;
+
+import jdk.jfr.*;
+
+/**
+ * A Flight Recorder event covering one token being put on a Board with makeMove, including everything listening to the Board, like the GUI repainting.
+ * There's no stack trace, since every move comes from the same few places and it would cost more than the move itself.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+@Name("connect4.Move")
+@Label("Move")
+@Category("Connect 4")
+@Description("A token put on a Board")
+@StackTrace(false)
+public class MoveEvent extends Event {
+
+	@Label("Player")
+	public String player;
+
+	@Label("Column")
+	public int column;
+
+	@Label("Row")
+	public int row;
+
+	@Label("Move Number")
+	@Description("The number of tokens on the board after the move")
+	public int moveNumber;
+
+	@Label("Search Mode")
+	@Description("Whether the Board was in search mode, like the GameState's ghost Board, so nobody was told about the move")
+	public boolean isSearchMode;
+}
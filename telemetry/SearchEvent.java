@@ -0,0 +1,51 @@
+package connect4.telemetry;
+
+import jdk.jfr.*;
+
+/**
+ * A Flight Recorder event covering the AI deciding on one move, on whichever thread it searched on, with what the search found.
+ * Searches that were cancelled are recorded too, since they still took the time.
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+@Name("connect4.Search")
+@Label("Search")
+@Category("Connect 4")
+@Description("The AI deciding on a move, from the opening book, the Solver or the SearchEngine")
+public class SearchEvent extends Event {
+
+	@Label("Player")
+	public String player;
+
+	@Label("Strategy")
+	public String strategy;
+
+	@Label("Move Number")
+	@Description("The number of tokens on the board when the search started")
+	public int moveNumber;
+
+	@Label("Depth")
+	@Description("The search depth the AI was set to")
+	public int depth;
+
+	@Label("Depth Reached")
+	@Description("The deepest depth finished, or 0 if the move didn't come from a search")
+	public int depthReached;
+
+	@Label("Nodes")
+	public long nodeCount;
+
+	@Label("Column")
+	public int column;
+
+	@Label("Score")
+	public int score;
+
+	@Label("Allocated")
+	@Description("The number of bytes allocated on the thread that searched")
+	@DataAmount
+	public long allocatedBytes;
+
+	@Label("Cancelled")
+	@Description("Whether the move was thrown away because the search was cancelled")
+	public boolean isCancelled;
+}
@@ -0,0 +1,80 @@
+package connect4.tools;
+
+import connect4.ai.*;
+import connect4.benchmarks.*;
+import connect4.enums.*;
+import connect4.game.*;
+import connect4.players.*;
+import connect4.telemetry.*;
+
+/**
+ * This class checks that the AI's moves stay within an allocation budget, so allocations can't creep back into the search without anyone noticing.
+ * From every position in BenchmarkPositions it has a ComputerPlayer decide on a move over and over, with an empty TranspositionTable each time so every search does the same work.
+ * The first searches warm up the JIT and aren't counted. After that the most bytes any one move allocated, from the move's SearchStatistics, has to be within the budget.
+ * It prints a line per position and exits with status 1 if any position went over the budget, or if this JVM can't count allocations, so it can fail a build.
+ * Usage: AllocationBudgetCheck [budgetBytes] [depth] [warmupSearches] [searches]
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class AllocationBudgetCheck {
+
+	//Defaults for when no arguments are given. A move allocates about 300 bytes today, the SearchLimits, the SearchStatistics and the principal variation,
+	//and the budget leaves room for the odd extra allocation from the JIT without letting anything that scales with the search through.
+	private static final long _DEFAULT_BUDGET_BYTES = 1024;
+	private static final int _DEFAULT_WARMUP_SEARCHES = 200;
+	private static final int _DEFAULT_SEARCHES = 20;
+
+	/**
+	 * Runs the check
+	 * @param args The budget in bytes per move, the search depth, and the number of warmup and measured searches per position, all optional
+	 */
+	public static void main(String[] args) {
+		long budgetBytes = (args.length > 0) ? Long.parseLong(args[0]) : _DEFAULT_BUDGET_BYTES;
+		int depth = (args.length > 1) ? Integer.parseInt(args[1]) : SearchEngine.DEFAULT_DEPTH;
+		int warmupSearches = (args.length > 2) ? Integer.parseInt(args[2]) : _DEFAULT_WARMUP_SEARCHES;
+		int searches = (args.length > 3) ? Integer.parseInt(args[3]) : _DEFAULT_SEARCHES;
+
+		if (!AllocationMeter.isSupported()) {
+			System.out.println("This JVM can't count the bytes each thread allocates, so there is nothing to check");
+			System.exit(1);
+		}
+
+		System.out.printf("Budget of %d bytes per move at depth %d%n", budgetBytes, depth);
+		boolean isWithinBudget = true;
+		for (int position = 0; position < BenchmarkPositions.NAMES.length; position++) {
+			long maximumBytes = _measure(BenchmarkPositions.getMoves(position), depth, warmupSearches, searches);
+			boolean isPassing = maximumBytes <= budgetBytes;
+			isWithinBudget &= isPassing;
+			System.out.printf("%-10s %8d bytes %s%n", BenchmarkPositions.NAMES[position], maximumBytes, isPassing ? "ok" : "OVER BUDGET");
+		}
+
+		if (!isWithinBudget) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Has a ComputerPlayer decide on a move from one position over and over and finds the most any counted move allocated
+	 * @param moves The columns played to reach the position, player 1 first
+	 * @param depth The search depth
+	 * @param warmupSearches The number of searches that aren't counted
+	 * @param searches The number of searches that are counted
+	 * @return Returns the most bytes a counted move allocated
+	 */
+	private static long _measure(int[] moves, int depth, int warmupSearches, int searches) {
+		GameState gameState = new GameState(GameState.DEFAULT_COLUMNS, GameState.DEFAULT_ROWS, GameState.DEFAULT_CONNECT_LENGTH, PlayerType.HUMAN, PlayerType.HUMAN);
+		BenchmarkPositions.setUp(gameState.getBoard(), moves);
+		ComputerPlayer computerPlayer = new ComputerPlayer(gameState, BenchmarkPositions.getPlayerToMove(moves));
+		computerPlayer.setOpeningBook(null); //The book would answer without searching
+		computerPlayer.setSearchDepth(depth);
+
+		long maximumBytes = 0;
+		for (int i = 0; i < warmupSearches + searches; i++) {
+			computerPlayer.clearTranspositionTable();
+			computerPlayer.requestMove(gameState);
+			if (i >= warmupSearches) {
+				maximumBytes = Math.max(maximumBytes, computerPlayer.getLastSearchStatistics().getAllocatedBytes());
+			}
+		}
+		return maximumBytes;
+	}
+}
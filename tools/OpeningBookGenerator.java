@@ -0,0 +1,115 @@
+package connect4.tools;
+
+import connect4.ai.*;
+import connect4.enums.*;
+import connect4.game.*;
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * This class builds an opening book file ahead of time. It visits every position reachable within a number of moves from the empty board, works out the best move for each one, and writes them all to a file for OpeningBook to map.
+ * Each position is first given to the Solver, and if the Solver can't prove it within its node limit the SearchEngine searches it to a fixed depth instead.
+ * Usage: OpeningBookGenerator [file] [ply] [depth] [solverNodeLimit]
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class OpeningBookGenerator {
+
+	//Defaults for when no arguments are given
+	private static final int _DEFAULT_PLY = 4;
+	private static final int _DEFAULT_DEPTH = 14;
+	private static final long _DEFAULT_SOLVER_NODE_LIMIT = 2000000L;
+
+	//What every position gets evaluated with
+	private static SearchEngine _searchEngine;
+	private static Solver _solver;
+	private static int _depth;
+	private static int _solvedCount;
+
+	/**
+	 * Builds the book
+	 * @param args The file to write, the number of moves the book covers, the SearchEngine's depth and the Solver's node limit per position, all optional
+	 * @throws IOException Thrown if the file can't be written
+	 */
+	public static void main(String[] args) throws IOException {
+		Path path = Paths.get((args.length > 0) ? args[0] : OpeningBook.DEFAULT_FILE_NAME);
+		int maximumPly = (args.length > 1) ? Integer.parseInt(args[1]) : _DEFAULT_PLY;
+		_depth = (args.length > 2) ? Integer.parseInt(args[2]) : _DEFAULT_DEPTH;
+		long solverNodeLimit = (args.length > 3) ? Long.parseLong(args[3]) : _DEFAULT_SOLVER_NODE_LIMIT;
+
+		_searchEngine = new SearchEngine(_depth);
+		_searchEngine.setThreadCount(Runtime.getRuntime().availableProcessors());
+		_solver = new Solver();
+		_solver.setNodeLimit(solverNodeLimit);
+
+		BitBoard bitBoard = new BitBoard(7, 6);
+		OpeningBook.Builder builder = new OpeningBook.Builder(bitBoard.getNumberOfColumns(), bitBoard.getNumberOfRows(), maximumPly);
+
+		long startTime = System.currentTimeMillis();
+		_addPositions(builder, bitBoard, PlayerID.PLAYER1, maximumPly);
+		_searchEngine.shutdown();
+
+		builder.write(path);
+		System.out.printf("Wrote %d positions (%d solved exactly) to %s in %.1f seconds%n",
+			builder.getEntryCount(), _solvedCount, path, (System.currentTimeMillis() - startTime) / 1000.0);
+	}
+
+	/**
+	 * Adds a position and everything reachable from it to the book
+	 * @param builder The Builder collecting the book
+	 * @param bitBoard The position, which is put back the way it was afterward
+	 * @param playerID The PlayerID of the player whose turn it is
+	 * @param maximumPly The number of moves the book covers
+	 */
+	private static void _addPositions(OpeningBook.Builder builder, BitBoard bitBoard, PlayerID playerID, int maximumPly) {
+		if (builder.contains(bitBoard, playerID)) { //Already reached through a different order of moves, or its mirror image was
+			return;
+		}
+		_addPosition(builder, bitBoard, playerID);
+
+		if (bitBoard.getMoveCount() >= maximumPly) {
+			return;
+		}
+		for (int column = 0; column < bitBoard.getNumberOfColumns(); column++) {
+			if (!bitBoard.canPlay(column) || bitBoard.isWinningMove(column, playerID)) { //The game would be over, so there's nothing to look up
+				continue;
+			}
+			bitBoard.play(column, playerID);
+			_addPositions(builder, bitBoard, playerID.getOppositePlayerID(), maximumPly);
+			bitBoard.undo(column);
+		}
+	}
+
+	/**
+	 * Works out the best move and score of a single position and adds it to the book
+	 * @param builder The Builder collecting the book
+	 * @param bitBoard The position
+	 * @param playerID The PlayerID of the player whose turn it is
+	 */
+	private static void _addPosition(OpeningBook.Builder builder, BitBoard bitBoard, PlayerID playerID) {
+		SolverResult result = _solver.analyze(bitBoard, playerID);
+		if (result.getOutcome() != GameOutcome.UNKNOWN) {
+			builder.add(bitBoard, playerID, result.getBestColumn(), _toSearchScore(result));
+			_solvedCount++;
+			return;
+		}
+
+		int column = _searchEngine.chooseColumn(bitBoard, playerID, new SearchLimits(_depth));
+		builder.add(bitBoard, playerID, column, _searchEngine.getBestScore());
+	}
+
+	/**
+	 * Turns what the Solver proved into a score on the SearchEngine's scale, where a win in n moves is worth SearchEngine.WIN_SCORE - n
+	 * @param result The SolverResult
+	 * @return Returns the score
+	 */
+	private static int _toSearchScore(SolverResult result) {
+		switch (result.getOutcome()) {
+			case WIN:
+				return SearchEngine.WIN_SCORE - result.getMovesToEnd();
+			case LOSS:
+				return -(SearchEngine.WIN_SCORE - result.getMovesToEnd());
+			default:
+				return 0;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package connect4.tools;
+
+import connect4.ai.*;
+import connect4.enums.*;
+import connect4.game.*;
+import java.util.*;
+
+/**
+ * This class measures how the SearchEngine speeds up with more threads. It searches the same set of positions to a fixed depth with 1, 2, 4... threads and prints the time, nodes and speedup for each.
+ * Usage: SearchScaling [maximumThreads] [depth] [positions]
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class SearchScaling {
+
+	//Defaults for when no arguments are given
+	private static final int _DEFAULT_DEPTH = 14;
+	private static final int _DEFAULT_POSITIONS = 20;
+	private static final long _SEED = 7L;
+
+	/**
+	 * Runs the measurement
+	 * @param args The maximum thread count, the depth and the number of positions, all optional
+	 */
+	public static void main(String[] args) {
+		int maximumThreads = (args.length > 0) ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int depth = (args.length > 1) ? Integer.parseInt(args[1]) : _DEFAULT_DEPTH;
+		int positionCount = (args.length > 2) ? Integer.parseInt(args[2]) : _DEFAULT_POSITIONS;
+
+		BitBoard[] positions = createPositions(positionCount, new Random(_SEED));
+
+		System.out.println("threads,milliseconds,nodes,nodesPerSecond,speedup");
+		double baselineMillis = 0;
+		for (int threads = 1; threads <= maximumThreads; threads *= 2) {
+			SearchEngine searchEngine = new SearchEngine(depth);
+			searchEngine.setThreadCount(threads);
+			searchEngine.chooseColumn(positions[0], _getPlayerToMove(positions[0])); //Warm up the JIT before timing anything
+
+			long nodes = 0;
+			long startTime = System.nanoTime();
+			for (BitBoard position : positions) {
+				searchEngine.getTranspositionTable().clear(); //Every position starts cold so the runs are comparable
+				searchEngine.chooseColumn(position, _getPlayerToMove(position));
+				nodes += searchEngine.getNodeCount();
+			}
+			double millis = (System.nanoTime() - startTime) / 1e6;
+			searchEngine.shutdown();
+
+			if (threads == 1) {
+				baselineMillis = millis;
+			}
+			System.out.printf("%d,%.1f,%d,%.0f,%.2f%n", threads, millis, nodes, nodes / millis * 1000, baselineMillis / millis);
+
+			if (threads < maximumThreads && threads * 2 > maximumThreads) { //Make sure the maximum itself is measured even if it isn't a power of two
+				threads = maximumThreads / 2;
+			}
+		}
+	}
+
+	/**
+	 * Creates random positions a few moves into the game, none of which are already won
+	 * @param count The number of positions to create
+	 * @param random The Random to pick moves with
+	 * @return Returns the positions
+	 */
+	public static BitBoard[] createPositions(int count, Random random) {
+		BitBoard[] positions = new BitBoard[count];
+		for (int i = 0; i < count; i++) {
+			BitBoard bitBoard = new BitBoard(7, 6);
+			PlayerID playerID = PlayerID.PLAYER1;
+			int moves = 4 + random.nextInt(10);
+			for (int move = 0; move < moves; move++) {
+				int column = random.nextInt(bitBoard.getNumberOfColumns());
+				if (!bitBoard.canPlay(column) || bitBoard.isWinningMove(column, playerID)) {
+					move--;
+					continue;
+				}
+				bitBoard.play(column, playerID);
+				playerID = playerID.getOppositePlayerID();
+			}
+			positions[i] = bitBoard;
+		}
+		return positions;
+	}
+
+	/**
+	 * Works out whose turn it is, assuming player 1 went first
+	 * @param bitBoard The position
+	 * @return Returns the PlayerID of the player to move
+	 */
+	private static PlayerID _getPlayerToMove(BitBoard bitBoard) {
+		return (bitBoard.getMoveCount() % 2 == 0) ? PlayerID.PLAYER1 : PlayerID.PLAYER2;
+	}
+}
@@ -0,0 +1,348 @@
+package connect4.tools;
+
+import connect4.ai.*;
+import connect4.enums.*;
+import connect4.events.*;
+import connect4.game.*;
+import connect4.players.*;
+import connect4.telemetry.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * This class plays engine-vs-engine games without the GUI, on every core at once, to measure changes to the AI and to give the game code a real workout.
+ * Two engines, A and B, each a ComputerPlayer with its own search depth, play each random opening twice, once from each side, so neither gets the better openings.
+ * Every game goes through a real GameState, restarted between games, and the GameState is checked for consistency after every game.
+ * At the end it prints the games per second, A's wins, draws and losses, and each engine's average move time, nodes per second, depth, cutoff rate, TranspositionTable hit rate and bytes allocated per move,
+ * all taken from the SearchStatistics every ComputerPlayer publishes, followed by the p50, p90, p99 and maximum move time of every engine configuration in every game phase.
+ * Given a latency file, those percentiles are also written to it as CSV, or as JSON if its name ends in .json, every few seconds while the games are played and once more at the end.
+ * Usage: Tournament [games] [threads] [depthA] [depthB] [openingMoves] [columns] [rows] [connectLength] [latencyFile]
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class Tournament {
+
+	//Defaults for when no arguments are given
+	private static final int _DEFAULT_GAMES = 1000;
+	private static final int _DEFAULT_DEPTH = 8;
+	private static final int _DEFAULT_OPENING_MOVES = 4;
+	private static final long _SEED = 7L;
+
+	//Small tables, since every thread has four engines and each table is cleared before every game
+	private static final int _TRANSPOSITION_TABLE_MEGABYTES = 4;
+
+	//Which engine is which in the statistics
+	private static final int _ENGINE_A = 0;
+	private static final int _ENGINE_B = 1;
+
+	//How often the latency file gets written while the games are played
+	private static final long _LATENCY_EXPORT_MILLIS = 5000;
+
+	/**
+	 * Runs the tournament
+	 * @param args The number of games, threads, engine A's depth, engine B's depth, random opening moves, columns, rows, connect length and latency file, all optional
+	 * @throws InterruptedException Thrown if the tournament is interrupted while waiting on the games
+	 * @throws ExecutionException Thrown if a thread fails outside of a game
+	 * @throws IOException Thrown if the latency file can't be written
+	 */
+	public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
+		int games = (args.length > 0) ? Integer.parseInt(args[0]) : _DEFAULT_GAMES;
+		int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int depthA = (args.length > 2) ? Integer.parseInt(args[2]) : _DEFAULT_DEPTH;
+		int depthB = (args.length > 3) ? Integer.parseInt(args[3]) : depthA;
+		int openingMoves = (args.length > 4) ? Integer.parseInt(args[4]) : _DEFAULT_OPENING_MOVES;
+		int columns = (args.length > 5) ? Integer.parseInt(args[5]) : GameState.DEFAULT_COLUMNS;
+		int rows = (args.length > 6) ? Integer.parseInt(args[6]) : GameState.DEFAULT_ROWS;
+		int connectLength = (args.length > 7) ? Integer.parseInt(args[7]) : GameState.DEFAULT_CONNECT_LENGTH;
+		Path latencyPath = (args.length > 8) ? Paths.get(args[8]) : null;
+
+		int openingCount = (games + 1) / 2; //Every opening is played from both sides
+		AtomicInteger nextOpening = new AtomicInteger();
+		LatencyRecorder latencyRecorder = new LatencyRecorder();
+		if (latencyPath != null) {
+			latencyRecorder.startExporting(latencyPath, _LATENCY_EXPORT_MILLIS);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<TournamentResults>> futures = new ArrayList<Future<TournamentResults>>();
+		long startTime = System.nanoTime();
+		for (int i = 0; i < threads; i++) {
+			futures.add(executor.submit(new TournamentWorker(columns, rows, connectLength, depthA, depthB, openingMoves, openingCount, nextOpening, latencyRecorder)));
+		}
+
+		TournamentResults results = new TournamentResults();
+		for (Future<TournamentResults> future : futures) {
+			results.add(future.get());
+		}
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		executor.shutdown();
+		if (latencyPath != null) {
+			latencyRecorder.stopExporting();
+			latencyRecorder.export(latencyPath);
+		}
+
+		System.out.printf("%d games of %dx%d connect %d on %d threads, engine A at depth %d against engine B at depth %d, %d random opening moves%n",
+			results._games, columns, rows, connectLength, threads, depthA, depthB, openingMoves);
+		System.out.printf("%.1f seconds, %.1f games per second%n", seconds, results._games / seconds);
+		System.out.printf("Engine A: %d wins (%.1f%%), %d draws (%.1f%%), %d losses (%.1f%%)%n",
+			results._winsA, _percent(results._winsA, results._games), results._draws, _percent(results._draws, results._games), results._lossesA, _percent(results._lossesA, results._games));
+		_printEngine("Engine A", results, _ENGINE_A);
+		_printEngine("Engine B", results, _ENGINE_B);
+		_printLatencies(latencyRecorder);
+		if (results._errors > 0) {
+			System.out.println(results._errors + " games went wrong, the first one: " + results._firstError);
+		}
+	}
+
+	/**
+	 * Prints the move time, node throughput and search statistics of one engine
+	 * @param name The name to print the engine as
+	 * @param results The results of the tournament
+	 * @param engine Which engine, _ENGINE_A or _ENGINE_B
+	 */
+	private static void _printEngine(String name, TournamentResults results, int engine) {
+		long moves = Math.max(results._moves[engine], 1);
+		double millis = results._nanos[engine] / 1e6;
+		System.out.printf("%s: %d moves, %.3f milliseconds per move, %d nodes per move, %.0f nodes per second, depth %.1f, cutoff rate %.1f%%, transposition hit rate %.1f%%, %d bytes allocated per move%n",
+			name, results._moves[engine], millis / moves, results._nodes[engine] / moves, results._nodes[engine] / Math.max(millis, 1e-3) * 1000,
+			(double) results._depths[engine] / moves, _percent(results._cutoffs[engine], results._interiorNodes[engine]),
+			_percent(results._transpositionHits[engine], results._transpositionProbes[engine]), results._allocatedBytes[engine] / moves);
+	}
+
+	/**
+	 * Prints the move time percentiles of every engine configuration in every game phase
+	 * @param latencyRecorder The LatencyRecorder the engines' moves were recorded in
+	 */
+	private static void _printLatencies(LatencyRecorder latencyRecorder) {
+		for (String configuration : latencyRecorder.getConfigurations()) {
+			System.out.println("Move times of " + configuration + ":");
+			for (int phase = 0; phase < LatencyRecorder.PHASES.length; phase++) {
+				LatencyHistogram histogram = latencyRecorder.getSnapshot(configuration, phase);
+				System.out.printf("  %-10s %7d moves, p50 %.3f, p90 %.3f, p99 %.3f, max %.3f milliseconds%n", LatencyRecorder.PHASES[phase], histogram.getCount(),
+					histogram.getPercentileNanos(50) / 1e6, histogram.getPercentileNanos(90) / 1e6, histogram.getPercentileNanos(99) / 1e6, histogram.getMaximumNanos() / 1e6);
+			}
+		}
+	}
+
+	/**
+	 * Works out a percentage
+	 * @param count The count
+	 * @param total The total
+	 * @return Returns count as a percentage of total, or 0 if the total is 0
+	 */
+	private static double _percent(long count, long total) {
+		return (total > 0) ? 100.0 * count / total : 0;
+	}
+
+	/**
+	 * This class plays games on one thread until every opening has been played, with a GameState and four engines of its own (A and B for each side) that it reuses for every game
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private static class TournamentWorker implements Callable<TournamentResults> {
+		private int _openingMoves, _openingCount;
+		private AtomicInteger _nextOpening;
+		private GameState _gameState;
+		private ComputerPlayer[][] _engines; //By engine, then by side
+		private Position _openingPosition; //Scratch space for picking random openings
+		private TournamentResults _results;
+
+		private TournamentWorker(int columns, int rows, int connectLength, int depthA, int depthB, int openingMoves, int openingCount, AtomicInteger nextOpening,
+				LatencyRecorder latencyRecorder) {
+			_openingMoves = openingMoves;
+			_openingCount = openingCount;
+			_nextOpening = nextOpening;
+			_gameState = new GameState(columns, rows, connectLength, PlayerType.HUMAN, PlayerType.HUMAN); //Seats are filled in for every game
+			_openingPosition = Board.createPosition(columns, rows, connectLength);
+			_results = new TournamentResults();
+
+			_engines = new ComputerPlayer[2][2];
+			int[] depths = { depthA, depthB };
+			for (int engine = 0; engine < 2; engine++) {
+				for (int side = 0; side < 2; side++) {
+					ComputerPlayer computerPlayer = new ComputerPlayer(_gameState, (side == 0) ? PlayerID.PLAYER1 : PlayerID.PLAYER2, _TRANSPOSITION_TABLE_MEGABYTES);
+					computerPlayer.setSearchDepth(depths[engine]);
+					computerPlayer.setOpeningBook(null); //The random openings are the book
+					computerPlayer.searchCompleted.addListener(new StatisticsRecorder(engine, _results));
+					latencyRecorder.listenTo(computerPlayer, _gameState);
+					_engines[engine][side] = computerPlayer;
+				}
+			}
+		}
+
+		@Override
+		public TournamentResults call() {
+			int opening;
+			while ((opening = _nextOpening.getAndIncrement()) < _openingCount) {
+				int[] columns = _createOpening(new Random(_SEED + opening));
+				_playGame(columns, _ENGINE_A);
+				_playGame(columns, _ENGINE_B);
+			}
+			return _results;
+		}
+
+		/**
+		 * Plays one game out from an opening and adds it to the results
+		 * @param opening The columns of the opening moves
+		 * @param player1Engine Which engine plays first, _ENGINE_A or _ENGINE_B
+		 */
+		private void _playGame(int[] opening, int player1Engine) {
+			int player2Engine = 1 - player1Engine;
+			try {
+				_engines[player1Engine][0].clearTranspositionTable();
+				_engines[player2Engine][1].clearTranspositionTable();
+				_gameState.setPlayer(new Seat(_engines[player1Engine][0], opening));
+				_gameState.setPlayer(new Seat(_engines[player2Engine][1], opening));
+				_gameState.restartGame(); //Two ComputerPlayers play the whole game right here
+
+				Board board = _gameState.getBoard();
+				if (_gameState.isGameGoing() || _gameState.getGhostBoard().getMoveCount() != board.getMoveCount()) {
+					throw new IllegalStateException("The game didn't finish cleanly after " + board.getMoveCount() + " moves");
+				}
+
+				PlayerID winner = board.checkForWinner();
+				PlayerID playerIDA = (player1Engine == _ENGINE_A) ? PlayerID.PLAYER1 : PlayerID.PLAYER2;
+				_results._games++;
+				if (winner == PlayerID.NONE) {
+					if (board.getMoveCount() != board.getNumberOfSpaces()) {
+						throw new IllegalStateException("The game ended without a winner on a board that isn't full");
+					}
+					_results._draws++;
+				}
+				else if (winner == playerIDA) {
+					_results._winsA++;
+				}
+				else {
+					_results._lossesA++;
+				}
+			}
+			catch (RuntimeException e) {
+				_results._errors++;
+				if (_results._firstError == null) {
+					_results._firstError = e.toString();
+				}
+				_gameState.stopGame();
+			}
+		}
+
+		/**
+		 * Picks random opening moves, none of which win the game
+		 * @param random The Random to pick moves with
+		 * @return Returns the columns of the opening moves
+		 */
+		private int[] _createOpening(Random random) {
+			_openingPosition.clear();
+			int moves = (int) Math.min(_openingMoves, _openingPosition.getNumberOfSpaces() - 1);
+			int[] columns = new int[moves];
+			PlayerID playerID = PlayerID.PLAYER1;
+			for (int move = 0; move < moves; move++) {
+				int column = random.nextInt(_openingPosition.getNumberOfColumns());
+				if (!_openingPosition.canPlay(column) || _openingPosition.isWinningMove(column, playerID)) {
+					move--;
+					continue;
+				}
+				_openingPosition.play(column, playerID);
+				columns[move] = column;
+				playerID = playerID.getOppositePlayerID();
+			}
+			return columns;
+		}
+	}
+
+	/**
+	 * This class sits an engine in one of the seats of a game. It plays the opening moves for its side, then lets the engine decide.
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private static class Seat extends Player {
+		private ComputerPlayer _computerPlayer;
+		private int[] _opening;
+
+		private Seat(ComputerPlayer computerPlayer, int[] opening) {
+			super(computerPlayer.getPlayerID());
+			_computerPlayer = computerPlayer;
+			_opening = opening;
+		}
+
+		@Override
+		public int requestMove(GameState gameState) {
+			int moveCount = gameState.getBoard().getMoveCount();
+			if (moveCount < _opening.length) {
+				return _opening[moveCount];
+			}
+			return _computerPlayer.requestMove(gameState);
+		}
+	}
+
+	/**
+	 * This class adds the SearchStatistics of every move an engine decides on to the results
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private static class StatisticsRecorder implements IEventListener<ComputerPlayer.SearchCompletedEventData> {
+		private int _engine;
+		private TournamentResults _results;
+
+		private StatisticsRecorder(int engine, TournamentResults results) {
+			_engine = engine;
+			_results = results;
+		}
+
+		@Override
+		public void handleNotification(ComputerPlayer.SearchCompletedEventData data) {
+			SearchStatistics statistics = data.statistics;
+			_results._moves[_engine]++;
+			_results._nanos[_engine] += statistics.getNanos();
+			_results._nodes[_engine] += statistics.getNodeCount();
+			_results._depths[_engine] += statistics.getDepthReached();
+			_results._interiorNodes[_engine] += statistics.getInteriorNodeCount();
+			_results._cutoffs[_engine] += statistics.getCutoffCount();
+			_results._transpositionProbes[_engine] += statistics.getTranspositionProbeCount();
+			_results._transpositionHits[_engine] += statistics.getTranspositionHitCount();
+			_results._allocatedBytes[_engine] += statistics.getAllocatedBytes();
+		}
+	}
+
+	/**
+	 * This class adds up the results of the games played on one thread, or of the whole tournament. Wins, draws and losses are from engine A's side.
+	 * @author Nate Celeste NTC14, Noah Crowley NWC17
+	 */
+	private static class TournamentResults {
+		private long _games, _winsA, _draws, _lossesA, _errors;
+		private long[] _moves = new long[2];
+		private long[] _nanos = new long[2];
+		private long[] _nodes = new long[2];
+		private long[] _depths = new long[2];
+		private long[] _interiorNodes = new long[2];
+		private long[] _cutoffs = new long[2];
+		private long[] _transpositionProbes = new long[2];
+		private long[] _transpositionHits = new long[2];
+		private long[] _allocatedBytes = new long[2];
+		private String _firstError;
+
+		/**
+		 * Adds another set of results to these
+		 * @param results The results to add
+		 */
+		private void add(TournamentResults results) {
+			_games += results._games;
+			_winsA += results._winsA;
+			_draws += results._draws;
+			_lossesA += results._lossesA;
+			_errors += results._errors;
+			for (int engine = 0; engine < 2; engine++) {
+				_moves[engine] += results._moves[engine];
+				_nanos[engine] += results._nanos[engine];
+				_nodes[engine] += results._nodes[engine];
+				_depths[engine] += results._depths[engine];
+				_interiorNodes[engine] += results._interiorNodes[engine];
+				_cutoffs[engine] += results._cutoffs[engine];
+				_transpositionProbes[engine] += results._transpositionProbes[engine];
+				_transpositionHits[engine] += results._transpositionHits[engine];
+				_allocatedBytes[engine] += results._allocatedBytes[engine];
+			}
+			if (_firstError == null) {
+				_firstError = results._firstError;
+			}
+		}
+	}
+}
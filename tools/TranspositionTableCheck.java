@@ -0,0 +1,109 @@
+package connect4.tools;
+
+import connect4.ai.*;
+import connect4.enums.*;
+import connect4.game.*;
+
+/**
+ * This class checks that everything the TranspositionTable packs into an entry comes back out the same, so a field that's too narrow for a wide board can't go unnoticed.
+ * It stores entries with a spread of scores, bounds, depths and best moves, including a move of 300 and the widest move the table keeps, probes them back, and compares every field.
+ * Then it searches a 300 column board and makes sure the principal variation, which is read back out of the table, starts with the chosen column and can be played out.
+ * It prints a line per check and exits with status 1 if any of them failed, so it can fail a build.
+ * Usage: TranspositionTableCheck
+ * @author Nate Celeste NTC14, Noah Crowley NWC17
+ */
+public class TranspositionTableCheck {
+
+	//The moves that are stored, and what each should read back as
+	private static final int[] _MOVES = { -1, 0, 6, 254, 255, 300, 40000, TranspositionTable.MAXIMUM_MOVE, TranspositionTable.MAXIMUM_MOVE + 1 };
+	private static final int[] _EXPECTED_MOVES = { -1, 0, 6, 254, 255, 300, 40000, TranspositionTable.MAXIMUM_MOVE, -1 };
+
+	//Every search is cut off after this long, since a 300 column board is far too wide to search to any real depth
+	private static final SearchLimits _SEARCH_LIMITS = new SearchLimits(SearchEngine.DEFAULT_DEPTH, 500, 0);
+
+	/**
+	 * Runs the check
+	 * @param args Not used
+	 */
+	public static void main(String[] args) {
+		boolean isPassing = _checkRoundTrips();
+		isPassing &= _checkPrincipalVariation(new GridPosition(300, 8, 4));
+		isPassing &= _checkPrincipalVariation(new SparsePosition(400, 400, 4));
+
+		if (!isPassing) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Stores an entry for every move in _MOVES, over enough searches for the age to wrap around, and checks each one probes back the same
+	 * @return Returns whether every entry came back the same
+	 */
+	private static boolean _checkRoundTrips() {
+		TranspositionTable transpositionTable = new TranspositionTable(1);
+		int[] scores = { 0, -1, SearchEngine.WIN_SCORE, -SearchEngine.WIN_SCORE };
+		int[] depths = { 0, 1, 40, 255 };
+
+		boolean isPassing = true;
+		for (int search = 0; search < 300; search++) {
+			transpositionTable.newSearch();
+			for (int i = 0; i < _MOVES.length; i++) {
+				long key = (search * 1000003L + i) * 0x9E3779B97F4A7C15L | 1; //Keys are never 0, since that would look like an empty slot
+				int score = scores[i % scores.length];
+				int bound = TranspositionTable.BOUND_EXACT + i % 3;
+				int depth = depths[i % depths.length];
+				transpositionTable.store(key, score, bound, depth, _MOVES[i]);
+
+				long data = transpositionTable.probe(key);
+				boolean isSame = data != TranspositionTable.MISS &&
+					TranspositionTable.getScore(data) == score &&
+					TranspositionTable.getBound(data) == bound &&
+					TranspositionTable.getDepth(data) == depth &&
+					TranspositionTable.getBestMove(data) == _EXPECTED_MOVES[i];
+				if (!isSame && search == 0) {
+					System.out.printf("Storing move %d read back %s%n", _MOVES[i], (data == TranspositionTable.MISS) ? "a miss" : "move " + TranspositionTable.getBestMove(data) + ", score " + TranspositionTable.getScore(data) + ", bound " + TranspositionTable.getBound(data) + ", depth " + TranspositionTable.getDepth(data));
+				}
+				isPassing &= isSame;
+			}
+		}
+
+		System.out.printf("%-40s %s%n", "Store and probe", isPassing ? "ok" : "FAILED");
+		return isPassing;
+	}
+
+	/**
+	 * Searches a few moves into a game on the given position and checks every principal variation starts with the chosen column and can be played out on the board
+	 * @param position An empty position to play on
+	 * @return Returns whether every principal variation could be played out
+	 */
+	private static boolean _checkPrincipalVariation(Position position) {
+		SearchEngine searchEngine = new SearchEngine();
+		PlayerID playerID = PlayerID.PLAYER1;
+		boolean isPassing = true;
+		for (int move = 0; move < 6; move++) {
+			int column = searchEngine.chooseColumn(position, playerID, _SEARCH_LIMITS);
+			int[] principalVariation = searchEngine.getStatistics().getPrincipalVariation();
+			isPassing &= principalVariation.length > 0 && principalVariation[0] == column;
+
+			//Every move of the line has to be playable in turn
+			Position line = position.copy();
+			PlayerID linePlayerID = playerID;
+			for (int pvColumn : principalVariation) {
+				boolean isPlayable = pvColumn >= 0 && pvColumn < line.getNumberOfColumns() && line.canPlay(pvColumn);
+				isPassing &= isPlayable;
+				if (!isPlayable) {
+					break;
+				}
+				line.play(pvColumn, linePlayerID);
+				linePlayerID = linePlayerID.getOppositePlayerID();
+			}
+			position.play(column, playerID);
+			playerID = playerID.getOppositePlayerID();
+		}
+		searchEngine.shutdown();
+
+		String name = String.format("Principal variation on %dx%d %s", position.getNumberOfColumns(), position.getNumberOfRows(), position.getClass().getSimpleName());
+		System.out.printf("%-40s %s%n", name, isPassing ? "ok" : "FAILED");
+		return isPassing;
+	}
+}